@@ -2,6 +2,7 @@ package com.box.androidsdk.content;
 
 import com.box.androidsdk.content.models.BoxSession;
 import com.box.androidsdk.content.utils.RealTimeServerConnection;
+import com.box.androidsdk.content.utils.RealTimeEventService;
 import com.box.androidsdk.content.requests.BoxRequestsEvent;
 
 /**
@@ -56,6 +57,25 @@ public class BoxApiEvent extends BoxApi {
         return new RealTimeServerConnection(request,changeListener, mSession );
     }
 
+    /**
+     * Gets a request that retrieves the real time servers used to long poll for changes to the user's account.
+     *
+     * @return request to get the real time servers.
+     */
+    public BoxRequestsEvent.EventRealTimeServerRequest getRealTimeServersRequest() {
+        return new BoxRequestsEvent.EventRealTimeServerRequest(getEventsUrl(), mSession);
+    }
+
+    /**
+     * Gets a RealTimeEventService, which keeps a long poll open and pushes the user's events to its listeners as soon as
+     * they happen.
+     *
+     * @return A RealTimeEventService for the user's events, to be started once its listeners are added.
+     */
+    public RealTimeEventService getRealTimeEventService() {
+        return new RealTimeEventService(mSession);
+    }
+
 
 
 }
\ No newline at end of file
@@ -671,6 +671,32 @@ public class BoxApiFile extends BoxApi {
         return new BoxRequestsFile.CommitUploadSession(uploadedParts, null, null, null, uploadSession, mSession);
     }
 
+    /**
+     * Gets a request that uploads a new file through a chunked upload session, uploading several parts at once
+     *
+     * @param file the file to be uploaded
+     * @param destinationFolderId id of the folder the file will be uploaded to
+     * @return request to upload a new file in parts
+     * @throws FileNotFoundException
+     */
+    public BoxRequestsFile.UploadFileInParts getUploadInPartsRequest(File file, String destinationFolderId)
+            throws FileNotFoundException {
+        return new BoxRequestsFile.UploadFileInParts(file, getCreateUploadSessionRequest(file, destinationFolderId), mSession);
+    }
+
+    /**
+     * Gets a request that uploads a new version of a file through a chunked upload session, uploading several parts at once
+     *
+     * @param file the file to be uploaded
+     * @param fileId id of the file to receive the new version
+     * @return request to upload a new file version in parts
+     * @throws FileNotFoundException
+     */
+    public BoxRequestsFile.UploadFileInParts getUploadNewVersionInPartsRequest(File file, String fileId)
+            throws FileNotFoundException {
+        return new BoxRequestsFile.UploadFileInParts(file, getCreateUploadVersionSessionRequest(file, fileId), mSession);
+    }
+
     /**
      * Gets the URL for the upload session
      *
@@ -1,6 +1,7 @@
 package com.box.androidsdk.content;
 
 import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.requests.BoxFolderItemsCursor;
 import com.box.androidsdk.content.requests.BoxRequestsFolder;
 
 /**
@@ -96,6 +97,17 @@ public class BoxApiFolder extends BoxApi {
         return request;
     }
 
+    /**
+     * Gets a cursor that pages through all the items of a folder, holding at most the current page and the
+     * page being prefetched in memory.
+     *
+     * @param id    id of folder to get children on
+     * @return      cursor over a folders children
+     */
+    public BoxFolderItemsCursor getItemsCursor(String id) {
+        return getItemsRequest(id).toCursor();
+    }
+
     /**
      * Gets a request that retrieves the all items of a folder up to max limit. (which is by default DEFAULT_MAX_LIMIT set -1 for unlimited)
      *
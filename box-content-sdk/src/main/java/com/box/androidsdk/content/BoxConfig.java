@@ -3,9 +3,16 @@ package com.box.androidsdk.content;
 import android.content.Context;
 import android.os.Build;
 
+import com.box.androidsdk.content.listeners.RequestMetricsListener;
+
 public class BoxConfig {
 
     private static BoxCache mCache = null;
+    private static BoxRequestExecutor mRequestExecutor = null;
+    private static BoxHttpTransport mHttpTransport = null;
+    private static volatile RequestMetricsListener mRequestMetricsListener = null;
+    private static volatile boolean mCacheRevalidationEnabled = false;
+    private static volatile boolean mStaleWhileRevalidateEnabled = false;
 
     /**
      * Flag for whether logging is enabled. This will log all requests and responses made by the SDK
@@ -72,6 +79,108 @@ public class BoxConfig {
         return mCache;
     }
 
+    /**
+     * Sets the executor shared by the SDK to run requests in the background, for example the paging requests made by
+     * {@link com.box.androidsdk.content.requests.BoxRequestsFolder.GetFolderWithAllItems}.
+     *
+     * @param executor the executor to use, or null to fall back to a default executor.
+     */
+    public static synchronized void setRequestExecutor(BoxRequestExecutor executor) {
+        mRequestExecutor = executor;
+    }
+
+    /**
+     * Returns the executor shared by the SDK to run requests in the background. If none has been set a default
+     * {@link BoxRequestExecutor} is created.
+     *
+     * @return the shared request executor.
+     */
+    public static synchronized BoxRequestExecutor getRequestExecutor() {
+        if (mRequestExecutor == null) {
+            mRequestExecutor = new BoxRequestExecutor();
+        }
+        return mRequestExecutor;
+    }
+
+    /**
+     * Sets the transport used by all requests to reach the Box API.
+     *
+     * @param transport the transport to use, or null to fall back to the default transport.
+     */
+    public static synchronized void setHttpTransport(BoxHttpTransport transport) {
+        mHttpTransport = transport;
+    }
+
+    /**
+     * Returns the transport used by all requests to reach the Box API. If none has been set a default
+     * {@link BoxHttpTransport} opening connections through {@link java.net.URL#openConnection()} is created.
+     *
+     * @return the transport used by requests.
+     */
+    public static synchronized BoxHttpTransport getHttpTransport() {
+        if (mHttpTransport == null) {
+            mHttpTransport = new BoxHttpTransport();
+        }
+        return mHttpTransport;
+    }
+
+    /**
+     * Enables revalidating cached results. Once enabled, sending a {@link com.box.androidsdk.content.requests.BoxCacheableRequest}
+     * for which the cache set in {@link #setCache(BoxCache)} holds an item sends the etag of that item, and returns the
+     * cached item and stores it again if the server responds that it has not been modified. Only the headers are then
+     * transferred for unchanged items. The revalidation is done while sending the request, see
+     * {@link #setStaleWhileRevalidateEnabled(boolean)} to return the cached item right away instead. Disabled by default.
+     *
+     * @param enabled true to revalidate cached results.
+     */
+    public static void setCacheRevalidationEnabled(boolean enabled) {
+        mCacheRevalidationEnabled = enabled;
+    }
+
+    /**
+     * @return true if cached results are revalidated when cacheable requests are sent.
+     */
+    public static boolean isCacheRevalidationEnabled() {
+        return mCacheRevalidationEnabled;
+    }
+
+    /**
+     * Enables returning cached results without waiting for their revalidation. Once enabled along with
+     * {@link #setCacheRevalidationEnabled(boolean)}, sending a cacheable request for which the cache holds an item
+     * returns that item right away and revalidates it on the executor returned by {@link #getRequestExecutor()},
+     * storing the up to date result in the cache for the next request. Disabled by default.
+     *
+     * @param enabled true to return cached results while they are revalidated in the background.
+     */
+    public static void setStaleWhileRevalidateEnabled(boolean enabled) {
+        mStaleWhileRevalidateEnabled = enabled;
+    }
+
+    /**
+     * @return true if cached results are returned while they are revalidated in the background.
+     */
+    public static boolean isStaleWhileRevalidateEnabled() {
+        return mStaleWhileRevalidateEnabled;
+    }
+
+    /**
+     * Sets the listener receiving the timings and sizes of every request sent to Box.
+     *
+     * @param listener the listener to report to, or null to stop reporting.
+     */
+    public static void setRequestMetricsListener(RequestMetricsListener listener) {
+        mRequestMetricsListener = listener;
+    }
+
+    /**
+     * Returns the listener receiving the timings and sizes of every request sent to Box.
+     *
+     * @return the listener, null if none has been set.
+     */
+    public static RequestMetricsListener getRequestMetricsListener() {
+        return mRequestMetricsListener;
+    }
+
     /**
      * Version string
      */
@@ -0,0 +1,142 @@
+package com.box.androidsdk.content;
+
+import com.box.androidsdk.content.models.BoxComment;
+import com.box.androidsdk.content.models.BoxEntity;
+import com.box.androidsdk.content.models.BoxEvent;
+import com.box.androidsdk.content.models.BoxItem;
+import com.box.androidsdk.content.models.BoxIteratorEvents;
+import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.requests.BoxRequestsEvent;
+
+/**
+ * Keeps a {@link DefaultBoxCache} correct by following the event stream of a user: each change reported by the events
+ * API evicts only the cached results about the changed item and its parent folder. Results can then be cached with a
+ * long time to live instead of being requested again every time they are shown.
+ *
+ * {@link #sync()} should be called when the results are about to be used, for instance when a
+ * {@link com.box.androidsdk.content.utils.RealTimeServerConnection} reports a change or when the application comes to
+ * the foreground. The cache cannot know what changed before the first synchronization, so it is cleared then.
+ */
+public class BoxEventCacheInvalidator {
+
+    /**
+     * Number of events requested at a time.
+     */
+    public static final int EVENTS_LIMIT = 500;
+
+    private static final String STREAM_POSITION_NOW = "now";
+
+    private final BoxApiEvent mEventApi;
+    private final DefaultBoxCache mCache;
+    private Long mStreamPosition;
+
+    /**
+     * @param session the session of the user whose changes should be followed.
+     * @param cache   the cache to evict changed results from.
+     */
+    public BoxEventCacheInvalidator(BoxSession session, DefaultBoxCache cache) {
+        mEventApi = new BoxApiEvent(session);
+        mCache = cache;
+    }
+
+    /**
+     * @return the position in the event stream up to which changes have been applied, or null before the first
+     * synchronization.
+     */
+    public synchronized Long getStreamPosition() {
+        return mStreamPosition;
+    }
+
+    /**
+     * Sets the position in the event stream up to which the cache is known to be up to date, for instance one returned
+     * by {@link #getStreamPosition()} and saved along with the cache directory.
+     *
+     * @param streamPosition the position to follow the event stream from.
+     */
+    public synchronized void setStreamPosition(Long streamPosition) {
+        mStreamPosition = streamPosition;
+    }
+
+    /**
+     * Requests the changes since the last synchronization and evicts the results they affect from the cache. This
+     * makes network calls and should not be done on the main thread.
+     *
+     * @return the position in the event stream up to which changes have been applied.
+     * @throws BoxException thrown if the events could not be requested, the position is then left unchanged.
+     */
+    public synchronized Long sync() throws BoxException {
+        if (mStreamPosition == null) {
+            BoxIteratorEvents events = createEventsRequest(STREAM_POSITION_NOW).send();
+            mCache.clear();
+            mStreamPosition = events.getNextStreamPosition();
+            return mStreamPosition;
+        }
+        BoxIteratorEvents events;
+        do {
+            events = createEventsRequest(mStreamPosition.toString()).send();
+            onEvents(events);
+        } while (events.size() >= EVENTS_LIMIT);
+        return mStreamPosition;
+    }
+
+    /**
+     * Evicts the results affected by events requested elsewhere, and advances the stream position past them.
+     *
+     * @param events events following the current stream position.
+     */
+    public synchronized void onEvents(BoxIteratorEvents events) {
+        for (BoxEvent event : events) {
+            invalidate(event);
+        }
+        if (events.getNextStreamPosition() != null) {
+            mStreamPosition = events.getNextStreamPosition();
+        }
+    }
+
+    /**
+     * Evicts the results affected by a single event. Events that do not change items, such as downloads and previews,
+     * are ignored.
+     *
+     * @param event the event to apply.
+     */
+    public void invalidate(BoxEvent event) {
+        String eventType = event.getEventType();
+        if (BoxEvent.EVENT_TYPE_ITEM_DOWNLOAD.equals(eventType) || BoxEvent.EVENT_TYPE_ITEM_PREVIEW.equals(eventType)
+                || BoxEvent.EVENT_TYPE_ADD_LOGIN_ACTIVITY_DEVICE.equals(eventType)) {
+            return;
+        }
+        BoxEntity source = event.getSource();
+        if (source instanceof BoxComment) {
+            source = ((BoxComment) source).getItem();
+        }
+        if (!(source instanceof BoxItem)) {
+            return;
+        }
+        BoxItem item = (BoxItem) source;
+        // Results containing the item, such as the listing of the folder it was moved from, reference it as well.
+        mCache.removeItem(item.getType(), item.getId());
+        if (isTreeChange(eventType) && item.getParent() != null) {
+            mCache.removeItem(item.getParent().getType(), item.getParent().getId());
+        }
+    }
+
+    /**
+     * @return whether the event adds or removes an item from its parent folder.
+     */
+    private static boolean isTreeChange(String eventType) {
+        return BoxEvent.EVENT_TYPE_ITEM_CREATE.equals(eventType)
+                || BoxEvent.EVENT_TYPE_ITEM_UPLOAD.equals(eventType)
+                || BoxEvent.EVENT_TYPE_ITEM_MOVE.equals(eventType)
+                || BoxEvent.EVENT_TYPE_ITEM_COPY.equals(eventType)
+                || BoxEvent.EVENT_TYPE_ITEM_TRASH.equals(eventType)
+                || BoxEvent.EVENT_TYPE_ITEM_UNDELETE_VIA_TRASH.equals(eventType)
+                || BoxEvent.EVENT_TYPE_ITEM_RENAME.equals(eventType);
+    }
+
+    private BoxRequestsEvent.GetUserEvents createEventsRequest(String streamPosition) {
+        return mEventApi.getUserEventsRequest()
+                .setStreamType(BoxRequestsEvent.GetUserEvents.STREAM_TYPE_CHANGES)
+                .setStreamPosition(streamPosition)
+                .setLimit(EVENTS_LIMIT);
+    }
+}
@@ -20,6 +20,7 @@ public class BoxFutureTask<E extends BoxObject> extends FutureTask<BoxResponse<E
 
     protected final BoxRequest mRequest;
     protected ArrayList<OnCompletedListener<E>> mCompletedListeners = new ArrayList<OnCompletedListener<E>>();
+    private BoxResponse<E> mResponse;
 
     /**
      * Creates an instance of a task that can be executed asynchronously
@@ -75,15 +76,26 @@ public class BoxFutureTask<E extends BoxObject> extends FutureTask<BoxResponse<E
             response = new BoxResponse<E>(null, new BoxException("Unable to retrieve response from FutureTask.", ex), mRequest);
         }
 
+        mResponse = response;
         ArrayList<OnCompletedListener<E>> listener = mCompletedListeners;
         for (OnCompletedListener<E> l : listener) {
             l.onCompleted(response);
         }
     }
 
+    /**
+     * Adds a listener notified once the task completes. A listener added after the task has completed is notified
+     * right away on the calling thread.
+     *
+     * @param listener the listener to notify.
+     * @return this task.
+     */
     @SuppressWarnings("unchecked")
     public synchronized BoxFutureTask<E> addOnCompletedListener(OnCompletedListener<E> listener) {
         mCompletedListeners.add(listener);
+        if (mResponse != null) {
+            listener.onCompleted(mResponse);
+        }
         return this;
     }
 
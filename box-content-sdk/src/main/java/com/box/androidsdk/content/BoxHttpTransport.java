@@ -0,0 +1,41 @@
+package com.box.androidsdk.content;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Transport used by every {@link com.box.androidsdk.content.requests.BoxRequest} to reach the Box API. The default
+ * implementation opens connections through {@link URL#openConnection()}, which leaves connection reuse to the platform.
+ *
+ * Subclasses can route requests through a different HTTP client, for instance a client pooling and multiplexing
+ * connections over HTTP/2 that exposes its calls as {@link HttpURLConnection}s, or an in-memory server in tests.
+ * Requests write their body to and read their response from the returned connection, so the connection must behave
+ * like one returned by the platform. The transport used by the SDK can be configured through
+ * {@link BoxConfig#setHttpTransport(BoxHttpTransport)}.
+ */
+public class BoxHttpTransport {
+
+    /**
+     * Opens a connection for a request. The connection has not been connected yet, requests set their method, headers
+     * and timeouts on it before sending their body.
+     *
+     * @param url the url of the request including its query.
+     * @return a connection to the given url.
+     * @throws IOException thrown if the connection could not be opened.
+     */
+    public HttpURLConnection openConnection(URL url) throws IOException {
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    /**
+     * Called once a request is done with a connection opened by {@link #openConnection(URL)}, whether it succeeded or
+     * not. The default implementation disconnects it, which lets the platform return a fully read connection to its
+     * pool.
+     *
+     * @param connection the connection to release.
+     */
+    public void releaseConnection(HttpURLConnection connection) {
+        connection.disconnect();
+    }
+}
@@ -0,0 +1,285 @@
+package com.box.androidsdk.content;
+
+import com.box.androidsdk.content.models.BoxObject;
+import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.requests.BoxRequest;
+import com.box.androidsdk.content.requests.BoxResponse;
+import com.box.androidsdk.content.utils.BoxLogUtils;
+import com.box.androidsdk.content.utils.SdkUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor shared by the SDK for running {@link BoxFutureTask}s in the background. The number of threads is bounded
+ * and idle threads are released, so callers that need to run many requests in parallel (for example
+ * {@link com.box.androidsdk.content.requests.BoxRequestsFolder.GetFolderWithAllItems}) do not have to create and leak
+ * their own thread pools. In addition the number of tasks that may run at once for a single user can be capped, tasks
+ * over the cap wait in a per user queue until one of that user's running tasks finishes.
+ *
+ * The executor used by the SDK can be configured through {@link BoxConfig#setRequestExecutor(BoxRequestExecutor)}.
+ */
+public class BoxRequestExecutor {
+
+    /**
+     * Default number of threads used by the shared executor.
+     */
+    public static final int DEFAULT_MAX_THREADS = 10;
+
+    /**
+     * Default number of tasks that may run at once for a single user.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_PER_SESSION = 5;
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final String NO_SESSION_KEY = "";
+
+    private final ThreadPoolExecutor mExecutor;
+    private final int mMaxConcurrentPerSession;
+    private final HashMap<String, SessionQueue> mSessionQueues = new HashMap<String, SessionQueue>();
+    private final HashMap<String, BoxFutureTask<?>> mCoalescedTasks = new HashMap<String, BoxFutureTask<?>>();
+
+    /**
+     * Creates an executor using {@link #DEFAULT_MAX_THREADS} and {@link #DEFAULT_MAX_CONCURRENT_PER_SESSION}.
+     */
+    public BoxRequestExecutor() {
+        this(DEFAULT_MAX_THREADS, DEFAULT_MAX_CONCURRENT_PER_SESSION);
+    }
+
+    /**
+     * Creates an executor.
+     *
+     * @param maxThreads the maximum number of threads that will be used to run tasks.
+     * @param maxConcurrentPerSession the maximum number of tasks that may run at once for a single user.
+     */
+    public BoxRequestExecutor(int maxThreads, int maxConcurrentPerSession) {
+        if (maxThreads < 1 || maxConcurrentPerSession < 1) {
+            throw new IllegalArgumentException("maxThreads and maxConcurrentPerSession must be at least 1");
+        }
+        mExecutor = SdkUtils.createDefaultThreadPoolExecutor(maxThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        mExecutor.allowCoreThreadTimeOut(true);
+        mMaxConcurrentPerSession = maxConcurrentPerSession;
+    }
+
+    /**
+     * Schedules the given task to be run. The task will run immediately if there is a free thread and the user the
+     * task's request belongs to is under its concurrency cap, otherwise it is queued. A task submitted after
+     * {@link #shutdown()} is cancelled.
+     *
+     * @param task the task to run.
+     * @param <E> the BoxObject result of the task.
+     * @return the given task.
+     */
+    public <E extends BoxObject> BoxFutureTask<E> submit(final BoxFutureTask<E> task) {
+        String key = getSessionKey(task.mRequest);
+        boolean dispatch = false;
+        boolean rejected;
+        synchronized (mSessionQueues) {
+            rejected = mExecutor.isShutdown();
+            if (!rejected) {
+                SessionQueue queue = mSessionQueues.get(key);
+                if (queue == null) {
+                    queue = new SessionQueue();
+                    mSessionQueues.put(key, queue);
+                }
+                dispatch = queue.mRunning < mMaxConcurrentPerSession;
+                if (dispatch) {
+                    queue.mRunning++;
+                } else {
+                    queue.mPending.add(task);
+                }
+            }
+        }
+        if (rejected) {
+            cancel(task);
+        } else if (dispatch) {
+            dispatch(key, task);
+        }
+        return task;
+    }
+
+    /**
+     * Schedules the given task to be run unless a task submitted with the same key has not completed yet, in which
+     * case that task is returned instead and the given one is dropped. Callers are expected to add their listeners to
+     * the returned task, and should not cancel it as it may be shared with other callers.
+     *
+     * @param key identifies the work done by the task, for instance the thumbnail of a file at a given size.
+     * @param task the task to run.
+     * @param <E> the BoxObject result of the task.
+     * @return the task that will complete with the result, either the given task or the one already in flight.
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends BoxObject> BoxFutureTask<E> submitCoalesced(final String key, final BoxFutureTask<E> task) {
+        synchronized (mCoalescedTasks) {
+            BoxFutureTask<?> inFlight = mCoalescedTasks.get(key);
+            if (inFlight != null) {
+                return (BoxFutureTask<E>) inFlight;
+            }
+            mCoalescedTasks.put(key, task);
+        }
+        task.addOnCompletedListener(new BoxFutureTask.OnCompletedListener<E>() {
+            @Override
+            public void onCompleted(BoxResponse<E> response) {
+                synchronized (mCoalescedTasks) {
+                    if (mCoalescedTasks.get(key) == task) {
+                        mCoalescedTasks.remove(key);
+                    }
+                }
+            }
+        });
+        return submit(task);
+    }
+
+    /**
+     * Returns the total number of tasks waiting to run, both those waiting for a thread and those waiting because
+     * their user is at its concurrency cap.
+     *
+     * @return the number of tasks that have been submitted but not started.
+     */
+    public int getQueueDepth() {
+        int depth = mExecutor.getQueue().size();
+        synchronized (mSessionQueues) {
+            for (SessionQueue queue : mSessionQueues.values()) {
+                depth += queue.mPending.size();
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * Returns the number of tasks waiting because the given user is at its concurrency cap.
+     *
+     * @param session the session to check.
+     * @return the number of tasks queued for the user of the session.
+     */
+    public int getPendingCount(BoxSession session) {
+        synchronized (mSessionQueues) {
+            SessionQueue queue = mSessionQueues.get(getSessionKey(session));
+            return queue == null ? 0 : queue.mPending.size();
+        }
+    }
+
+    /**
+     * Returns the number of tasks running or handed to a thread for the given user.
+     *
+     * @param session the session to check.
+     * @return the number of tasks in flight for the user of the session.
+     */
+    public int getRunningCount(BoxSession session) {
+        synchronized (mSessionQueues) {
+            SessionQueue queue = mSessionQueues.get(getSessionKey(session));
+            return queue == null ? 0 : queue.mRunning;
+        }
+    }
+
+    /**
+     * Returns the approximate number of threads that are actively running tasks.
+     *
+     * @return the number of active threads.
+     */
+    public int getActiveCount() {
+        return mExecutor.getActiveCount();
+    }
+
+    /**
+     * Returns the approximate number of tasks that have finished running.
+     *
+     * @return the number of completed tasks.
+     */
+    public long getCompletedTaskCount() {
+        return mExecutor.getCompletedTaskCount();
+    }
+
+    /**
+     * @return the maximum number of tasks that may run at once for a single user.
+     */
+    public int getMaxConcurrentPerSession() {
+        return mMaxConcurrentPerSession;
+    }
+
+    /**
+     * Stops accepting new tasks. Tasks already handed to a thread will still run, tasks waiting on a user cap are
+     * cancelled so that callers waiting on them are released.
+     */
+    public void shutdown() {
+        ArrayList<Runnable> pending = new ArrayList<Runnable>();
+        synchronized (mSessionQueues) {
+            mExecutor.shutdown();
+            for (SessionQueue queue : mSessionQueues.values()) {
+                pending.addAll(queue.mPending);
+            }
+            mSessionQueues.clear();
+        }
+        for (Runnable task : pending) {
+            cancel(task);
+        }
+    }
+
+    private void dispatch(final String key, final Runnable task) {
+        try {
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } finally {
+                        onTaskFinished(key);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            BoxLogUtils.e("BoxRequestExecutor", "Unable to run task", e);
+            cancel(task);
+            onTaskFinished(key);
+        }
+    }
+
+    private static void cancel(Runnable task) {
+        if (task instanceof Future) {
+            ((Future<?>) task).cancel(false);
+        }
+    }
+
+    private void onTaskFinished(String key) {
+        Runnable next = null;
+        synchronized (mSessionQueues) {
+            SessionQueue queue = mSessionQueues.get(key);
+            if (queue == null) {
+                return;
+            }
+            queue.mRunning--;
+            if (!mExecutor.isShutdown()) {
+                next = queue.mPending.poll();
+            }
+            if (next != null) {
+                queue.mRunning++;
+            } else if (queue.mRunning <= 0) {
+                mSessionQueues.remove(key);
+            }
+        }
+        if (next != null) {
+            dispatch(key, next);
+        }
+    }
+
+    private static String getSessionKey(BoxRequest request) {
+        return request == null ? NO_SESSION_KEY : getSessionKey(request.getSession());
+    }
+
+    private static String getSessionKey(BoxSession session) {
+        if (session == null || session.getUserId() == null) {
+            return NO_SESSION_KEY;
+        }
+        return session.getUserId();
+    }
+
+    private static class SessionQueue {
+        int mRunning = 0;
+        final ArrayDeque<Runnable> mPending = new ArrayDeque<Runnable>();
+    }
+}
@@ -0,0 +1,601 @@
+package com.box.androidsdk.content;
+
+import com.box.androidsdk.content.models.BoxBookmark;
+import com.box.androidsdk.content.models.BoxFile;
+import com.box.androidsdk.content.models.BoxFolder;
+import com.box.androidsdk.content.models.BoxItem;
+import com.box.androidsdk.content.models.BoxIterator;
+import com.box.androidsdk.content.models.BoxJsonObject;
+import com.box.androidsdk.content.models.BoxObject;
+import com.box.androidsdk.content.requests.BoxCacheableRequest;
+import com.box.androidsdk.content.requests.BoxRequest;
+import com.box.androidsdk.content.requests.BoxResponse;
+import com.box.androidsdk.content.utils.BoxLogUtils;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link BoxCache} keeping the results of {@link BoxCacheableRequest}s in two tiers: the most recently used objects
+ * are kept parsed in memory, and all results are stored as compact JSON in files of a directory so that they survive
+ * the process. Results are keyed on {@link BoxRequest#getCacheKey()}, expire after a time to live and the least
+ * recently used ones are evicted once a tier is over its budget.
+ *
+ * The cache is enabled by setting it in {@link BoxConfig#setCache(BoxCache)}, for instance
+ * {@code BoxConfig.setCache(new DefaultBoxCache(new File(context.getCacheDir(), "box_cache")))}. Successful results
+ * of cacheable requests are then stored as they are received, and returned by
+ * {@link BoxCacheableRequest#sendForCachedResult()}.
+ *
+ * Each result remembers the items it was requested for or contains, so that {@link #removeItem(String, String)} can
+ * evict only the results affected by a change, see {@link BoxEventCacheInvalidator}.
+ */
+public class DefaultBoxCache implements BoxCache {
+
+    /**
+     * Default time after which a stored result expires.
+     */
+    public static final long DEFAULT_TIME_TO_LIVE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Default number of bytes of objects kept parsed in memory, measured by the size of their JSON.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET_BYTES = 2 * 1024 * 1024;
+
+    /**
+     * Default number of bytes of files stored in the cache directory.
+     */
+    public static final long DEFAULT_DISK_BUDGET_BYTES = 20 * 1024 * 1024;
+
+    private static final String TAG = DefaultBoxCache.class.getName();
+    private static final String ENTRY_EXTENSION = ".json";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final String FIELD_CLASS = "class";
+    private static final String FIELD_VALUE = "value";
+    private static final String FIELD_ITEMS = "items";
+    // Matches the items a request url is about, such as /files/{id} or /folders/{id}/items.
+    private static final Pattern ITEM_URL_PATTERN = Pattern.compile("/(files|folders|web_links)/([^/?\\s]+)");
+    private static final String UTF_8 = "UTF-8";
+
+    private final File mDirectory;
+    private final long mTimeToLiveMillis;
+    private final long mMemoryBudget;
+    private final long mDiskBudget;
+
+    // Guarded by this, least recently used first.
+    private final LinkedHashMap<String, MemoryEntry> mMemoryEntries = new LinkedHashMap<String, MemoryEntry>(16, 0.75f, true);
+    private long mMemorySize;
+    // Length of the files of the cache directory keyed by name, loaded on first use. Guarded by this, least recently
+    // used first.
+    private LinkedHashMap<String, Long> mDiskEntries;
+    private long mDiskSize;
+    // Items referenced by the files of the cache directory keyed by name, read from the files listed from previous
+    // processes only when needed. Guarded by this.
+    private final HashMap<String, Set<String>> mDiskItems = new HashMap<String, Set<String>>();
+    // Incremented whenever a result is stored or removed, so that a result read from disk outside of the lock is only
+    // kept if nothing changed in the meantime. Guarded by this.
+    private long mGeneration;
+    // Incremented whenever results are removed, so that a result written to disk outside of the lock is only indexed if
+    // it cannot have been invalidated in the meantime. Guarded by this.
+    private long mRemovals;
+
+    /**
+     * Creates a cache storing its files in the given directory, with the default time to live and budgets.
+     *
+     * @param directory the directory to store results in, which should only be used by this cache.
+     */
+    public DefaultBoxCache(File directory) {
+        this(directory, DEFAULT_TIME_TO_LIVE_MILLIS, DEFAULT_MEMORY_BUDGET_BYTES, DEFAULT_DISK_BUDGET_BYTES);
+    }
+
+    /**
+     * Creates a cache storing its files in the given directory.
+     *
+     * @param directory         the directory to store results in, which should only be used by this cache.
+     * @param timeToLiveMillis  the time after which a stored result expires.
+     * @param memoryBudgetBytes the number of bytes of objects kept parsed in memory, measured by the size of their JSON.
+     * @param diskBudgetBytes   the number of bytes of files stored in the directory.
+     */
+    public DefaultBoxCache(File directory, long timeToLiveMillis, long memoryBudgetBytes, long diskBudgetBytes) {
+        if (directory == null) {
+            throw new IllegalArgumentException("A cache directory is required");
+        }
+        mDirectory = directory;
+        mTimeToLiveMillis = timeToLiveMillis;
+        mMemoryBudget = memoryBudgetBytes;
+        mDiskBudget = diskBudgetBytes;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends BoxObject, R extends BoxRequest & BoxCacheableRequest> T get(R request) throws BoxException {
+        String key = request.getCacheKey();
+        String fileName = getFileName(key);
+        long generation;
+        synchronized (this) {
+            MemoryEntry entry = mMemoryEntries.get(key);
+            if (entry != null) {
+                if (!isExpired(entry.mStoredAt)) {
+                    touchDiskEntry(fileName);
+                    return (T) entry.mValue;
+                }
+                removeMemoryEntry(key);
+            }
+            loadDiskEntries();
+            if (touchDiskEntry(fileName) == null) {
+                return null;
+            }
+            generation = mGeneration;
+        }
+
+        File file = new File(mDirectory, fileName);
+        long storedAt = file.lastModified();
+        if (isExpired(storedAt)) {
+            removeIfUnchanged(key, generation);
+            return null;
+        }
+        BoxJsonObject value = readEntry(file);
+        if (value == null) {
+            removeIfUnchanged(key, generation);
+            return null;
+        }
+        Set<String> items = getItemReferences(key, value);
+        synchronized (this) {
+            if (mGeneration != generation) {
+                // The result was stored again or removed while it was read, which must not be undone.
+                return (T) value;
+            }
+            putMemoryEntry(key, value, items, file.length(), storedAt);
+            if (mDiskEntries.containsKey(fileName)) {
+                mDiskItems.put(fileName, items);
+            }
+        }
+        return (T) value;
+    }
+
+    @Override
+    public <T extends BoxObject> void put(BoxResponse<T> response) throws BoxException {
+        if (!response.isSuccess() || !(response.getResult() instanceof BoxJsonObject) || !(response.getRequest() instanceof BoxCacheableRequest)) {
+            return;
+        }
+        BoxJsonObject value = (BoxJsonObject) response.getResult();
+        String key = response.getRequest().getCacheKey();
+        String fileName = getFileName(key);
+        long storedAt = System.currentTimeMillis();
+        synchronized (this) {
+            MemoryEntry existing = mMemoryEntries.get(key);
+            if (existing != null && existing.mValue == value) {
+                // The cached result was revalidated, only its time to live needs to be refreshed.
+                putMemoryEntry(key, value, existing.mItems, existing.mSize, storedAt);
+                if (touchDiskEntry(fileName) != null) {
+                    new File(mDirectory, fileName).setLastModified(storedAt);
+                }
+                return;
+            }
+        }
+
+        Set<String> items = getItemReferences(key, value);
+        JsonArray itemsArray = new JsonArray();
+        for (String item : items) {
+            itemsArray.add(item);
+        }
+        JsonObject entry = new JsonObject();
+        entry.add(FIELD_CLASS, value.getClass().getName());
+        entry.add(FIELD_ITEMS, itemsArray);
+        entry.add(FIELD_VALUE, value.toJsonObject());
+        byte[] bytes;
+        long removals;
+        try {
+            bytes = entry.toString().getBytes(UTF_8);
+        } catch (UnsupportedEncodingException e) {
+            throw new BoxException("Unable to store result in cache", e);
+        }
+        synchronized (this) {
+            if (bytes.length > mDiskBudget) {
+                // Only kept in memory, an older result stored on disk must not be returned later.
+                remove(key);
+                putMemoryEntry(key, value, items, bytes.length, storedAt);
+                return;
+            }
+            putMemoryEntry(key, value, items, bytes.length, storedAt);
+            removals = mRemovals;
+        }
+        try {
+            writeEntry(new File(mDirectory, fileName), bytes);
+        } catch (IOException e) {
+            BoxLogUtils.e(TAG, "Unable to write cache entry", e);
+            return;
+        }
+        synchronized (this) {
+            if (mRemovals != removals) {
+                // The result may have been invalidated while it was written, it must not come back from disk.
+                remove(key);
+                new File(mDirectory, fileName).delete();
+                return;
+            }
+            mGeneration++;
+            loadDiskEntries();
+            Long previousLength = mDiskEntries.put(fileName, (long) bytes.length);
+            mDiskSize += bytes.length - (previousLength == null ? 0 : previousLength);
+            mDiskItems.put(fileName, items);
+            trimDisk();
+        }
+    }
+
+    /**
+     * Removes the result of the given request from the cache.
+     *
+     * @param request the request whose result should be removed.
+     */
+    public void remove(BoxRequest request) {
+        remove(request.getCacheKey());
+    }
+
+    /**
+     * Removes the results referencing the given item: the results of requests on the item, such as its information or
+     * the listing of a folder, and the results containing it, such as the listing of its parent folder.
+     *
+     * @param type the type of the item, for instance {@link BoxFile#TYPE}.
+     * @param id   the id of the item.
+     */
+    public void removeItem(String type, String id) {
+        String item = getItemReference(type, id);
+        List<String> unknownFileNames = new ArrayList<String>();
+        synchronized (this) {
+            removeMemoryEntries(item);
+            loadDiskEntries();
+            for (String fileName : mDiskEntries.keySet()) {
+                if (!mDiskItems.containsKey(fileName)) {
+                    unknownFileNames.add(fileName);
+                }
+            }
+        }
+
+        // Files stored by a previous process are read outside of the lock, once.
+        Map<String, Set<String>> readItems = new HashMap<String, Set<String>>();
+        for (String fileName : unknownFileNames) {
+            readItems.put(fileName, readEntryItems(new File(mDirectory, fileName)));
+        }
+
+        synchronized (this) {
+            for (Map.Entry<String, Set<String>> entry : readItems.entrySet()) {
+                if (mDiskEntries.containsKey(entry.getKey()) && !mDiskItems.containsKey(entry.getKey())) {
+                    mDiskItems.put(entry.getKey(), entry.getValue());
+                }
+            }
+            // Results stored in memory while the files were read may reference the item as well.
+            removeMemoryEntries(item);
+            Iterator<Map.Entry<String, Long>> diskEntries = mDiskEntries.entrySet().iterator();
+            while (diskEntries.hasNext()) {
+                Map.Entry<String, Long> entry = diskEntries.next();
+                Set<String> items = mDiskItems.get(entry.getKey());
+                // An unreadable entry is removed as it may reference the item.
+                if (items == null || items.contains(item)) {
+                    new File(mDirectory, entry.getKey()).delete();
+                    mDiskSize -= entry.getValue();
+                    mDiskItems.remove(entry.getKey());
+                    diskEntries.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all results from the cache.
+     */
+    public synchronized void clear() {
+        mGeneration++;
+        mRemovals++;
+        mMemoryEntries.clear();
+        mMemorySize = 0;
+        loadDiskEntries();
+        for (String fileName : mDiskEntries.keySet()) {
+            new File(mDirectory, fileName).delete();
+        }
+        mDiskEntries.clear();
+        mDiskItems.clear();
+        mDiskSize = 0;
+    }
+
+    /**
+     * @return the number of bytes of objects kept parsed in memory, measured by the size of their JSON.
+     */
+    public synchronized long getMemorySize() {
+        return mMemorySize;
+    }
+
+    /**
+     * @return the number of bytes of files stored in the cache directory.
+     */
+    public synchronized long getDiskSize() {
+        loadDiskEntries();
+        return mDiskSize;
+    }
+
+    private synchronized void remove(String key) {
+        mGeneration++;
+        mRemovals++;
+        removeMemoryEntry(key);
+        loadDiskEntries();
+        String fileName = getFileName(key);
+        Long length = mDiskEntries.remove(fileName);
+        if (length != null) {
+            mDiskSize -= length;
+            mDiskItems.remove(fileName);
+            new File(mDirectory, fileName).delete();
+        }
+    }
+
+    private void removeMemoryEntries(String item) {
+        mGeneration++;
+        mRemovals++;
+        Iterator<Map.Entry<String, MemoryEntry>> memoryEntries = mMemoryEntries.entrySet().iterator();
+        while (memoryEntries.hasNext()) {
+            MemoryEntry entry = memoryEntries.next().getValue();
+            if (entry.mItems.contains(item)) {
+                mMemorySize -= entry.mSize;
+                memoryEntries.remove();
+            }
+        }
+    }
+
+    private synchronized void removeIfUnchanged(String key, long generation) {
+        if (mGeneration == generation) {
+            remove(key);
+        }
+    }
+
+    private boolean isExpired(long storedAt) {
+        return System.currentTimeMillis() - storedAt >= mTimeToLiveMillis;
+    }
+
+    private void putMemoryEntry(String key, BoxObject value, Set<String> items, long size, long storedAt) {
+        mGeneration++;
+        removeMemoryEntry(key);
+        if (size > mMemoryBudget) {
+            return;
+        }
+        mMemoryEntries.put(key, new MemoryEntry(value, items, size, storedAt));
+        mMemorySize += size;
+        Iterator<MemoryEntry> entries = mMemoryEntries.values().iterator();
+        while (mMemorySize > mMemoryBudget && entries.hasNext()) {
+            mMemorySize -= entries.next().mSize;
+            entries.remove();
+        }
+    }
+
+    private void removeMemoryEntry(String key) {
+        MemoryEntry entry = mMemoryEntries.remove(key);
+        if (entry != null) {
+            mMemorySize -= entry.mSize;
+        }
+    }
+
+    private Long touchDiskEntry(String fileName) {
+        return mDiskEntries == null ? null : mDiskEntries.get(fileName);
+    }
+
+    private void trimDisk() {
+        Iterator<Map.Entry<String, Long>> entries = mDiskEntries.entrySet().iterator();
+        while (mDiskSize > mDiskBudget && entries.hasNext()) {
+            Map.Entry<String, Long> entry = entries.next();
+            new File(mDirectory, entry.getKey()).delete();
+            mDiskSize -= entry.getValue();
+            mDiskItems.remove(entry.getKey());
+            entries.remove();
+        }
+    }
+
+    /**
+     * Lists the files of the cache directory the first time it is needed, ordered from the oldest to the most recently
+     * stored as usage from previous processes is not known.
+     */
+    private void loadDiskEntries() {
+        if (mDiskEntries != null) {
+            return;
+        }
+        mDiskEntries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+        mDiskSize = 0;
+        if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+            BoxLogUtils.e(TAG, "Unable to create cache directory " + mDirectory.getAbsolutePath());
+            return;
+        }
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> entryFiles = new ArrayList<File>(files.length);
+        for (File file : files) {
+            if (file.getName().endsWith(ENTRY_EXTENSION)) {
+                entryFiles.add(file);
+            } else if (file.getName().endsWith(TEMP_EXTENSION)) {
+                // left over by a write that did not complete.
+                file.delete();
+            }
+        }
+        final Map<File, Long> lastModified = new HashMap<File, Long>();
+        for (File file : entryFiles) {
+            lastModified.put(file, file.lastModified());
+        }
+        File[] sortedFiles = entryFiles.toArray(new File[entryFiles.size()]);
+        Arrays.sort(sortedFiles, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long lhsModified = lastModified.get(lhs);
+                long rhsModified = lastModified.get(rhs);
+                return lhsModified < rhsModified ? -1 : (lhsModified == rhsModified ? 0 : 1);
+            }
+        });
+        for (File file : sortedFiles) {
+            long length = file.length();
+            mDiskEntries.put(file.getName(), length);
+            mDiskSize += length;
+        }
+        trimDisk();
+    }
+
+    private void writeEntry(File file, byte[] bytes) throws IOException {
+        if (!mDirectory.exists()) {
+            mDirectory.mkdirs();
+        }
+        // Written to a temporary file first so that readers never see a partially written entry. Each write gets its own
+        // temporary file as the same result may be stored by several threads at once.
+        File tempFile = File.createTempFile(file.getName(), TEMP_EXTENSION, mDirectory);
+        FileOutputStream output = new FileOutputStream(tempFile);
+        try {
+            output.write(bytes);
+        } finally {
+            output.close();
+        }
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            throw new IOException("Unable to rename " + tempFile.getAbsolutePath());
+        }
+    }
+
+    private BoxJsonObject readEntry(File file) {
+        Reader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+            JsonObject entry = JsonObject.readFrom(reader);
+            Class<?> clazz = Class.forName(entry.get(FIELD_CLASS).asString());
+            if (!BoxJsonObject.class.isAssignableFrom(clazz)) {
+                return null;
+            }
+            BoxJsonObject value = (BoxJsonObject) clazz.newInstance();
+            value.createFromJson(entry.get(FIELD_VALUE).asObject());
+            return value;
+        } catch (Exception e) {
+            // The entry is unreadable or was stored by an incompatible version, it is treated as missing.
+            BoxLogUtils.e(TAG, "Unable to read cache entry " + file.getName(), e);
+            return null;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the items referenced by a stored entry, or returns null if the entry cannot be read.
+     */
+    private Set<String> readEntryItems(File file) {
+        Reader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+            JsonValue itemsValue = JsonObject.readFrom(reader).get(FIELD_ITEMS);
+            if (itemsValue == null || !itemsValue.isArray()) {
+                return null;
+            }
+            Set<String> items = new HashSet<String>();
+            for (JsonValue item : itemsValue.asArray()) {
+                items.add(item.asString());
+            }
+            return items;
+        } catch (Exception e) {
+            BoxLogUtils.e(TAG, "Unable to read cache entry " + file.getName(), e);
+            return null;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the items a result is about: the items in the url of its request, the item it is and the items it lists.
+     */
+    private static Set<String> getItemReferences(String key, BoxJsonObject value) {
+        Set<String> items = new HashSet<String>();
+        Matcher matcher = ITEM_URL_PATTERN.matcher(key);
+        while (matcher.find()) {
+            String path = matcher.group(1);
+            String type = path.equals("files") ? BoxFile.TYPE : (path.equals("folders") ? BoxFolder.TYPE : BoxBookmark.TYPE);
+            items.add(getItemReference(type, matcher.group(2)));
+        }
+        addItemReferences(items, value);
+        if (value instanceof BoxFolder && ((BoxFolder) value).getItemCollection() != null) {
+            addItemReferences(items, ((BoxFolder) value).getItemCollection());
+        }
+        return items;
+    }
+
+    private static void addItemReferences(Set<String> items, BoxJsonObject value) {
+        if (value instanceof BoxItem) {
+            items.add(getItemReference(((BoxItem) value).getType(), ((BoxItem) value).getId()));
+        } else if (value instanceof BoxIterator) {
+            for (Object entry : (BoxIterator<?>) value) {
+                if (entry instanceof BoxItem) {
+                    items.add(getItemReference(((BoxItem) entry).getType(), ((BoxItem) entry).getId()));
+                }
+            }
+        }
+    }
+
+    private static String getItemReference(String type, String id) {
+        return type + " " + id;
+    }
+
+    private static String getFileName(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(key.getBytes(UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2 + ENTRY_EXTENSION.length());
+            for (byte b : hash) {
+                sb.append(String.format(Locale.ENGLISH, "%02x", b));
+            }
+            sb.append(ENTRY_EXTENSION);
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class MemoryEntry {
+        final BoxObject mValue;
+        final Set<String> mItems;
+        final long mSize;
+        final long mStoredAt;
+
+        MemoryEntry(BoxObject value, Set<String> items, long size, long storedAt) {
+            mValue = value;
+            mItems = items;
+            mSize = size;
+            mStoredAt = storedAt;
+        }
+    }
+}
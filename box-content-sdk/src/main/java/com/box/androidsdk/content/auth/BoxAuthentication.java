@@ -2,6 +2,7 @@ package com.box.androidsdk.content.auth;
 
 import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
 
@@ -21,6 +22,7 @@ import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 
 import java.lang.ref.WeakReference;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +31,9 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -42,12 +47,18 @@ public class BoxAuthentication {
 
     private ConcurrentLinkedQueue<WeakReference<AuthListener>> mListeners = new ConcurrentLinkedQueue<>();
 
-    private ConcurrentHashMap<String, BoxAuthenticationInfo> mCurrentAccessInfo;
+    private volatile ConcurrentHashMap<String, BoxAuthenticationInfo> mCurrentAccessInfo;
 
-    private final ConcurrentHashMap<String, FutureTask> mRefreshingTasks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, FutureTask<BoxAuthenticationInfo>> mRefreshingTasks = new ConcurrentHashMap<>();
 
     private static final ThreadPoolExecutor AUTH_EXECUTOR = SdkUtils.createDefaultThreadPoolExecutor(1, 1, 3600, TimeUnit.SECONDS);
 
+    private static final ScheduledThreadPoolExecutor REFRESH_SCHEDULER = createRefreshScheduler();
+
+    private final ConcurrentHashMap<String, ScheduledFuture<?>> mScheduledRefreshes = new ConcurrentHashMap<>();
+
+    private volatile float mBackgroundRefreshFraction = 0;
+
     private AuthenticationRefreshProvider mRefreshProvider;
     private static final String TAG = BoxAuthentication.class.getName();
 
@@ -142,6 +153,118 @@ public class BoxAuthentication {
         mRefreshProvider = refreshProvider;
     }
 
+    /**
+     * Refresh the access token of every session in the background once the given fraction of its lifetime has elapsed,
+     * so that requests rarely have to wait for a refresh after being rejected with an expired token. A refresh is
+     * scheduled whenever a session is authenticated or refreshed, and only runs if the session is still in use and
+     * still holds the same access token by then.
+     *
+     * @param fraction the fraction of the lifetime of an access token after which it is refreshed, between 0 and 1
+     *                 exclusive, for instance 0.75. 0 disables background refreshes, which is the default.
+     */
+    public void setBackgroundRefreshFraction(float fraction) {
+        if (fraction < 0 || fraction >= 1) {
+            throw new IllegalArgumentException("Background refresh fraction must be at least 0 and less than 1: " + fraction);
+        }
+        mBackgroundRefreshFraction = fraction;
+        if (fraction == 0) {
+            for (String userId : mScheduledRefreshes.keySet()) {
+                cancelBackgroundRefresh(userId);
+            }
+        }
+    }
+
+    /**
+     * @return the fraction of the lifetime of an access token after which it is refreshed in the background, 0 if
+     * background refreshes are disabled.
+     */
+    public float getBackgroundRefreshFraction() {
+        return mBackgroundRefreshFraction;
+    }
+
+    /**
+     * Schedule the background refresh of the given session according to its current authentication information,
+     * replacing any refresh already scheduled for its user. Does nothing if background refreshes are disabled or the
+     * expiration of the access token is unknown.
+     *
+     * @param session the session to refresh in the background.
+     */
+    public void scheduleBackgroundRefresh(final BoxSession session) {
+        final String userId = session.getUserId();
+        final BoxAuthenticationInfo info = session.getAuthInfo();
+        if (SdkUtils.isBlank(userId) || info == null || SdkUtils.isBlank(info.accessToken())) {
+            return;
+        }
+        long delay = getBackgroundRefreshDelay(info, mBackgroundRefreshFraction, System.currentTimeMillis());
+        if (delay < 0) {
+            return;
+        }
+        final String accessToken = info.accessToken();
+        // The scheduler must not keep the session, and whatever it references, from being collected.
+        final WeakReference<BoxSession> sessionReference = new WeakReference<>(session);
+        ScheduledFuture<?> future = REFRESH_SCHEDULER.schedule(new Runnable() {
+            @Override
+            public void run() {
+                BoxSession scheduledSession = sessionReference.get();
+                if (scheduledSession == null || !userId.equals(scheduledSession.getUserId())
+                        || !accessToken.equals(scheduledSession.getAuthInfo().accessToken())) {
+                    // The session is gone, logged out or has been refreshed since.
+                    return;
+                }
+                scheduledSession.refresh();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> previous = mScheduledRefreshes.put(userId, future);
+        if (previous != null) {
+            previous.cancel(false);
+            REFRESH_SCHEDULER.purge();
+        }
+    }
+
+    /**
+     * @param info     the authentication information of a session.
+     * @param fraction the fraction of the lifetime of the access token after which it should be refreshed.
+     * @param now      the current time in milliseconds.
+     * @return the delay in milliseconds before the access token should be refreshed, 0 if it is already due, or -1 if
+     * it should not be refreshed in the background.
+     */
+    static long getBackgroundRefreshDelay(BoxAuthenticationInfo info, float fraction, long now) {
+        Long refreshTime = info.getRefreshTime();
+        Long expiresIn = info.expiresIn();
+        if (fraction <= 0 || refreshTime == null || expiresIn == null || expiresIn <= 0) {
+            return -1;
+        }
+        long refreshAt = refreshTime + (long) (TimeUnit.SECONDS.toMillis(expiresIn) * (double) fraction);
+        return Math.max(0, refreshAt - now);
+    }
+
+    private void cancelBackgroundRefresh(String userId) {
+        if (userId == null) {
+            return;
+        }
+        ScheduledFuture<?> future = mScheduledRefreshes.remove(userId);
+        if (future != null) {
+            future.cancel(false);
+            // Drop the cancelled refresh from the queue so that the scheduler thread can time out.
+            REFRESH_SCHEDULER.purge();
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createRefreshScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "BoxAuthenticationRefreshScheduler");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // Only keep a thread around while refreshes are scheduled.
+        scheduler.setKeepAliveTime(60, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+        return scheduler;
+    }
+
     /**
      * Launch ui to authenticate.
      * @param session to authenticate using ui.
@@ -162,9 +285,10 @@ public class BoxAuthentication {
             doUserRefresh(context, info);
             return;
         }
-        getAuthInfoMap(context).put(info.getUser().getId(), info.clone());
+        BoxAuthenticationInfo storedInfo = info.clone();
+        getAuthInfoMap(context).put(info.getUser().getId(), storedInfo);
         authStorage.storeLastAuthenticatedUserId(info.getUser().getId(), context);
-        authStorage.storeAuthInfoMap(mCurrentAccessInfo, context);
+        authStorage.storeAuthInfo(info.getUser().getId(), storedInfo, mCurrentAccessInfo, context);
         // if accessToken has not already been refreshed, issue refresh request and cache result
         Set<AuthListener> listeners = getListeners();
         for (AuthListener listener : listeners) {
@@ -242,6 +366,7 @@ public class BoxAuthentication {
 
         Context context = session.getApplicationContext();
         String userId = user.getId();
+        cancelBackgroundRefresh(userId);
 
         getAuthInfoMap(session.getApplicationContext());
         BoxAuthenticationInfo info = mCurrentAccessInfo.get(userId);
@@ -263,7 +388,7 @@ public class BoxAuthentication {
             authStorage.storeLastAuthenticatedUserId(null, context);
         }
 
-        authStorage.storeAuthInfoMap(mCurrentAccessInfo, context);
+        authStorage.storeAuthInfo(userId, null, mCurrentAccessInfo, context);
         onLoggedOut(info, ex);
         info.wipeOutAuth();
     }
@@ -296,23 +421,28 @@ public class BoxAuthentication {
 
     /**
      * Refresh the OAuth in the given BoxSession. This method is called when OAuth token expires.
+     *
+     * Refreshing is single flight and does not block: every caller asking to refresh the same user while a refresh is
+     * in progress gets the task of that refresh, and a session still holding a token that has just been replaced gets
+     * the new token without refreshing again.
+     *
      * @param session a box session with all the necessary information to authenticate the user for the first time.
      * @return a future task allowing monitoring of the api call.
      */
-    public synchronized FutureTask<BoxAuthenticationInfo> refresh(BoxSession session) {
+    public FutureTask<BoxAuthenticationInfo> refresh(BoxSession session) {
         BoxUser user = session.getUser();
         if (user == null) {
             return doRefresh(session, session.getAuthInfo());
         }
         // Fetch auth info map from storage if not present.
-        getAuthInfoMap(session.getApplicationContext());
-        BoxAuthenticationInfo info = mCurrentAccessInfo.get(user.getId());
+        ConcurrentHashMap<String, BoxAuthenticationInfo> authInfoMap = getAuthInfoMap(session.getApplicationContext());
+        BoxAuthenticationInfo info = authInfoMap.get(user.getId());
 
         if (info == null) {
             // session has info that we do not. ? is there any other situation we want to update our info based on session info? we can do checks against
             // refresh time.
-            mCurrentAccessInfo.put(user.getId(), session.getAuthInfo());
-            info = mCurrentAccessInfo.get(user.getId());
+            authInfoMap.putIfAbsent(user.getId(), session.getAuthInfo());
+            info = authInfoMap.get(user.getId());
         }
 
         // No need to refresh if we have already refreshed within 15 seconds or have a newer access token already.
@@ -320,19 +450,14 @@ public class BoxAuthentication {
             final BoxAuthenticationInfo latestInfo = info;
             // this session is probably using old information. Give it our information.
             BoxAuthenticationInfo.cloneInfo(session.getAuthInfo(), info);
-            FutureTask task = new FutureTask<>(new Callable<BoxAuthenticationInfo>() {
+            FutureTask<BoxAuthenticationInfo> task = new FutureTask<>(new Callable<BoxAuthenticationInfo>() {
                 @Override
                 public BoxAuthenticationInfo call() throws Exception {
                     return latestInfo;
                 }
             });
-            AUTH_EXECUTOR.execute(task);
-            return task;
-        }
-
-        FutureTask task = mRefreshingTasks.get(user.getId());
-        if (task != null && !(task.isCancelled() || task.isDone())) {
-            // We already have a refreshing task for this user. No need to do anything.
+            // Completed right away rather than queued behind a refresh that may be running on the auth executor.
+            task.run();
             return task;
         }
 
@@ -425,8 +550,9 @@ public class BoxAuthentication {
                 getAuthStorage().storeLastAuthenticatedUserId(null, session.getApplicationContext());
             }
             // if the error is fatal then wipe out authentication information.
+            cancelBackgroundRefresh(userId);
             getAuthInfoMap(session.getApplicationContext()).remove(userId);
-            getAuthStorage().storeAuthInfoMap(mCurrentAccessInfo, session.getApplicationContext());
+            getAuthStorage().storeAuthInfo(userId, null, mCurrentAccessInfo, session.getApplicationContext());
 
         }
         BoxAuthentication.getInstance().onAuthenticationFailure(info, refreshFailure);
@@ -438,7 +564,7 @@ public class BoxAuthentication {
         final String taskKey = SdkUtils.isBlank(session.getUserId()) && userUnknown ? info.accessToken() : session.getUserId();
         final String userId = (info.getUser() != null) ? info.getUser().getId() : session.getUserId();
 
-        FutureTask<BoxAuthenticationInfo> task = new FutureTask<>(new Callable<BoxAuthenticationInfo>() {
+        FutureTask<BoxAuthenticationInfo> task = new FutureTask<BoxAuthenticationInfo>(new Callable<BoxAuthenticationInfo>() {
             @Override
             public BoxAuthenticationInfo call() throws Exception {
                 BoxAuthenticationInfo refreshInfo;
@@ -446,14 +572,12 @@ public class BoxAuthentication {
                     try {
                         refreshInfo = session.getRefreshProvider().refreshAuthenticationInfo(info);
                     } catch (BoxException e) {
-                        mRefreshingTasks.remove(taskKey);
                         throw handleRefreshException(session, e, info, userId);
                     }
                 } else if (mRefreshProvider != null) {
                     try {
                         refreshInfo = mRefreshProvider.refreshAuthenticationInfo(info);
                     } catch (BoxException e) {
-                        mRefreshingTasks.remove(taskKey);
                         throw handleRefreshException(session, e, info, userId);
                     }
                 } else {
@@ -470,7 +594,6 @@ public class BoxAuthentication {
                     try {
                         refreshInfo = request.send();
                     } catch (BoxException e) {
-                        mRefreshingTasks.remove(taskKey);
                         throw handleRefreshException(session, e, info, userId);
                     }
                 }
@@ -485,7 +608,7 @@ public class BoxAuthentication {
                 }
 
                 getAuthInfoMap(session.getApplicationContext()).put(info.getUser().getId(), refreshInfo);
-                getAuthStorage().storeAuthInfoMap(mCurrentAccessInfo, session.getApplicationContext());
+                getAuthStorage().storeAuthInfo(info.getUser().getId(), refreshInfo, mCurrentAccessInfo, session.getApplicationContext());
                 // call notifyListeners() with results.
                 for (WeakReference<AuthListener> reference : mListeners) {
                     AuthListener rc = reference.get();
@@ -497,23 +620,45 @@ public class BoxAuthentication {
                     session.onAuthFailure(info, new BoxException("Session User Id has changed!"));
                 }
 
-                mRefreshingTasks.remove(taskKey);
-
                 return info;
             }
-        });
-        mRefreshingTasks.put(taskKey, task);
+        }) {
+            @Override
+            protected void done() {
+                // Only removes this task, a newer refresh may have replaced it already.
+                mRefreshingTasks.remove(taskKey, this);
+            }
+        };
+
+        // Join a refresh already in flight for this user, otherwise publish this one. Only the caller that publishes
+        // the task runs it.
+        while (true) {
+            FutureTask<BoxAuthenticationInfo> existing = mRefreshingTasks.putIfAbsent(taskKey, task);
+            if (existing == null) {
+                break;
+            }
+            if (!(existing.isCancelled() || existing.isDone())) {
+                return existing;
+            }
+            if (mRefreshingTasks.replace(taskKey, existing, task)) {
+                break;
+            }
+        }
         AUTH_EXECUTOR.execute(task);
         return task;
-
-
     }
 
     private ConcurrentHashMap<String, BoxAuthenticationInfo> getAuthInfoMap(Context context) {
-        if (mCurrentAccessInfo == null) {
-            mCurrentAccessInfo = authStorage.loadAuthInfoMap(context);
+        ConcurrentHashMap<String, BoxAuthenticationInfo> authInfoMap = mCurrentAccessInfo;
+        if (authInfoMap == null) {
+            synchronized (this) {
+                if (mCurrentAccessInfo == null) {
+                    mCurrentAccessInfo = authStorage.loadAuthInfoMap(context);
+                }
+                authInfoMap = mCurrentAccessInfo;
+            }
         }
-        return mCurrentAccessInfo;
+        return authInfoMap;
     }
 
     /**
@@ -848,6 +993,20 @@ public class BoxAuthentication {
             context.getSharedPreferences(AUTH_STORAGE_NAME, Context.MODE_PRIVATE).edit().putString(AUTH_MAP_STORAGE_KEY, infoMapObj.toJson()).commit();
         }
 
+        /**
+         * Store the auth info of a single user into storage. By default the whole auth info map is stored again,
+         * implementations able to store users separately should override this method.
+         *
+         * @param userId      id of the user whose auth info changed.
+         * @param authInfo    the new auth info of the user, null if the user was removed.
+         * @param authInfoMap the auth info of all users, including this change.
+         * @param context     context here is only used to load shared pref. In case you don't need shared pref, you can ignore this
+         *                    argument in your implementation.
+         */
+        protected void storeAuthInfo(String userId, BoxAuthenticationInfo authInfo, Map<String, BoxAuthenticationInfo> authInfoMap, Context context) {
+            storeAuthInfoMap(authInfoMap, context);
+        }
+
         /**
          * Removes auth info from storage.
          *
@@ -914,6 +1073,190 @@ public class BoxAuthentication {
         }
     }
 
+    /**
+     * An {@link AuthStorage} that keeps the auth info of each user under its own key of the shared preferences and
+     * writes changes behind the callers. Changes are recorded in memory and returned right away by this storage, and a
+     * single writer thread persists them with {@link android.content.SharedPreferences.Editor#apply()}, so that rapid
+     * successive changes are written together and callers never wait on the disk. Only the users that changed are
+     * serialized. A map stored by the default storage is migrated when it is loaded.
+     *
+     * Enable it with {@link BoxAuthentication#setAuthStorage(AuthStorage)} before any session is created.
+     */
+    public static class WriteBehindAuthStorage extends AuthStorage {
+        private static final String AUTH_INFO_STORAGE_KEY_PREFIX = AuthStorage.class.getCanonicalName() + "_authInfo_";
+        // Marks a removed user in the pending changes, serialized auth info is never empty.
+        private static final String REMOVED = "";
+
+        private final ThreadPoolExecutor mWriteExecutor = SdkUtils.createDefaultThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS);
+
+        // Guards the pending changes below.
+        private final Object mPendingLock = new Object();
+        // Serializes writes so that changes are applied in the order they were made.
+        private final Object mWriteLock = new Object();
+        private Map<String, String> mPendingInfos = new HashMap<>();
+        private boolean mPendingClear;
+        private boolean mPendingLegacyRemoval;
+        private boolean mPendingLastUserId;
+        private String mLastUserId;
+        private Context mContext;
+        private boolean mWriteScheduled;
+
+        public WriteBehindAuthStorage() {
+            mWriteExecutor.allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        protected void storeAuthInfoMap(Map<String, BoxAuthenticationInfo> authInfo, Context context) {
+            synchronized (mPendingLock) {
+                mPendingClear = true;
+                mPendingInfos.clear();
+                for (Map.Entry<String, BoxAuthenticationInfo> entry : authInfo.entrySet()) {
+                    mPendingInfos.put(entry.getKey(), entry.getValue().toJson());
+                }
+                scheduleWrite(context);
+            }
+        }
+
+        @Override
+        protected void storeAuthInfo(String userId, BoxAuthenticationInfo authInfo, Map<String, BoxAuthenticationInfo> authInfoMap, Context context) {
+            // Serialized right away as the auth info may change before it is written.
+            String json = authInfo == null ? REMOVED : authInfo.toJson();
+            synchronized (mPendingLock) {
+                mPendingInfos.put(userId, json);
+                scheduleWrite(context);
+            }
+        }
+
+        @Override
+        protected void clearAuthInfoMap(Context context) {
+            synchronized (mPendingLock) {
+                mPendingClear = true;
+                mPendingInfos.clear();
+                scheduleWrite(context);
+            }
+        }
+
+        @Override
+        protected void storeLastAuthenticatedUserId(String userId, Context context) {
+            synchronized (mPendingLock) {
+                mPendingLastUserId = true;
+                mLastUserId = SdkUtils.isEmptyString(userId) ? null : userId;
+                scheduleWrite(context);
+            }
+        }
+
+        @Override
+        protected String getLastAuthentictedUserId(Context context) {
+            synchronized (mPendingLock) {
+                if (mPendingLastUserId) {
+                    return mLastUserId;
+                }
+            }
+            return super.getLastAuthentictedUserId(context);
+        }
+
+        @Override
+        protected ConcurrentHashMap<String, BoxAuthenticationInfo> loadAuthInfoMap(Context context) {
+            flush();
+            ConcurrentHashMap<String, BoxAuthenticationInfo> legacyMap = super.loadAuthInfoMap(context);
+            ConcurrentHashMap<String, BoxAuthenticationInfo> map = new ConcurrentHashMap<>();
+            for (Map.Entry<String, ?> entry : context.getSharedPreferences(AuthStorage.AUTH_STORAGE_NAME, Context.MODE_PRIVATE).getAll().entrySet()) {
+                if (entry.getKey().startsWith(AUTH_INFO_STORAGE_KEY_PREFIX) && entry.getValue() instanceof String) {
+                    BoxAuthenticationInfo info = new BoxAuthenticationInfo();
+                    info.createFromJson((String) entry.getValue());
+                    map.put(entry.getKey().substring(AUTH_INFO_STORAGE_KEY_PREFIX.length()), info);
+                }
+            }
+            if (!legacyMap.isEmpty()) {
+                synchronized (mPendingLock) {
+                    for (Map.Entry<String, BoxAuthenticationInfo> entry : legacyMap.entrySet()) {
+                        if (!map.containsKey(entry.getKey()) && entry.getValue() != null) {
+                            map.put(entry.getKey(), entry.getValue());
+                            mPendingInfos.put(entry.getKey(), entry.getValue().toJson());
+                        }
+                    }
+                    mPendingLegacyRemoval = true;
+                    scheduleWrite(context);
+                }
+            }
+            return map;
+        }
+
+        /**
+         * Write the pending changes on the calling thread. Changes are otherwise written on the writer thread shortly
+         * after they are made.
+         */
+        public void flush() {
+            synchronized (mWriteLock) {
+                Map<String, String> infos;
+                boolean clear;
+                boolean legacyRemoval;
+                boolean lastUserIdChanged;
+                String lastUserId;
+                Context context;
+                synchronized (mPendingLock) {
+                    mWriteScheduled = false;
+                    if (mContext == null) {
+                        return;
+                    }
+                    infos = mPendingInfos;
+                    mPendingInfos = new HashMap<>();
+                    clear = mPendingClear;
+                    legacyRemoval = mPendingLegacyRemoval;
+                    lastUserIdChanged = mPendingLastUserId;
+                    lastUserId = mLastUserId;
+                    context = mContext;
+                    mPendingClear = false;
+                    mPendingLegacyRemoval = false;
+                    mPendingLastUserId = false;
+                    mContext = null;
+                }
+                SharedPreferences prefs = context.getSharedPreferences(AuthStorage.AUTH_STORAGE_NAME, Context.MODE_PRIVATE);
+                SharedPreferences.Editor editor = prefs.edit();
+                if (clear) {
+                    for (String key : prefs.getAll().keySet()) {
+                        if (key.startsWith(AUTH_INFO_STORAGE_KEY_PREFIX)) {
+                            editor.remove(key);
+                        }
+                    }
+                }
+                if (clear || legacyRemoval) {
+                    editor.remove(AuthStorage.AUTH_MAP_STORAGE_KEY);
+                }
+                for (Map.Entry<String, String> entry : infos.entrySet()) {
+                    if (REMOVED.equals(entry.getValue())) {
+                        editor.remove(AUTH_INFO_STORAGE_KEY_PREFIX + entry.getKey());
+                    } else {
+                        editor.putString(AUTH_INFO_STORAGE_KEY_PREFIX + entry.getKey(), entry.getValue());
+                    }
+                }
+                if (lastUserIdChanged) {
+                    if (lastUserId == null) {
+                        editor.remove(AuthStorage.AUTH_STORAGE_LAST_AUTH_USER_ID_KEY);
+                    } else {
+                        editor.putString(AuthStorage.AUTH_STORAGE_LAST_AUTH_USER_ID_KEY, lastUserId);
+                    }
+                }
+                editor.apply();
+            }
+        }
+
+        private void scheduleWrite(Context context) {
+            // Called holding mPendingLock.
+            mContext = context;
+            if (mWriteScheduled) {
+                return;
+            }
+            mWriteScheduled = true;
+            mWriteExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            });
+        }
+    }
+
 
     /**
      * A check to see if an official box application supporting third party authentication is available.
@@ -0,0 +1,19 @@
+package com.box.androidsdk.content.listeners;
+
+import com.box.androidsdk.content.requests.BoxRequestMetrics;
+
+/**
+ * The listener interface for collecting timings and sizes of the requests sent to Box. The listener is registered
+ * through {@link com.box.androidsdk.content.BoxConfig#setRequestMetricsListener(RequestMetricsListener)}.
+ */
+public interface RequestMetricsListener {
+
+    /**
+     * Invoked on the thread sending the request once an attempt to send it has completed, successfully or not. Every
+     * retry of a request is reported separately. Implementations should return quickly as the request does not
+     * complete until they do.
+     *
+     * @param metrics the metrics of the attempt.
+     */
+    void onRequestCompleted(BoxRequestMetrics metrics);
+}
@@ -2,15 +2,16 @@ package com.box.androidsdk.content.models;
 
 import com.eclipsesource.json.JsonArray;
 import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * A collection that contains a subset of items that are a part of a larger collection. The items within a partial collection begin at an offset within the full
@@ -33,6 +34,9 @@ public abstract class BoxIterator<E extends BoxJsonObject> extends BoxJsonObject
     public static final String FIELD_NEXT_MARKER = "next_marker";
     public static final String FIELD_SORT = "sort";
 
+    // Sparse cache of the entries that have been read, indexed like the entries array it was built for.
+    private transient Object[] mEntryCache;
+    private transient JsonArray mEntryCacheSource;
 
 
     public BoxIterator() {
@@ -75,16 +79,37 @@ public abstract class BoxIterator<E extends BoxJsonObject> extends BoxJsonObject
         return getPropertyAsLong(FIELD_TOTAL_COUNT);
     }
 
+    /**
+     * Gets the number of entries in this partial collection. This reads the length of the entries array and does not
+     * construct any entry.
+     *
+     * @return the number of entries in this partial collection.
+     */
     public int size() {
-        if (getEntries() == null) {
+        JsonValue value = getOriginalJsonObject().get(FIELD_ENTRIES);
+        if (value == null || value.isNull()) {
             return 0;
-        } else {
-            return getEntries().size();
         }
+        return value.isArray() ? value.asArray().size() : 1;
     }
 
+    /**
+     * Gets all the entries of this partial collection. Entries that have already been read through {@link #get(int)}
+     * are reused, the rest are constructed and cached.
+     *
+     * @return a list of all the entries, or null if there are no entries.
+     */
     public ArrayList<E> getEntries(){
-        return getPropertyAsJsonObjectArray(getObjectCreator(), FIELD_ENTRIES);
+        JsonArray array = getEntriesArray();
+        if (array == null) {
+            return getPropertyAsJsonObjectArray(getObjectCreator(), FIELD_ENTRIES);
+        }
+        int size = array.size();
+        ArrayList<E> entries = new ArrayList<E>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(get(i));
+        }
+        return entries;
     }
 
     public E get(int index) {
@@ -93,8 +118,39 @@ public abstract class BoxIterator<E extends BoxJsonObject> extends BoxJsonObject
 
     protected abstract BoxJsonObjectCreator<E> getObjectCreator();
 
+    /**
+     * Gets the entry at the given index, constructing it with the given creator the first time it is read. Entries
+     * built with the default creator of this iterator are cached per index so each entry is only constructed once.
+     *
+     * @param creator creator used to construct the entry.
+     * @param index index of the entry.
+     * @return the entry at the given index.
+     */
     public E getAs(BoxJsonObjectCreator<E> creator, int index) {
-        return getEntries().get(index);
+        JsonArray array = getEntriesArray();
+        if (array == null) {
+            ArrayList<E> entries = getPropertyAsJsonObjectArray(creator, FIELD_ENTRIES);
+            if (entries == null) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: 0");
+            }
+            return entries.get(index);
+        }
+        if (creator != getObjectCreator()) {
+            return creator.createFromJsonObject(array.get(index).asObject());
+        }
+
+        Object[] cache = mEntryCache;
+        if (mEntryCacheSource != array || cache == null || cache.length != array.size()) {
+            cache = new Object[array.size()];
+            mEntryCache = cache;
+            mEntryCacheSource = array;
+        }
+        E entry = (E) cache[index];
+        if (entry == null) {
+            entry = creator.createFromJsonObject(array.get(index).asObject());
+            cache[index] = entry;
+        }
+        return entry;
     }
 
     public ArrayList<BoxOrder> getSortOrders() {
@@ -102,9 +158,37 @@ public abstract class BoxIterator<E extends BoxJsonObject> extends BoxJsonObject
     }
 
     public Iterator<E> iterator(){
-        return getEntries() == null ? Collections.<E>emptyList().iterator() : getEntries().iterator();
+        final int size = size();
+        return new Iterator<E>() {
+            private int mNextIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                return mNextIndex < size;
+            }
+
+            @Override
+            public E next() {
+                if (mNextIndex >= size) {
+                    throw new NoSuchElementException();
+                }
+                return get(mNextIndex++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
     }
 
+    private JsonArray getEntriesArray() {
+        JsonValue value = getOriginalJsonObject().get(FIELD_ENTRIES);
+        if (value == null || !value.isArray()) {
+            return null;
+        }
+        return value.asArray();
+    }
 
     /**
      * If using marker based paging returns the next marker if available. Returns null if no additional
@@ -37,7 +37,7 @@ public class BoxIteratorEnterpriseEvents extends BoxIteratorBoxEntity<BoxEnterpr
         HashSet<String> mEventIds = new HashSet<String>(this.size());
         ArrayList<BoxEnterpriseEvent> events = new ArrayList<BoxEnterpriseEvent>(this.size());
         for(BoxEnterpriseEvent event : this){
-            if (!mEventIds.contains(event.getId())){
+            if (event.getEventId() == null || mEventIds.add(event.getEventId())){
                 events.add(event);
             }
         }
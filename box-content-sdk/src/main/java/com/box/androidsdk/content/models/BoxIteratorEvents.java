@@ -36,7 +36,7 @@ public class BoxIteratorEvents extends BoxIteratorBoxEntity<BoxEvent> implements
         HashSet<String> mEventIds = new HashSet<String>(this.size());
         ArrayList<BoxEvent> events = new ArrayList<BoxEvent>(this.size());
         for(BoxEvent event : this){
-            if (!mEventIds.contains(event.getId())){
+            if (event.getEventId() == null || mEventIds.add(event.getEventId())){
                 events.add(event);
             }
         }
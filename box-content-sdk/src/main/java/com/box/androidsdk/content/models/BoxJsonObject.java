@@ -83,7 +83,7 @@ public abstract class BoxJsonObject extends BoxObject {
      * @return a copy of the json object backing this object.
      */
     public JsonObject toJsonObject() {
-        return JsonObject.readFrom(toJson());
+        return copyJsonValue(mCacheMap.getAsJsonObject()).asObject();
     }
 
     /**
@@ -104,7 +104,7 @@ public abstract class BoxJsonObject extends BoxObject {
     public JsonValue getPropertyValue(String name) {
         // Return a copy of json value to ensure user can't change the underlying object directly
         JsonValue jsonValue = mCacheMap.getAsJsonValue(name);
-        return jsonValue == null ? null : JsonValue.readFrom(jsonValue.toString());
+        return jsonValue == null ? null : copyJsonValue(jsonValue);
     }
 
         /**
@@ -161,8 +161,13 @@ public abstract class BoxJsonObject extends BoxObject {
     }
 
     protected Long getPropertyAsLong(final String field){
-        Double property = mCacheMap.getAsDouble(field);
-        return (property == null) ? null : mCacheMap.getAsDouble(field).longValue();
+        try {
+            // Parsed as a long first as large values such as stream positions do not fit in a double.
+            return mCacheMap.getAsLong(field);
+        } catch (NumberFormatException e) {
+            Double property = mCacheMap.getAsDouble(field);
+            return (property == null) ? null : property.longValue();
+        }
     }
 
     protected void set(final String field, final Long value){
@@ -264,6 +269,32 @@ public abstract class BoxJsonObject extends BoxObject {
         return false;
     }
 
+    /**
+     * Creates a deep copy of a json value by walking its structure rather than serializing and parsing it again.
+     * Objects and arrays are recreated, other values are immutable and are shared with the source.
+     *
+     * @param value the json value to copy.
+     * @return a copy of the given value that can be modified without affecting the source.
+     */
+    static JsonValue copyJsonValue(JsonValue value) {
+        if (value.isObject()) {
+            JsonObject source = value.asObject();
+            JsonObject copy = new JsonObject();
+            for (JsonObject.Member member : source) {
+                copy.add(member.getName(), copyJsonValue(member.getValue()));
+            }
+            return copy;
+        }
+        if (value.isArray()) {
+            JsonArray copy = new JsonArray();
+            for (JsonValue element : value.asArray()) {
+                copy.add(copyJsonValue(element));
+            }
+            return copy;
+        }
+        return value;
+    }
+
     JsonObject getOriginalJsonObject(){
         return mCacheMap.getAsJsonObject();
     }
@@ -453,7 +484,7 @@ public abstract class BoxJsonObject extends BoxObject {
 
         public void addInJsonArray(final String field, final BoxJsonObject value) {
             JsonArray jsonArray = getAsJsonArray(field);
-            jsonArray.add(value.toJsonObject());
+            jsonArray.add(copyJsonValue(value.getOriginalJsonObject()));
             if (mInternalCache.containsKey(field)) {
                 mInternalCache.remove(field);
             }
@@ -543,7 +574,7 @@ public abstract class BoxJsonObject extends BoxObject {
         }
 
         public void set(final String field, final BoxJsonObject value) {
-            mJsonObject.set(field, value.toJsonObject());
+            mJsonObject.set(field, copyJsonValue(value.getOriginalJsonObject()));
             if (mInternalCache.containsKey(field)) {
                 mInternalCache.remove(field);
             }
@@ -22,10 +22,10 @@ import com.box.sdk.android.R;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
-import java.lang.ref.WeakReference;
 import java.util.Map;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * A BoxSession is responsible for maintaining the mapping between user and authentication tokens
@@ -59,7 +59,9 @@ public class BoxSession extends BoxObject implements BoxAuthentication.AuthListe
 
     protected boolean mEnableBoxAppAuthentication = BoxConfig.ENABLE_BOX_APP_AUTHENTICATION;
 
-    private transient WeakReference<BoxFutureTask<BoxSession>> mRefreshTask;
+    private transient volatile BoxFutureTask<BoxSession> mRefreshTask;
+    private static final AtomicReferenceFieldUpdater<BoxSession, BoxFutureTask> REFRESH_TASK_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(BoxSession.class, BoxFutureTask.class, "mRefreshTask");
 
     /**
      * When using this constructor, if a user has previously been logged in/stored or there is only one user, this user will be authenticated.
@@ -478,25 +480,27 @@ public class BoxSession extends BoxObject implements BoxAuthentication.AuthListe
 
 
     /**
-     * Refresh authentication information associated with this session.
+     * Refresh authentication information associated with this session. Callers refreshing the session while a refresh
+     * is in progress get the task of that refresh.
      *
      * @return a task that can be used to block until the information associated with this session has been refreshed.
      */
     public BoxFutureTask<BoxSession> refresh() {
-        if (mRefreshTask != null && mRefreshTask.get() != null){
-            BoxFutureTask<BoxSession> lastRefreshTask = mRefreshTask.get();
-            if (!(lastRefreshTask.isCancelled() || lastRefreshTask.isDone())){
-                return lastRefreshTask;
-            }
+        BoxFutureTask<BoxSession> lastRefreshTask = mRefreshTask;
+        if (lastRefreshTask != null && !(lastRefreshTask.isCancelled() || lastRefreshTask.isDone())) {
+            return lastRefreshTask;
         }
         final BoxFutureTask<BoxSession> task = (new BoxSessionRefreshRequest(this)).toTask();
+        if (!REFRESH_TASK_UPDATER.compareAndSet(this, lastRefreshTask, task)) {
+            // Another caller started a refresh in the meantime, join it.
+            return refresh();
+        }
         new Thread(){
             @Override
             public void run() {
                 task.run();
             }
         }.start();
-        mRefreshTask = new WeakReference<BoxFutureTask<BoxSession>>(task);
         return task;
     }
 
@@ -563,6 +567,7 @@ public class BoxSession extends BoxObject implements BoxAuthentication.AuthListe
     public void onRefreshed(BoxAuthentication.BoxAuthenticationInfo info) {
         if (sameUser(info)) {
             BoxAuthentication.BoxAuthenticationInfo.cloneInfo(mAuthInfo, info);
+            BoxAuthentication.getInstance().scheduleBackgroundRefresh(this);
             if (sessionAuthListener != null) {
                 sessionAuthListener.onRefreshed(info);
             }
@@ -581,6 +586,7 @@ public class BoxSession extends BoxObject implements BoxAuthentication.AuthListe
             if (info.getUser() != null) {
                 setUserId(info.getUser().getId());
             }
+            BoxAuthentication.getInstance().scheduleBackgroundRefresh(this);
             if (sessionAuthListener != null) {
                 sessionAuthListener.onAuthCreated(info);
             }
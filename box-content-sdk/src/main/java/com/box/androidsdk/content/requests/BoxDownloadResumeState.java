@@ -0,0 +1,216 @@
+package com.box.androidsdk.content.requests;
+
+import com.box.androidsdk.content.utils.BoxLogUtils;
+import com.box.androidsdk.content.utils.SdkUtils;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Progress of a resumable download, persisted in a small sidecar file next to the target file. The record holds the
+ * number of bytes of the target that are known to be good together with the version and ETag of the file they belong
+ * to, so that a later attempt can ask for the remainder of the same file with a Range request.
+ *
+ * Used by {@link BoxRequestDownload} when {@link BoxRequestDownload#setResumable(boolean)} is set.
+ */
+class BoxDownloadResumeState {
+
+    /**
+     * Suffix appended to the target file name for the sidecar record.
+     */
+    static final String STATE_FILE_SUFFIX = ".boxdownload";
+
+    /**
+     * Number of bytes written between updates of the sidecar record.
+     */
+    static final long SAVE_INTERVAL = 1024 * 1024;
+
+    private static final String FIELD_BYTES_WRITTEN = "bytes_written";
+    private static final String FIELD_VERSION = "version";
+    private static final String FIELD_ETAG = "etag";
+
+    private final File mTarget;
+    private final File mStateFile;
+    private long mBytesWritten;
+    private long mStartOffset;
+    private long mLastSaved;
+    private String mVersion;
+    private String mEtag;
+    private boolean mDiscarded = false;
+
+    private BoxDownloadResumeState(File target, String version) {
+        mTarget = target;
+        mStateFile = getStateFile(target);
+        mVersion = version;
+    }
+
+    /**
+     * Returns the sidecar record for the given target.
+     *
+     * @param target the file being downloaded to.
+     * @return the sidecar file holding the progress of a download to the target.
+     */
+    static File getStateFile(File target) {
+        return new File(target.getPath() + STATE_FILE_SUFFIX);
+    }
+
+    /**
+     * Loads the progress of a previous download to the target. Progress is discarded if it belongs to a different
+     * version of the file, if it cannot be validated against the server, or if the target has been truncated since.
+     *
+     * @param target  the file being downloaded to.
+     * @param version the version of the file being downloaded, null for the current version.
+     * @return the state of the download, with no bytes written if there is nothing to resume.
+     */
+    static BoxDownloadResumeState load(File target, String version) {
+        BoxDownloadResumeState state = new BoxDownloadResumeState(target, version);
+        if (!state.mStateFile.exists()) {
+            return state;
+        }
+        Reader reader = null;
+        try {
+            reader = new InputStreamReader(new FileInputStream(state.mStateFile), "UTF-8");
+            JsonObject json = JsonObject.readFrom(reader);
+            String savedVersion = getString(json, FIELD_VERSION);
+            String savedEtag = getString(json, FIELD_ETAG);
+            long bytesWritten = json.get(FIELD_BYTES_WRITTEN).asLong();
+            boolean sameVersion = version == null ? savedVersion == null : version.equals(savedVersion);
+            // Without a version or ETag there is no way to know the remainder belongs to the same file.
+            boolean verifiable = savedEtag != null || version != null;
+            if (sameVersion && verifiable && bytesWritten > 0 && target.length() >= bytesWritten) {
+                state.mBytesWritten = bytesWritten;
+                state.mEtag = savedEtag;
+            }
+        } catch (Exception e) {
+            BoxLogUtils.e("BoxDownloadResumeState", "Unable to read download state", e);
+        } finally {
+            SdkUtils.closeQuietly(reader);
+        }
+        return state;
+    }
+
+    /**
+     * @return the number of bytes of the target that have been downloaded.
+     */
+    long getBytesWritten() {
+        return mBytesWritten;
+    }
+
+    /**
+     * @return the offset the current attempt started writing at, 0 if the download was restarted.
+     */
+    long getStartOffset() {
+        return mStartOffset;
+    }
+
+    /**
+     * @return the ETag of the file being downloaded if known.
+     */
+    String getEtag() {
+        return mEtag;
+    }
+
+    /**
+     * Opens the target for writing. If the response starts at the number of bytes already written the target is
+     * appended to, if the response is the whole file the download is restarted from the beginning of the file. A
+     * response starting anywhere else fails and discards the progress so that the next attempt asks for the whole file.
+     *
+     * @param responseStart the first byte of the file contained in the response, null if the response is the whole file.
+     * @param etag          the ETag of the file returned by the server.
+     * @return a stream writing to the target that records its progress in the sidecar file.
+     * @throws IOException thrown if the target could not be opened or the response does not start where expected.
+     */
+    OutputStream openOutputStream(Long responseStart, String etag) throws IOException {
+        if (responseStart != null && responseStart != mBytesWritten) {
+            discard();
+            throw new IOException("Unexpected range starting at " + responseStart + " while resuming at " + mBytesWritten);
+        }
+        long offset = responseStart != null ? mBytesWritten : 0;
+        // Drop anything past the last recorded offset as it may not have been written completely.
+        RandomAccessFile file = new RandomAccessFile(mTarget, "rw");
+        try {
+            file.setLength(offset);
+        } finally {
+            file.close();
+        }
+        mStartOffset = offset;
+        mBytesWritten = offset;
+        if (etag != null || offset == 0) {
+            mEtag = etag;
+        }
+        save();
+        return new FilterOutputStream(new FileOutputStream(mTarget, true)) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                mBytesWritten += len;
+                if (mBytesWritten - mLastSaved >= SAVE_INTERVAL) {
+                    save();
+                }
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                mBytesWritten++;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    save();
+                }
+            }
+        };
+    }
+
+    /**
+     * Removes the sidecar record, either because the download completed or because the downloaded content cannot be
+     * trusted. Progress is no longer recorded afterwards.
+     */
+    void discard() {
+        mDiscarded = true;
+        if (mStateFile.exists() && !mStateFile.delete()) {
+            BoxLogUtils.e("BoxDownloadResumeState", "Unable to delete " + mStateFile.getPath());
+        }
+    }
+
+    private void save() throws IOException {
+        if (mDiscarded) {
+            return;
+        }
+        JsonObject json = new JsonObject();
+        json.add(FIELD_BYTES_WRITTEN, mBytesWritten);
+        if (mVersion != null) {
+            json.add(FIELD_VERSION, mVersion);
+        }
+        if (mEtag != null) {
+            json.add(FIELD_ETAG, mEtag);
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(mStateFile), "UTF-8");
+        try {
+            json.writeTo(writer);
+        } finally {
+            writer.close();
+        }
+        mLastSaved = mBytesWritten;
+    }
+
+    private static String getString(JsonObject json, String field) {
+        JsonValue value = json.get(field);
+        return value == null || value.isNull() ? null : value.asString();
+    }
+}
@@ -0,0 +1,170 @@
+package com.box.androidsdk.content.requests;
+
+import com.box.androidsdk.content.BoxConfig;
+import com.box.androidsdk.content.BoxException;
+import com.box.androidsdk.content.BoxFutureTask;
+import com.box.androidsdk.content.models.BoxItem;
+import com.box.androidsdk.content.models.BoxIteratorItems;
+import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.utils.SdkUtils;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Cursor over all the items of a folder. Items are fetched one page at a time with marker-based pagination through
+ * {@link BoxRequestsFolder.GetFolderItems}. As soon as a page arrives the request for the following page is scheduled on
+ * {@link BoxConfig#getRequestExecutor()}, so the next page is usually ready by the time the current one has been
+ * consumed. At most the current page and the page being prefetched are held in memory regardless of the folder size.
+ *
+ * Instances are created with {@link BoxRequestsFolder.GetFolderItems#toCursor()} or
+ * {@link com.box.androidsdk.content.BoxApiFolder#getItemsCursor(String)} and should be closed once no longer needed so
+ * that an outstanding prefetch is cancelled.
+ */
+public class BoxFolderItemsCursor implements Closeable {
+
+    private final BoxRequestsFolder.GetFolderItems mTemplate;
+
+    private BoxFutureTask<BoxIteratorItems> mNextPageTask;
+    private ArrayList<BoxItem> mCurrentItems;
+    private int mIndex = 0;
+    private int mPageCount = 0;
+    private boolean mStarted = false;
+    private boolean mClosed = false;
+
+    /**
+     * Creates a cursor that uses the query parameters of the given request for every page.
+     *
+     * @param template the request describing the folder and the fields to fetch.
+     */
+    BoxFolderItemsCursor(BoxRequestsFolder.GetFolderItems template) {
+        mTemplate = template;
+    }
+
+    /**
+     * Returns whether there are more items in the folder. This blocks if the next page has not arrived yet.
+     *
+     * @return true if {@link #next()} will return an item.
+     * @throws BoxException thrown if fetching the next page failed.
+     */
+    public synchronized boolean hasNext() throws BoxException {
+        while (mCurrentItems == null || mIndex >= mCurrentItems.size()) {
+            if (!advancePage()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the next item in the folder. This blocks if the next page has not arrived yet.
+     *
+     * @return the next item.
+     * @throws BoxException thrown if fetching the next page failed.
+     * @throws NoSuchElementException thrown if there are no more items.
+     */
+    public synchronized BoxItem next() throws BoxException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        BoxItem item = mCurrentItems.get(mIndex);
+        // Release consumed items so only the remainder of the page stays reachable.
+        mCurrentItems.set(mIndex, null);
+        mIndex++;
+        return item;
+    }
+
+    /**
+     * @return the number of pages fetched so far.
+     */
+    public synchronized int getPageCount() {
+        return mPageCount;
+    }
+
+    /**
+     * Stops paging and cancels the prefetch of the next page if one is in flight.
+     */
+    @Override
+    public synchronized void close() {
+        mClosed = true;
+        mCurrentItems = null;
+        if (mNextPageTask != null) {
+            mNextPageTask.cancel(true);
+            mNextPageTask = null;
+        }
+    }
+
+    private boolean advancePage() throws BoxException {
+        mCurrentItems = null;
+        mIndex = 0;
+        if (mClosed) {
+            return false;
+        }
+        if (!mStarted) {
+            mStarted = true;
+            mNextPageTask = submitPage(null);
+        }
+        if (mNextPageTask == null) {
+            return false;
+        }
+
+        BoxIteratorItems page = waitForPage(mNextPageTask);
+        mNextPageTask = null;
+        mPageCount++;
+        String nextMarker = page.getNextMarker();
+        if (!SdkUtils.isEmptyString(nextMarker)) {
+            mNextPageTask = submitPage(nextMarker);
+        }
+        ArrayList<BoxItem> items = page.getEntries();
+        mCurrentItems = items != null ? items : new ArrayList<BoxItem>(0);
+        return true;
+    }
+
+    private BoxFutureTask<BoxIteratorItems> submitPage(String marker) {
+        PageRequest request = new PageRequest(mTemplate.getId(), mTemplate.mRequestUrlString, mTemplate.getSession());
+        request.importRequestContentMapsFrom(mTemplate);
+        request.setTimeOut(mTemplate.mTimeout);
+        request.setMarker(marker);
+        return BoxConfig.getRequestExecutor().submit(request.toTask());
+    }
+
+    private static BoxIteratorItems waitForPage(BoxFutureTask<BoxIteratorItems> task) throws BoxException {
+        BoxResponse<BoxIteratorItems> response;
+        try {
+            // Runs the page request on this thread if the executor has not started it yet, otherwise this is a no-op.
+            task.run();
+            response = task.get();
+        } catch (InterruptedException e) {
+            throw new BoxException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            throw new BoxException(e.getMessage(), e);
+        }
+        if (!response.isSuccess()) {
+            Exception ex = response.getException();
+            if (ex instanceof BoxException) {
+                throw (BoxException) ex;
+            }
+            throw new BoxException("Unable to get folder items", ex);
+        }
+        return response.getResult();
+    }
+
+    /**
+     * Page request that does not store its partial result in the cache.
+     */
+    private static class PageRequest extends BoxRequestsFolder.GetFolderItems {
+
+        private static final long serialVersionUID = 8123965031279971590L;
+
+        PageRequest(String id, String requestUrl, BoxSession session) {
+            super(id, requestUrl, session);
+        }
+
+        @Override
+        protected void onSendCompleted(BoxResponse<BoxIteratorItems> response) throws BoxException {
+            // Do nothing as we don't want single pages to be cached
+        }
+    }
+}
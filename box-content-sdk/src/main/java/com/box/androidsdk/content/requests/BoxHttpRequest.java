@@ -1,8 +1,11 @@
 package com.box.androidsdk.content.requests;
 
 import com.box.androidsdk.content.BoxConfig;
+import com.box.androidsdk.content.BoxHttpTransport;
 import com.box.androidsdk.content.listeners.ProgressListener;
+import com.box.androidsdk.content.utils.SdkUtils;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -18,9 +21,12 @@ class BoxHttpRequest {
 
     protected final HttpURLConnection mUrlConnection;
     protected final ProgressListener mListener;
+    private final BoxHttpTransport mTransport;
+    private long mBytesSent;
 
     /**
-     * Constructs an HTTP request with the default parameters.
+     * Constructs an HTTP request with the default parameters, opening its connection through the transport configured
+     * in {@link BoxConfig#getHttpTransport()}.
      *
      * @param url   URL to connect to.
      * @param method    method type for the HTTP request.
@@ -28,7 +34,21 @@ class BoxHttpRequest {
      * @throws IOException
      */
     public BoxHttpRequest(URL url, BoxRequest.Methods method, ProgressListener listener) throws IOException {
-        mUrlConnection = (HttpURLConnection) url.openConnection();
+        this(BoxConfig.getHttpTransport(), url, method, listener);
+    }
+
+    /**
+     * Constructs an HTTP request opening its connection through the given transport.
+     *
+     * @param transport the transport to open the connection with.
+     * @param url   URL to connect to.
+     * @param method    method type for the HTTP request.
+     * @param listener  progress listener for a long-running API call.
+     * @throws IOException
+     */
+    public BoxHttpRequest(BoxHttpTransport transport, URL url, BoxRequest.Methods method, ProgressListener listener) throws IOException {
+        mTransport = transport;
+        mUrlConnection = transport.openConnection(url);
         mUrlConnection.setRequestMethod(method.toString());
         mListener = listener;
         // enables TLS 1.1 and 1.2 which is disabled by default on kitkat and below
@@ -52,7 +72,8 @@ class BoxHttpRequest {
     }
 
     /**
-     * Sets the body for the HTTP request to the contents of an InputStream.
+     * Sets the body for the HTTP request to the contents of an InputStream. The stream is copied to the connection in
+     * chunks of {@link SdkUtils#BUFFER_SIZE} bytes and is not closed by this method.
      *
      * @param body  InputStream to use for the contents of the body.
      * @return  request with the updated body input stream.
@@ -60,16 +81,73 @@ class BoxHttpRequest {
      */
     public BoxHttpRequest setBody(InputStream body) throws IOException {
         mUrlConnection.setDoOutput(true);
-        OutputStream output = mUrlConnection.getOutputStream();
-        int b = body.read();
-        while (b != -1) {
-            output.write(b);
-            b = body.read();
+        OutputStream output = getOutputStream();
+        try {
+            byte[] buffer = new byte[SdkUtils.BUFFER_SIZE];
+            int n = body.read(buffer);
+            while (n != -1) {
+                output.write(buffer, 0, n);
+                n = body.read(buffer);
+            }
+        } finally {
+            output.close();
+        }
+        return this;
+    }
+
+    /**
+     * Sets the body for the HTTP request to the given bytes. Since the length of the body is known up front the
+     * connection is put in fixed length streaming mode, so the body is written straight to the socket without being
+     * buffered again by the connection.
+     *
+     * @param body  bytes to use for the contents of the body.
+     * @return  request with the updated body.
+     * @throws IOException
+     */
+    public BoxHttpRequest setBody(byte[] body) throws IOException {
+        mUrlConnection.setDoOutput(true);
+        mUrlConnection.setFixedLengthStreamingMode(body.length);
+        OutputStream output = getOutputStream();
+        try {
+            output.write(body);
+        } finally {
+            output.close();
         }
-        output.close();
         return this;
     }
 
+    /**
+     * Returns a stream writing the body of the request to the connection. Bytes written through it are counted in
+     * {@link #getBytesSent()}.
+     *
+     * @return  stream to write the body of the request to.
+     * @throws IOException
+     */
+    public OutputStream getOutputStream() throws IOException {
+        return new FilterOutputStream(mUrlConnection.getOutputStream()) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                mBytesSent += len;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                mBytesSent++;
+            }
+        };
+    }
+
+    /**
+     * Returns the number of bytes of the body written through {@link #getOutputStream()}.
+     *
+     * @return  number of bytes of the body sent.
+     */
+    public long getBytesSent() {
+        return mBytesSent;
+    }
+
     /**
      * Returns the URL connection for the request.
      *
@@ -79,4 +157,11 @@ class BoxHttpRequest {
         return mUrlConnection;
     }
 
+    /**
+     * Hands the connection back to the transport that opened it once the request is done with it.
+     */
+    public void release() {
+        mTransport.releaseConnection(mUrlConnection);
+    }
+
 }
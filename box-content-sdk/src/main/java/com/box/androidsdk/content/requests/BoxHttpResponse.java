@@ -1,12 +1,16 @@
 package com.box.androidsdk.content.requests;
 
 import com.box.androidsdk.content.BoxException;
+import com.box.androidsdk.content.utils.BoxLogUtils;
 import com.box.androidsdk.content.utils.ProgressInputStream;
 import com.box.androidsdk.content.listeners.ProgressListener;
+import com.eclipsesource.json.JsonObject;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.util.zip.GZIPInputStream;
 
@@ -30,6 +34,7 @@ public class BoxHttpResponse {
     protected String mContentType;
     private String mBodyString;
     private String mContentEncoding;
+    private long mBytesReceived;
 
     /**
      * The raw InputStream is the stream returned directly from HttpURLConnection.getInputStream(). We need to keep
@@ -105,7 +110,7 @@ public class BoxHttpResponse {
             String contentEncoding = mConnection.getContentEncoding();
             try {
                 if (this.rawInputStream == null) {
-                    this.rawInputStream = mConnection.getInputStream();
+                    this.rawInputStream = countBytesReceived(mConnection.getInputStream());
                 }
 
                 if (listener == null) {
@@ -135,7 +140,7 @@ public class BoxHttpResponse {
     public void disconnect() throws BoxException {
         try {
             if (this.rawInputStream == null) {
-                this.rawInputStream = mConnection.getInputStream();
+                this.rawInputStream = countBytesReceived(mConnection.getInputStream());
             }
 
             // We need to manually read from the raw input stream in case there are any remaining bytes. There's a bug
@@ -171,9 +176,9 @@ public class BoxHttpResponse {
 
         InputStream stream = null;
         try {
-            stream = isErrorCode(this.mResponseCode) ?
+            stream = countBytesReceived(isErrorCode(this.mResponseCode) ?
                     mConnection.getErrorStream() :
-                    mConnection.getInputStream();
+                    mConnection.getInputStream());
             mBodyString = readStream(stream);
         } catch (IOException e) {
             throw new BoxException("Unable to get string body", e);
@@ -181,6 +186,39 @@ public class BoxHttpResponse {
         return mBodyString;
     }
 
+    /**
+     * Parses this response's body as a json object. Unless the string body has already been read, or logging is enabled
+     * and the string body is needed for the log, the json is parsed directly from the body stream so that the body is
+     * never held in memory as a String alongside the parsed object.
+     *
+     * @return the json object contained in the body of this response.
+     * @throws BoxException thrown if there was an issue reading or parsing the body.
+     */
+    public JsonObject getJsonObjectBody() throws BoxException {
+        if (mBodyString == null && BoxLogUtils.getIsLoggingEnabled()) {
+            getStringBody();
+        }
+        if (mBodyString != null) {
+            return JsonObject.readFrom(mBodyString);
+        }
+
+        Reader reader = null;
+        try {
+            reader = new InputStreamReader(getBody(), "UTF-8");
+            return JsonObject.readFrom(reader);
+        } catch (IOException e) {
+            throw new BoxException("Unable to read stream", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    // Nothing to do, the body has already been parsed or the original exception is reported.
+                }
+            }
+        }
+    }
+
     private String readStream(InputStream inputStream) throws IOException, BoxException {
         if (inputStream == null) {
             return null;
@@ -211,6 +249,47 @@ public class BoxHttpResponse {
     }
 
 
+    /**
+     * Gets the number of bytes of the body read from the connection so far, before decompression.
+     *
+     * @return the number of bytes of the body received.
+     */
+    public long getBytesReceived() {
+        return mBytesReceived;
+    }
+
+    private InputStream countBytesReceived(InputStream stream) {
+        if (stream == null) {
+            return null;
+        }
+        return new FilterInputStream(stream) {
+            @Override
+            public int read() throws IOException {
+                int read = in.read();
+                if (read != -1) {
+                    mBytesReceived++;
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = in.read(b, off, len);
+                if (read > 0) {
+                    mBytesReceived += read;
+                }
+                return read;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = in.skip(n);
+                mBytesReceived += skipped;
+                return skipped;
+            }
+        };
+    }
+
     /**
      * Gets the HTTP URL connection for this response.
      *
@@ -0,0 +1,413 @@
+package com.box.androidsdk.content.requests;
+
+import com.box.androidsdk.content.BoxConfig;
+import com.box.androidsdk.content.BoxException;
+import com.box.androidsdk.content.BoxFutureTask;
+import com.box.androidsdk.content.listeners.ProgressListener;
+import com.box.androidsdk.content.models.BoxDownload;
+import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.utils.SdkUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads a file to disk over several connections at once. The first range of the file is fetched to learn the total
+ * size, the remainder is then split into byte ranges that are fetched concurrently on
+ * {@link BoxConfig#getRequestExecutor()}. Each range is written straight to its offset in the target file through a
+ * shared {@link FileChannel}, so no range is buffered in memory or copied after the fact. The remaining ranges are pinned
+ * to the version of the first one with If-Range, and every range must come back as a 206 covering exactly the bytes
+ * requested, so a file changing during the download fails it instead of mixing versions. The target is deleted if the
+ * download fails.
+ *
+ * Used by {@link BoxRequestDownload} when {@link BoxRequestDownload#setParallelConnections(int)} is set.
+ */
+class BoxParallelDownload {
+
+    /**
+     * Smallest range worth fetching over its own connection. This is also the size of the first range which is used
+     * to discover the size of the file.
+     */
+    static final long MIN_RANGE_SIZE = 1024 * 1024;
+
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+    private final BoxRequestDownload mRequest;
+    private final int mConnections;
+    private final AtomicLong mBytesWritten = new AtomicLong();
+
+    private volatile long mTotalBytes = -1;
+    private volatile String mEtag;
+    private File mOutputFile;
+    private RandomAccessFile mFile;
+    private FileChannel mChannel;
+    private int mActiveWrites = 0;
+    private boolean mClosed = false;
+
+    /**
+     * Creates a parallel download for the given request.
+     *
+     * @param request     the request describing the file and target to download.
+     * @param connections the maximum number of ranges to fetch at once.
+     */
+    BoxParallelDownload(BoxRequestDownload request, int connections) {
+        mRequest = request;
+        mConnections = connections;
+    }
+
+    /**
+     * Downloads the file, verifying its sha1 if one was set on the request.
+     *
+     * @return information about the downloaded file.
+     * @throws BoxException thrown if any range could not be downloaded or the sha1 check failed.
+     */
+    BoxDownload download() throws BoxException {
+        boolean completed = false;
+        try {
+            RangeRequest probe = createRangeRequest(0, MIN_RANGE_SIZE - 1);
+            probe.send();
+            final RangeHandler probeHandler = (RangeHandler) probe.getRequestHandler();
+            if (getOutputFile() == null) {
+                throw new BoxException("Unable to download file, no content was returned");
+            }
+            mEtag = probeHandler.mEtag;
+
+            long total;
+            if (probeHandler.mResponseCode == HttpURLConnection.HTTP_OK) {
+                // The server ignored the range and returned the whole file.
+                total = mBytesWritten.get();
+            } else {
+                total = probeHandler.mFileSize;
+            }
+            if (total < 0) {
+                throw new BoxException("Unable to determine the size of the file to download");
+            }
+            mTotalBytes = total;
+            mFile.setLength(total);
+
+            BoxDownload downloadInfo = new BoxDownload(probeHandler.mContentDisposition, total, probeHandler.mContentType,
+                    null, probeHandler.mDate, probeHandler.mExpiration) {
+                @Override
+                public File getOutputFile() {
+                    return mOutputFile;
+                }
+            };
+            if (mRequest.mDownloadStartListener != null) {
+                mRequest.mDownloadStartListener.onStart(downloadInfo);
+            }
+
+            long offset = Math.min(MIN_RANGE_SIZE, total);
+            if (probeHandler.mResponseCode != HttpURLConnection.HTTP_OK && offset < total) {
+                downloadRanges(offset, total);
+            }
+            mChannel.force(false);
+            verifySha1();
+            completed = true;
+            return downloadInfo;
+        } catch (IOException e) {
+            throw new BoxException(e.getMessage(), e);
+        } finally {
+            closeChannel();
+            File outputFile = getOutputFile();
+            if (!completed && outputFile != null) {
+                // The file was sized up front and may hold ranges of another version, none of it can be trusted.
+                outputFile.delete();
+            }
+        }
+    }
+
+    private void downloadRanges(long start, long total) throws BoxException {
+        long remaining = total - start;
+        int rangeCount = (int) Math.min(mConnections, (remaining + MIN_RANGE_SIZE - 1) / MIN_RANGE_SIZE);
+        long rangeSize = (remaining + rangeCount - 1) / rangeCount;
+
+        ArrayList<BoxFutureTask<BoxDownload>> tasks = new ArrayList<BoxFutureTask<BoxDownload>>(rangeCount);
+        for (long rangeStart = start; rangeStart < total; rangeStart += rangeSize) {
+            long rangeEnd = Math.min(rangeStart + rangeSize, total) - 1;
+            tasks.add(BoxConfig.getRequestExecutor().submit(createRangeRequest(rangeStart, rangeEnd).toTask()));
+        }
+
+        BoxException failure = null;
+        for (BoxFutureTask<BoxDownload> task : tasks) {
+            if (failure != null) {
+                // Interrupting a range would close the channel shared by all ranges, ranges already running stop at
+                // their next write instead.
+                task.cancel(false);
+                continue;
+            }
+            try {
+                // Runs the range on this thread if the executor has not started it yet, otherwise this is a no-op.
+                task.run();
+                BoxResponse<BoxDownload> response = task.get();
+                if (!response.isSuccess()) {
+                    Exception ex = response.getException();
+                    failure = ex instanceof BoxException ? (BoxException) ex : new BoxException("Unable to download range", ex);
+                }
+            } catch (InterruptedException e) {
+                failure = new BoxException(e.getMessage(), e);
+            } catch (ExecutionException e) {
+                failure = new BoxException(e.getMessage(), e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void verifySha1() throws BoxException, IOException {
+        String expectedSha1 = mRequest.getSha1();
+        if (SdkUtils.isEmptyString(expectedSha1)) {
+            return;
+        }
+        String computedSha1;
+        try {
+            computedSha1 = SdkUtils.sha1(mOutputFile);
+        } catch (NoSuchAlgorithmException e) {
+            throw new BoxException(e.getMessage(), e);
+        }
+        if (!expectedSha1.equals(computedSha1)) {
+            throw new BoxException.CorruptedContentException("Sha1 checks failed", expectedSha1, computedSha1);
+        }
+    }
+
+    private RangeRequest createRangeRequest(long rangeStart, long rangeEnd) {
+        RangeRequest request = new RangeRequest(mRequest.getId(), mRequest.getTarget(), mRequest.mRequestUrlString, mRequest.getSession());
+        request.importRequestContentMapsFrom(mRequest);
+        request.setTimeOut(mRequest.mTimeout);
+        request.setRange(rangeStart, rangeEnd);
+        request.mIfRange = mEtag;
+        request.setRequestHandler(new RangeHandler(request, rangeStart, mEtag));
+        return request;
+    }
+
+    private synchronized File getOutputFile() {
+        return mOutputFile;
+    }
+
+    private synchronized FileChannel getChannel(BoxDownload downloadInfo) throws IOException {
+        if (mClosed) {
+            throw new IOException("Download was stopped");
+        }
+        if (mChannel == null) {
+            File outputFile = downloadInfo.getOutputFile();
+            if (outputFile == null) {
+                throw new IOException("Unable to determine the file to download to");
+            }
+            mOutputFile = outputFile;
+            mFile = new RandomAccessFile(outputFile, "rw");
+            mChannel = mFile.getChannel();
+        }
+        return mChannel;
+    }
+
+    private synchronized void beginWrite() throws IOException {
+        if (mClosed) {
+            throw new IOException("Download was stopped");
+        }
+        mActiveWrites++;
+    }
+
+    private synchronized void endWrite() {
+        mActiveWrites--;
+        notifyAll();
+    }
+
+    /**
+     * Closes the shared channel once the writes in progress have finished. Ranges still running fail at their next
+     * write.
+     */
+    private synchronized void closeChannel() {
+        mClosed = true;
+        while (mActiveWrites > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        SdkUtils.closeQuietly(mChannel, mFile);
+    }
+
+    private void onBytesWritten(long count) {
+        long written = mBytesWritten.addAndGet(count);
+        ProgressListener listener = mRequest.mListener;
+        if (listener != null) {
+            listener.onProgressChanged(written, mTotalBytes);
+        }
+    }
+
+    /**
+     * Request for a single range of the file.
+     */
+    private static class RangeRequest extends BoxRequestDownload<BoxDownload, RangeRequest> {
+
+        private static final long serialVersionUID = 8123965031279971592L;
+
+        String mIfRange;
+
+        RangeRequest(String id, File target, String requestUrl, BoxSession session) {
+            super(id, BoxDownload.class, target, requestUrl, session);
+        }
+
+        @Override
+        protected void setHeaders(BoxHttpRequest request) {
+            super.setHeaders(request);
+            if (mIfRange != null) {
+                // The server returns the whole file instead of the range if it has changed since the first range.
+                request.addHeader("If-Range", mIfRange);
+            }
+        }
+
+        @Override
+        protected void createHeaderMap() {
+            super.createHeaderMap();
+            // Ranges refer to the bytes on disk so the content must not be compressed in transit.
+            mHeaderMap.put("Accept-Encoding", "identity");
+        }
+    }
+
+    /**
+     * Handler that writes the body of a range at the range's offset of the shared target file.
+     */
+    private class RangeHandler extends BoxRequestDownload.DownloadRequestHandler {
+
+        private final long mRangeStart;
+        private final String mExpectedEtag;
+
+        int mResponseCode;
+        long mFileSize = -1;
+        String mContentDisposition;
+        String mContentType;
+        String mDate;
+        String mExpiration;
+
+        RangeHandler(RangeRequest request, long rangeStart, String expectedEtag) {
+            super(request);
+            mRangeStart = rangeStart;
+            mExpectedEtag = expectedEtag;
+        }
+
+        @Override
+        public boolean isResponseSuccess(BoxHttpResponse response) {
+            return super.isResponseSuccess(response) || isEmptyFile(response);
+        }
+
+        @Override
+        public BoxDownload onResponse(Class clazz, BoxHttpResponse response) throws IllegalAccessException, InstantiationException, BoxException {
+            HttpURLConnection connection = response.getHttpURLConnection();
+            mResponseCode = response.getResponseCode();
+            mContentDisposition = connection.getHeaderField("Content-Disposition");
+            mContentType = response.getContentType();
+            mDate = connection.getHeaderField("Date");
+            mExpiration = connection.getHeaderField("Expiration");
+            if (isEmptyFile(response)) {
+                mFileSize = 0;
+                BoxDownload download = createDownloadInfo(mContentDisposition, 0, mContentType, null, mDate, mExpiration);
+                try {
+                    // Nothing to write but the target still has to be created.
+                    getChannel(download);
+                } catch (IOException e) {
+                    throw new BoxException(e.getMessage(), e);
+                }
+                return download;
+            }
+            if (mResponseCode == HttpURLConnection.HTTP_OK || mResponseCode == HttpURLConnection.HTTP_PARTIAL) {
+                checkRange(connection);
+            }
+            BoxDownload download = super.onResponse(clazz, response);
+            if (download != null && download.getTotalRange() != null) {
+                mFileSize = download.getTotalRange();
+            }
+            return download;
+        }
+
+        /**
+         * @return whether the response to the first range says that the file is empty, a range of an empty file cannot
+         * be satisfied.
+         */
+        private boolean isEmptyFile(BoxHttpResponse response) {
+            return mRangeStart == 0 && mExpectedEtag == null && response.getResponseCode() == HTTP_RANGE_NOT_SATISFIABLE
+                    && "bytes */0".equals(response.getHttpURLConnection().getHeaderField("Content-Range"));
+        }
+
+        /**
+         * Makes sure the response holds the requested range of the expected version of the file before anything is
+         * written to the target.
+         */
+        private void checkRange(HttpURLConnection connection) throws BoxException {
+            if (mResponseCode == HttpURLConnection.HTTP_OK) {
+                if (mRangeStart == 0 && mExpectedEtag == null) {
+                    // The server ignored the range of the first request and returned the whole file.
+                    return;
+                }
+                throw new BoxException("Unable to download range, the file changed during the download");
+            }
+            String etag = connection.getHeaderField("ETag");
+            if (mExpectedEtag != null && etag != null && !mExpectedEtag.equals(etag)) {
+                throw new BoxException("Unable to download range, the file changed during the download");
+            }
+            String contentRange = connection.getHeaderField("Content-Range");
+            BoxDownload range = new BoxDownload(null, -1, null, contentRange, null, null);
+            Long start = range.getStartRange();
+            Long total = range.getTotalRange();
+            long expectedTotal = mTotalBytes;
+            if (start == null || start != mRangeStart || (expectedTotal >= 0 && (total == null || total != expectedTotal))) {
+                throw new BoxException("Unable to download range, unexpected Content-Range " + contentRange);
+            }
+        }
+
+        @Override
+        protected OutputStream getOutputStream(BoxDownload downloadInfo) throws IOException {
+            return new RangeOutputStream(getChannel(downloadInfo), mRangeStart);
+        }
+    }
+
+    /**
+     * Stream that writes to a fixed position of a channel. Closing the stream does not close the channel as it is
+     * shared by all ranges.
+     */
+    private class RangeOutputStream extends OutputStream {
+
+        private final FileChannel mRangeChannel;
+        private long mPosition;
+
+        RangeOutputStream(FileChannel channel, long position) {
+            mRangeChannel = channel;
+            mPosition = position;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            beginWrite();
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+                while (buffer.hasRemaining()) {
+                    mPosition += mRangeChannel.write(buffer, mPosition);
+                }
+            } finally {
+                endWrite();
+            }
+            onBytesWritten(len);
+        }
+
+        @Override
+        public void close() {
+            // The channel is closed once all ranges have finished.
+        }
+    }
+}
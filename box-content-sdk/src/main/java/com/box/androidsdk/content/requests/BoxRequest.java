@@ -16,6 +16,7 @@ import com.box.androidsdk.content.auth.BlockedIPErrorActivity;
 import com.box.androidsdk.content.auth.BoxAuthentication;
 import com.box.androidsdk.content.listeners.ProgressListener;
 import com.box.androidsdk.content.models.BoxArray;
+import com.box.androidsdk.content.models.BoxItem;
 import com.box.androidsdk.content.models.BoxJsonObject;
 import com.box.androidsdk.content.models.BoxObject;
 import com.box.androidsdk.content.models.BoxSession;
@@ -26,7 +27,6 @@ import com.eclipsesource.json.JsonArray;
 import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
@@ -42,6 +42,8 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.regex.Pattern;
 
@@ -81,6 +83,11 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
     private String mIfNoneMatchEtag;
 
     private transient WeakReference<SSLSocketFactoryWrapper> mSocketFactoryRef;
+    private transient volatile String mSentAccessToken;
+    // Etag of the cached result being revalidated by the request being sent.
+    private transient String mRevalidatedEtag;
+    // Whether this request is being sent to revalidate a cached result in the background.
+    private transient volatile boolean mRevalidatingInBackground;
     protected boolean mRequiresSocket = false;
 
 
@@ -198,6 +205,12 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
             throw new BoxException("An invalid path parameter passed. Relative path parameters cannot be passed.");
         }
 
+        T staleResult = getStaleResult();
+        if (staleResult != null) {
+            revalidateInBackground();
+            return staleResult;
+        }
+
         try {
             result = onSend();
         } catch (Exception e){
@@ -225,11 +238,14 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
     protected T onSend() throws BoxException {
         BoxRequest.BoxRequestHandler requestHandler = getRequestHandler();
         BoxHttpResponse response = null;
-        HttpURLConnection connection = null;
+        BoxHttpRequest request = null;
+        BoxRequestMetrics metrics = new BoxRequestMetrics(this);
+        T cachedResult = getCachedResultToRevalidate();
+        mRevalidatedEtag = cachedResult == null ? null : ((BoxItem) cachedResult).getEtag();
         try {
             // Create the HTTP request and send it
-            BoxHttpRequest request = createHttpRequest();
-            connection = request.getUrlConnection();
+            request = createHttpRequest();
+            HttpURLConnection connection = request.getUrlConnection();
             if (mRequiresSocket && connection instanceof HttpsURLConnection) {
                 final SSLSocketFactory factory = ((HttpsURLConnection) connection).getSSLSocketFactory();
                 SSLSocketFactoryWrapper wrappedFactory = new SSLSocketFactoryWrapper(factory);
@@ -242,12 +258,20 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
                 connection.setReadTimeout(mTimeout);
             }
 
+            metrics.onRequestSent(request);
             response = sendRequest(request, connection);
+            metrics.onResponseReceived(response);
 
             logDebug(response);
+            if (cachedResult != null && response.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                // The cached result is still current and is stored again by onSendCompleted.
+                metrics.onCompleted(requestHandler, null);
+                return cachedResult;
+            }
             // Process the response through the provided handler
             if (requestHandler.isResponseSuccess(response)) {
                 T result = (T) requestHandler.onResponse(mClazz, response);
+                metrics.onCompleted(requestHandler, null);
                 return result;
             }
             // All non successes will throw
@@ -255,17 +279,17 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
             throw new BoxException("An error occurred while sending the request", response);
         }
         catch (IOException e) {
-            return handleSendException(requestHandler, response, e);
+            return handleSendException(requestHandler, response, e, metrics);
         } catch (InstantiationException e) {
-            return handleSendException(requestHandler, response, e);
+            return handleSendException(requestHandler, response, e, metrics);
         } catch (IllegalAccessException e) {
-            return handleSendException(requestHandler, response, e);
+            return handleSendException(requestHandler, response, e, metrics);
         } catch (BoxException e) {
-            return handleSendException(requestHandler, response, e);
+            return handleSendException(requestHandler, response, e, metrics);
         }
         finally {
-            if (connection != null){
-                connection.disconnect();
+            if (request != null){
+                request.release();
             }
         }
     }
@@ -281,16 +305,27 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
         // Child classes to provide implementation if needed
     }
 
-    private T handleSendException(BoxRequestHandler requestHandler, BoxHttpResponse response, Exception ex) throws BoxException {
+    private T handleSendException(BoxRequestHandler requestHandler, BoxHttpResponse response, Exception ex, BoxRequestMetrics metrics) throws BoxException {
         if (ex instanceof BoxException) {
-            if (requestHandler.onException(this, response, (BoxException) ex)) {
+            boolean retry;
+            try {
+                retry = requestHandler.onException(this, response, (BoxException) ex);
+            } finally {
+                // Reported before any retry so the attempt includes the refresh it caused but not the next attempt.
+                metrics.onCompleted(requestHandler, ex);
+            }
+            if (retry) {
                 return send();
             } else {
                 throw (BoxException) ex;
             }
         } else {
             BoxException e = new BoxException("Couldn't connect to the Box API due to a network error.", ex);
-            requestHandler.onException(this, response, e);
+            try {
+                requestHandler.onException(this, response, e);
+            } finally {
+                metrics.onCompleted(requestHandler, e);
+            }
             throw e;
         }
     }
@@ -305,6 +340,16 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
         return new BoxFutureTask<T>(mClazz, this);
     }
 
+    /**
+     * Creates a BoxFutureTask for this request and schedules it on the executor shared by the SDK, see
+     * {@link BoxConfig#getRequestExecutor()}.
+     *
+     * @return the BoxFutureTask that was scheduled.
+     */
+    public BoxFutureTask<T> submit() {
+        return BoxConfig.getRequestExecutor().submit(toTask());
+    }
+
     protected BoxHttpRequest createHttpRequest() throws IOException, BoxException {
         URL requestUrl = buildUrl();
         BoxHttpRequest httpRequest = new BoxHttpRequest(requestUrl, mRequestMethod, mListener);
@@ -347,6 +392,7 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
         mHeaderMap.clear();
         BoxAuthentication.BoxAuthenticationInfo info = mSession.getAuthInfo();
         String accessToken = (info == null ? null : info.accessToken());
+        mSentAccessToken = accessToken;
         if (!SdkUtils.isEmptyString(accessToken)) {
             mHeaderMap.put("Authorization", String.format(Locale.ENGLISH, "Bearer %s", accessToken));
         }
@@ -364,6 +410,8 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
 
         if (mIfNoneMatchEtag != null) {
             mHeaderMap.put("If-None-Match", mIfNoneMatchEtag);
+        } else if (mRevalidatedEtag != null) {
+            mHeaderMap.put("If-None-Match", mRevalidatedEtag);
         }
 
         if (mSession instanceof BoxSharedLinkSession) {
@@ -406,8 +454,7 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
     protected void setBody(BoxHttpRequest request) throws IOException {
         if (!mBodyMap.isEmpty()) {
             String body = getStringBody();
-            byte[] bytes = body.getBytes("UTF-8");
-            request.setBody(new ByteArrayInputStream(bytes));
+            request.setBody(body.getBytes("UTF-8"));
         }
     }
 
@@ -478,6 +525,10 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
 
 
     protected void logDebug(BoxHttpResponse response) throws BoxException {
+        if (!BoxLogUtils.getIsLoggingEnabled()) {
+            // Avoid reading the whole body into a String when it will not be logged.
+            return;
+        }
         try {
             logRequest();
             BoxLogUtils.i(BoxConstants.TAG, String.format(Locale.ENGLISH, "Response (%s):  %s", response.getResponseCode(), response.getStringBody()));
@@ -525,6 +576,66 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
         return (T) this;
     }
 
+    /**
+     * Returns the result of this request stored in the cache if it should be revalidated when sending the request,
+     * that is if revalidation is enabled in {@link BoxConfig#setCacheRevalidationEnabled(boolean)}, this is a cacheable
+     * GET request without an etag set by the caller and the cached result is an item with an etag.
+     *
+     * @return the cached result to revalidate, null if there is none.
+     */
+    protected T getCachedResultToRevalidate() {
+        BoxCache cache = BoxConfig.getCache();
+        if (!BoxConfig.isCacheRevalidationEnabled() || cache == null || !(this instanceof BoxCacheableRequest)
+                || mRequestMethod != Methods.GET || mIfNoneMatchEtag != null) {
+            return null;
+        }
+        try {
+            BoxObject cachedResult = cache.get(getCacheableRequest());
+            if (mClazz.isInstance(cachedResult) && cachedResult instanceof BoxItem && !SdkUtils.isBlank(((BoxItem) cachedResult).getEtag())) {
+                return mClazz.cast(cachedResult);
+            }
+        } catch (BoxException e) {
+            BoxLogUtils.e(BoxConstants.TAG, "Unable to get cached result to revalidate", e);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the cached result to return right away when sending this request, that is if
+     * {@link BoxConfig#setStaleWhileRevalidateEnabled(boolean)} is enabled, this request is not already revalidating
+     * it in the background and there is a cached result to revalidate, see {@link #getCachedResultToRevalidate()}.
+     *
+     * @return the cached result to return, null if the request should be sent.
+     */
+    private T getStaleResult() {
+        if (!BoxConfig.isStaleWhileRevalidateEnabled() || mRevalidatingInBackground) {
+            return null;
+        }
+        return getCachedResultToRevalidate();
+    }
+
+    /**
+     * Sends this request on the executor shared by the SDK to revalidate its cached result. The result is stored in the
+     * cache by {@link #onSendCompleted(BoxResponse)} as for any other send.
+     */
+    private void revalidateInBackground() {
+        BoxConfig.getRequestExecutor().submit(new BoxFutureTask<T>(new Callable<BoxResponse<T>>() {
+            @Override
+            public BoxResponse<T> call() throws Exception {
+                mRevalidatingInBackground = true;
+                try {
+                    return new BoxResponse<T>(send(), null, BoxRequest.this);
+                } catch (BoxException e) {
+                    BoxLogUtils.e(BoxConstants.TAG, "Unable to revalidate cached result", e);
+                    return new BoxResponse<T>(null, e, BoxRequest.this);
+                } finally {
+                    mRevalidatingInBackground = false;
+                }
+            }
+        }, this) {
+        });
+    }
+
     /**
      * Default implementation for sending a request. If fromCache is false, this will default to
      * the standard #send() method.
@@ -587,11 +698,44 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
         protected R mRequest;
         protected int mNumRateLimitRetries = 0;
         private int mRefreshRetries = 0;
+        private int mAuthRefreshes = 0;
+        private long mAuthRefreshTimeNanos = 0;
 
         public BoxRequestHandler(R request) {
             mRequest = request;
         }
 
+        /**
+         * @return the number of times the request has been retried after being rate limited.
+         */
+        public int getRateLimitRetries() {
+            return mNumRateLimitRetries;
+        }
+
+        /**
+         * @return the number of times the session has been refreshed because the request was not authorized.
+         */
+        public int getAuthRefreshes() {
+            return mAuthRefreshes;
+        }
+
+        /**
+         * @return the time spent waiting for the session to be refreshed in nanoseconds.
+         */
+        public long getAuthRefreshTimeNanos() {
+            return mAuthRefreshTimeNanos;
+        }
+
+        private BoxResponse<BoxSession> refreshSession(BoxSession session) throws InterruptedException, ExecutionException {
+            long start = System.nanoTime();
+            try {
+                return session.refresh().get();
+            } finally {
+                mAuthRefreshes++;
+                mAuthRefreshTimeNanos += System.nanoTime() - start;
+            }
+        }
+
         /**
          * Check the response returned from the server.
          *
@@ -626,8 +770,7 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
             String contentType = response.getContentType();
             T entity = clazz.newInstance();
             if (entity instanceof BoxJsonObject && contentType.contains(ContentTypes.JSON.toString())) {
-                String json = response.getStringBody();
-                ((BoxJsonObject) entity).createFromJson(json);
+                ((BoxJsonObject) entity).createFromJson(response.getJsonObjectBody());
             }
             return entity;
         }
@@ -666,9 +809,13 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
          */
         public boolean onException(BoxRequest request, BoxHttpResponse response, BoxException ex) throws BoxException.RefreshFailure{
             BoxSession session = request.getSession();
+            if (authFailed(response) && isAccessTokenReplaced(request)) {
+                // The token was refreshed while the request was in flight, send it again with the new token.
+                return true;
+            }
             if (oauthExpired(response)) {
                 try {
-                    BoxResponse<BoxSession> refreshResponse = session.refresh().get();
+                    BoxResponse<BoxSession> refreshResponse = refreshSession(session);
                     if (refreshResponse.isSuccess()) {
                         return true;
                     } else if (refreshResponse.getException() != null) {
@@ -709,7 +856,7 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
                         }
 
                         // attempt to refresh as a last attempt. This also acts to standardize in case this particular request behaves differently.
-                        BoxResponse<BoxSession> refreshResponse = session.refresh().get();
+                        BoxResponse<BoxSession> refreshResponse = refreshSession(session);
                         if (refreshResponse.isSuccess()) {
                             mRefreshRetries++;
                             return true;
@@ -755,6 +902,17 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
             return retryAfterSeconds * 1000;
         }
 
+        /**
+         * Returns true if the access token of the session has changed since the request was sent, meaning the session
+         * has already been refreshed, for instance by another request that failed at the same time.
+         */
+        private boolean isAccessTokenReplaced(BoxRequest request) {
+            String sentAccessToken = request.mSentAccessToken;
+            BoxAuthentication.BoxAuthenticationInfo info = request.getSession().getAuthInfo();
+            String accessToken = info == null ? null : info.accessToken();
+            return sentAccessToken != null && accessToken != null && !sentAccessToken.equals(accessToken);
+        }
+
         private boolean authFailed(BoxHttpResponse response) {
             if (response == null){
                 return false;
@@ -818,6 +976,33 @@ public abstract class BoxRequest<T extends BoxObject, R extends BoxRequest<T, R>
         mRequestHandler = new BoxRequestHandler(this);
     }
 
+    /**
+     * Returns a key identifying the result of this request, used by {@link BoxCache} implementations to store it.
+     * Unlike {@link #equals(Object)} the key does not depend on the headers set when the request is sent, such as the
+     * access token, but only on the user or shared link, the method, the url and the query of the request.
+     *
+     * @return the key identifying the result of this request.
+     */
+    public String getCacheKey() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(mSession == null ? null : mSession.getUserId());
+        if (mSession instanceof BoxSharedLinkSession) {
+            sb.append(' ');
+            sb.append(((BoxSharedLinkSession) mSession).getSharedLink());
+        }
+        sb.append(' ');
+        sb.append(mRequestMethod);
+        sb.append(' ');
+        sb.append(mRequestUrlString);
+        for (Map.Entry<String, String> entry : new TreeMap<String, String>(mQueryMap).entrySet()) {
+            sb.append(' ');
+            sb.append(entry.getKey());
+            sb.append('=');
+            sb.append(entry.getValue());
+        }
+        return sb.toString();
+    }
+
     @Override
     public int hashCode() {
         StringBuilder sb = new StringBuilder();
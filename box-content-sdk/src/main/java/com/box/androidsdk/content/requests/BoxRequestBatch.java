@@ -2,12 +2,12 @@ package com.box.androidsdk.content.requests;
 
 import com.box.androidsdk.content.BoxException;
 import com.box.androidsdk.content.BoxFutureTask;
+import com.box.androidsdk.content.BoxRequestExecutor;
 import com.box.androidsdk.content.models.BoxObject;
 
 import java.util.ArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Batch request class that allows the ability to send multiple BoxRequests through an executor and
@@ -18,6 +18,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 public class BoxRequestBatch extends BoxRequest<BoxResponseBatch, BoxRequestBatch> {
     private static final long serialVersionUID = 8123965031279971500L;
     private ExecutorService mExecutor;
+    private transient BoxRequestExecutor mRequestExecutor;
 
     protected ArrayList<BoxRequest> mRequests = new ArrayList<BoxRequest>();
 
@@ -39,6 +40,18 @@ public class BoxRequestBatch extends BoxRequest<BoxResponseBatch, BoxRequestBatc
         return this;
     }
 
+    /**
+     * Requests will run in parallel on the given shared executor, for example {@link com.box.androidsdk.content.BoxConfig#getRequestExecutor()}.
+     * While waiting for results the calling thread runs any request the executor has not started yet, so a batch sent
+     * from a thread of the same executor cannot starve itself.
+     * @param executor shared executor used to execute this request in parallel
+     * @return current request
+     */
+    public BoxRequestBatch setRequestExecutor(BoxRequestExecutor executor) {
+        mRequestExecutor = executor;
+        return this;
+    }
+
     /**
      * Adds a BoxRequest to the batch
      *
@@ -54,7 +67,28 @@ public class BoxRequestBatch extends BoxRequest<BoxResponseBatch, BoxRequestBatc
     public BoxResponseBatch onSend() throws BoxException {
         BoxResponseBatch responses = new BoxResponseBatch();
 
-        if (mExecutor != null) {
+        if (mRequestExecutor != null) {
+            ArrayList<BoxFutureTask<BoxObject>> tasks = new ArrayList<BoxFutureTask<BoxObject>>();
+            for (BoxRequest req : mRequests) {
+                BoxFutureTask<BoxObject> task = req.toTask();
+                mRequestExecutor.submit(task);
+                tasks.add(task);
+            }
+
+            for (BoxFutureTask<BoxObject> task : tasks) {
+                try {
+                    // Runs the task on this thread if the executor has not started it yet, otherwise this is a no-op.
+                    task.run();
+                    BoxResponse<BoxObject> response = task.get();
+                    responses.addResponse(response);
+                } catch (InterruptedException e) {
+                    throw new BoxException(e.getMessage(), e);
+                } catch (ExecutionException e) {
+                    throw new BoxException(e.getMessage(), e);
+                }
+            }
+        }
+        else if (mExecutor != null) {
             ArrayList<BoxFutureTask<BoxObject>> tasks = new ArrayList<BoxFutureTask<BoxObject>>();
             for (BoxRequest req : mRequests) {
                 BoxFutureTask task = req.toTask();
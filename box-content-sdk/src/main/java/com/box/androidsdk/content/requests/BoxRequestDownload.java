@@ -40,6 +40,9 @@ public abstract class BoxRequestDownload<E extends BoxObject, R extends BoxReque
     protected File mTarget;
     protected DownloadStartListener mDownloadStartListener;
     protected String mId;
+    protected int mParallelConnections = 1;
+    protected boolean mResumable = false;
+    protected transient BoxDownloadResumeState mResumeState;
     private static final String QUERY_VERSION = "version";
     private static final String QUERY_CONTENT_ACCESS = "log_content_access";
     private static final String CONTENT_ENCODING_GZIP = "gzip";
@@ -141,7 +144,32 @@ public abstract class BoxRequestDownload<E extends BoxObject, R extends BoxReque
             request.addHeader("Range", String.format("bytes=%s-%s", Long.toString(mRangeStart),
                     Long.toString(mRangeEnd)));
 
+        } else if (mResumeState != null && mResumeState.getBytesWritten() > 0) {
+            request.addHeader("Range", String.format("bytes=%s-", Long.toString(mResumeState.getBytesWritten())));
+            if (mResumeState.getEtag() != null) {
+                // The server will return the whole file instead of the range if it has changed since.
+                request.addHeader("If-Range", mResumeState.getEtag());
+            }
+        }
+    }
+
+    @Override
+    protected void createHeaderMap() {
+        super.createHeaderMap();
+        if (mResumeState != null) {
+            // Resume offsets refer to the bytes on disk so the content must not be compressed in transit.
+            mHeaderMap.put("Accept-Encoding", "identity");
+        }
+    }
+
+    @Override
+    protected E onSend() throws BoxException {
+        boolean fileTarget = mTarget != null && mRangeStart == -1 && mRangeEnd == -1;
+        if (mParallelConnections > 1 && fileTarget) {
+            return (E) new BoxParallelDownload(this, mParallelConnections).download();
         }
+        mResumeState = mResumable && fileTarget && !mTarget.isDirectory() ? BoxDownloadResumeState.load(mTarget, getVersion()) : null;
+        return super.onSend();
     }
 
     @Override
@@ -200,6 +228,57 @@ public abstract class BoxRequestDownload<E extends BoxObject, R extends BoxReque
         return (R) this;
     }
 
+    /**
+     * Downloads the file over several connections at once. The file is split into byte ranges of at least one megabyte
+     * which are fetched concurrently on {@link com.box.androidsdk.content.BoxConfig#getRequestExecutor()} and written
+     * directly to their offset in the target file. This only applies to downloads to a File without a range set,
+     * other downloads are always made over a single connection. The progress listener may be called from several
+     * threads when downloading in parallel.
+     *
+     * @param connections the maximum number of ranges to download at once, 1 to download over a single connection.
+     * @return this download request
+     */
+    public R setParallelConnections(int connections) {
+        if (connections < 1) {
+            throw new IllegalArgumentException("connections must be at least 1");
+        }
+        mParallelConnections = connections;
+        return (R) this;
+    }
+
+    /**
+     * Returns the maximum number of connections used to download the file.
+     *
+     * @return the number of connections set by setParallelConnections, 1 otherwise.
+     */
+    public int getParallelConnections() {
+        return mParallelConnections;
+    }
+
+    /**
+     * Makes the download resumable. Progress is recorded in a small sidecar file next to the target, if the download
+     * fails part way a later attempt with the same target only requests the remainder of the file. The download is
+     * restarted from the beginning if the file or the requested version changed in between. This only applies to
+     * downloads to a File without a range set or parallel connections, the target must be the file itself rather than
+     * a folder.
+     *
+     * @param resumable true to resume from the last recorded offset of a previous attempt.
+     * @return this download request
+     */
+    public R setResumable(boolean resumable) {
+        mResumable = resumable;
+        return (R) this;
+    }
+
+    /**
+     * Returns whether the download resumes a previous attempt.
+     *
+     * @return true if setResumable was set.
+     */
+    public boolean isResumable() {
+        return mResumable;
+    }
+
     /**
      * Sets the version of the file to download.
      *
@@ -305,6 +384,7 @@ public abstract class BoxRequestDownload<E extends BoxObject, R extends BoxReque
 
         protected int mNumAcceptedRetries = 0;
         protected int mRetryAfterMillis = 1000;
+        protected String mEtag;
 
 
         /**
@@ -317,8 +397,40 @@ public abstract class BoxRequestDownload<E extends BoxObject, R extends BoxReque
         }
 
 
+        /**
+         * Creates the information about a download, with the output file resolved against the target of the request.
+         *
+         * @param contentDisposition the content disposition of the response, used to name the file in a target folder.
+         * @param contentLength      the length of the content of the response.
+         * @param contentType        the content type of the response.
+         * @param contentRange       the range covered by the response in the format "bytes 0-1/5".
+         * @param date               date of the response.
+         * @param expirationDate     the estimated date the download is applicable for.
+         * @return information about the download.
+         */
+        protected BoxDownload createDownloadInfo(String contentDisposition, long contentLength, String contentType, String contentRange, String date, String expirationDate) {
+            return new BoxDownload(contentDisposition, contentLength, contentType, contentRange, date, expirationDate) {
+                @Override
+                public File getOutputFile() {
+                    if (mRequest.getTarget() == null) {
+                        return null;
+                    }
+                    if (mRequest.getTarget().isFile()) {
+                        return mRequest.getTarget();
+                    }
+                    if (!SdkUtils.isEmptyString(getFileName())) {
+                        return new File(mRequest.getTarget(), getFileName());
+                    }
+                    return super.getOutputFile();
+                }
+            };
+        }
+
         protected OutputStream getOutputStream(BoxDownload downloadInfo) throws FileNotFoundException, IOException {
             if (mRequest.mFileOutputStream == null) {
+                if (mRequest.mResumeState != null && mRequest.getTarget().equals(downloadInfo.getOutputFile())) {
+                    return mRequest.mResumeState.openOutputStream(downloadInfo.getStartRange(), mEtag);
+                }
                 if (!downloadInfo.getOutputFile().exists()) {
                     downloadInfo.getOutputFile().createNewFile();
                 }
@@ -368,23 +480,10 @@ public abstract class BoxRequestDownload<E extends BoxObject, R extends BoxReque
                     // ignore any errors here.
                 }
                 String contentRange = response.getHttpURLConnection().getHeaderField("Content-Range");
+                mEtag = response.getHttpURLConnection().getHeaderField("ETag");
                 String date = response.getHttpURLConnection().getHeaderField("Date");
                 String expirationDate = response.getHttpURLConnection().getHeaderField("Expiration");
-                BoxDownload downloadInfo = new BoxDownload(contentDisposition, contentLength, contentType, contentRange, date, expirationDate) {
-                    @Override
-                    public File getOutputFile() {
-                        if (mRequest.getTarget() == null) {
-                            return null;
-                        }
-                        if (mRequest.getTarget().isFile()) {
-                            return mRequest.getTarget();
-                        }
-                        if (!SdkUtils.isEmptyString(getFileName())) {
-                            return new File(mRequest.getTarget(), getFileName());
-                        }
-                        return super.getOutputFile();
-                    }
-                };
+                BoxDownload downloadInfo = createDownloadInfo(contentDisposition, contentLength, contentType, contentRange, date, expirationDate);
 
                 if (mRequest.mDownloadStartListener != null) {
                     mRequest.mDownloadStartListener.onStart(downloadInfo);
@@ -400,8 +499,17 @@ public abstract class BoxRequestDownload<E extends BoxObject, R extends BoxReque
                     } else {
                         output = getOutputStream(downloadInfo);
                     }
+                    BoxDownloadResumeState resumeState = mRequest.mResumeState;
                     if (TextUtils.isEmpty(mRequest.mSha1)) {
                         SdkUtils.copyStream(response.getBody(), output);
+                    } else if (resumeState != null && resumeState.getStartOffset() > 0) {
+                        // Only the remainder of the file went through the stream so check the file as a whole.
+                        SdkUtils.copyStream(response.getBody(), output);
+                        output.flush();
+                        String computedSha1 = SdkUtils.sha1(downloadInfo.getOutputFile());
+                        if (!mRequest.mSha1.equals(computedSha1)) {
+                            throw new BoxException.CorruptedContentException("Sha1 checks failed", mRequest.mSha1, computedSha1);
+                        }
                     } else {
                         String computedSha1 = SdkUtils.copyStreamAndComputeSha1(response.getBody(), output);
                         if (!mRequest.mSha1.equals(computedSha1)) {
@@ -410,6 +518,10 @@ public abstract class BoxRequestDownload<E extends BoxObject, R extends BoxReque
                     }
 
                 } catch (Exception e) {
+                    if (e instanceof BoxException.CorruptedContentException && mRequest.mResumeState != null) {
+                        // The bytes on disk do not match the file so the next attempt has to start over.
+                        mRequest.mResumeState.discard();
+                    }
                     // For zip encoded downloads we must kill the socket or it will leak.
                     Socket socket = mRequest.getSocket();
                     if (socket != null && contentEncoding != null && contentEncoding.equalsIgnoreCase(CONTENT_ENCODING_GZIP)) {
@@ -434,7 +546,7 @@ public abstract class BoxRequestDownload<E extends BoxObject, R extends BoxReque
                     } catch (IOException e){
                         BoxLogUtils.e("error closing inputstream", e);
                     }
-                    if (mRequest.getTargetStream() == null) {
+                    if (mRequest.getTargetStream() == null && output != null) {
                         // if this is not from a stream, meaning we created the stream we will close the outputStream as well.
                         try {
                             output.close();
@@ -445,6 +557,9 @@ public abstract class BoxRequestDownload<E extends BoxObject, R extends BoxReque
 
                 }
 
+                if (mRequest.mResumeState != null) {
+                    mRequest.mResumeState.discard();
+                }
                 return downloadInfo;
             }
             return new BoxDownload(null, 0, null, null, null, null);
@@ -56,11 +56,7 @@ abstract class BoxRequestEvent<E extends BoxJsonObject, R extends BoxRequest<E,R
                 String contentType = response.getContentType();
                 T entity = clazz.newInstance();
                 if (entity instanceof BoxJsonObject && contentType.contains(ContentTypes.JSON.toString())) {
-                    String json = response.getStringBody();
-                    char charA = json.charAt(json.indexOf("event") - 1);
-                    char charB = json.charAt(json.indexOf("user") - 1);
-
-                    ((BoxJsonObject) entity).createFromJson(json);
+                    ((BoxJsonObject) entity).createFromJson(response.getJsonObjectBody());
                 }
                 return entity;
             }
@@ -106,6 +102,7 @@ abstract class BoxRequestEvent<E extends BoxJsonObject, R extends BoxRequest<E,R
 
     /**
      * Convenience method. When set the request will be set to the next stream position from the given event and will will aggregate the new results with the provided list.
+     * The list grows with every page, use {@link com.box.androidsdk.content.utils.EventStreamConsumer} to consume the stream continuously.
      * @param listEvents A list of events to add to.
      * @return A BoxRequestEvent object.
      */
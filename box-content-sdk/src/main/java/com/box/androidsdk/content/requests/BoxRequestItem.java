@@ -89,6 +89,12 @@ public abstract class BoxRequestItem<E extends BoxJsonObject, R extends BoxReque
         }
     }
 
+    @Override
+    public String getCacheKey() {
+        // Representation hints change the content of the response.
+        return mHintHeader.length() == 0 ? super.getCacheKey() : super.getCacheKey() + " " + mHintHeader;
+    }
+
     /**
      * Returns the id of the Box item being modified.
      *
@@ -0,0 +1,200 @@
+package com.box.androidsdk.content.requests;
+
+import com.box.androidsdk.content.BoxConfig;
+import com.box.androidsdk.content.listeners.RequestMetricsListener;
+import com.box.androidsdk.content.utils.BoxLogUtils;
+
+/**
+ * Timings and sizes of one attempt at sending a {@link BoxRequest}, reported to the
+ * {@link RequestMetricsListener} set in {@link BoxConfig#setRequestMetricsListener(RequestMetricsListener)}.
+ *
+ * The attempt is split in three phases:
+ * <ul>
+ * <li>request: opening the connection, adding the headers and writing the body. The connection is established in
+ * this phase if the request has a body.</li>
+ * <li>response: waiting for the status and headers of the response, including connecting if the request has no
+ * body.</li>
+ * <li>processing: reading and parsing the body of the response.</li>
+ * </ul>
+ * Name resolution, connection and TLS handshake times are not reported separately as HttpURLConnection does not expose
+ * them.
+ */
+public class BoxRequestMetrics {
+
+    private final Class<?> mRequestClass;
+    private final BoxRequest.Methods mMethod;
+    private final String mUrl;
+    private final long mStartNanos;
+    private long mRequestSentNanos;
+    private long mResponseReceivedNanos;
+    private long mCompletedNanos;
+    private BoxHttpRequest mHttpRequest;
+    private BoxHttpResponse mHttpResponse;
+    private int mResponseCode = -1;
+    private long mBytesSent;
+    private long mBytesReceived;
+    private int mRateLimitRetries;
+    private int mAuthRefreshes;
+    private long mAuthRefreshTimeNanos;
+    private Exception mException;
+
+    BoxRequestMetrics(BoxRequest<?, ?> request) {
+        mRequestClass = request.getClass();
+        mMethod = request.mRequestMethod;
+        mUrl = request.mRequestUrlString;
+        mStartNanos = System.nanoTime();
+    }
+
+    void onRequestSent(BoxHttpRequest httpRequest) {
+        mHttpRequest = httpRequest;
+        mRequestSentNanos = System.nanoTime();
+    }
+
+    void onResponseReceived(BoxHttpResponse httpResponse) {
+        mHttpResponse = httpResponse;
+        mResponseReceivedNanos = System.nanoTime();
+    }
+
+    /**
+     * Completes the metrics of the attempt and reports them to the listener if there is one.
+     *
+     * @param handler   the handler of the request, holding its retry counts.
+     * @param exception the exception the attempt failed with, null if it succeeded.
+     */
+    void onCompleted(BoxRequest.BoxRequestHandler<?> handler, Exception exception) {
+        RequestMetricsListener listener = BoxConfig.getRequestMetricsListener();
+        if (listener == null) {
+            return;
+        }
+        mCompletedNanos = System.nanoTime();
+        mException = exception;
+        if (mHttpRequest != null) {
+            mBytesSent = mHttpRequest.getBytesSent();
+        }
+        if (mHttpResponse != null) {
+            mResponseCode = mHttpResponse.getResponseCode();
+            mBytesReceived = mHttpResponse.getBytesReceived();
+        }
+        if (handler != null) {
+            mRateLimitRetries = handler.getRateLimitRetries();
+            mAuthRefreshes = handler.getAuthRefreshes();
+            mAuthRefreshTimeNanos = handler.getAuthRefreshTimeNanos();
+        }
+        try {
+            listener.onRequestCompleted(this);
+        } catch (RuntimeException e) {
+            BoxLogUtils.e("BoxRequestMetrics", "Metrics listener failed", e);
+        }
+    }
+
+    /**
+     * @return the class of the request, for instance {@link BoxRequestsFile.GetFileInfo}.
+     */
+    public Class<?> getRequestClass() {
+        return mRequestClass;
+    }
+
+    /**
+     * @return the HTTP method of the request.
+     */
+    public BoxRequest.Methods getMethod() {
+        return mMethod;
+    }
+
+    /**
+     * @return the url of the request without its query.
+     */
+    public String getUrl() {
+        return mUrl;
+    }
+
+    /**
+     * @return the response code returned by the server, -1 if no response was received.
+     */
+    public int getResponseCode() {
+        return mResponseCode;
+    }
+
+    /**
+     * @return the exception the attempt failed with, null if it succeeded.
+     */
+    public Exception getException() {
+        return mException;
+    }
+
+    /**
+     * @return true if the attempt succeeded.
+     */
+    public boolean isSuccess() {
+        return mException == null;
+    }
+
+    /**
+     * @return the time spent opening the connection and writing the request in nanoseconds.
+     */
+    public long getRequestTimeNanos() {
+        return (mRequestSentNanos > 0 ? mRequestSentNanos : mCompletedNanos) - mStartNanos;
+    }
+
+    /**
+     * @return the time spent waiting for the status and headers of the response in nanoseconds, 0 if the request could
+     * not be sent.
+     */
+    public long getResponseTimeNanos() {
+        if (mRequestSentNanos == 0) {
+            return 0;
+        }
+        return (mResponseReceivedNanos > 0 ? mResponseReceivedNanos : mCompletedNanos) - mRequestSentNanos;
+    }
+
+    /**
+     * @return the time spent reading and parsing the response in nanoseconds, including any retry of a rate limited
+     * request. 0 if no response was received.
+     */
+    public long getProcessingTimeNanos() {
+        return mResponseReceivedNanos > 0 ? mCompletedNanos - mResponseReceivedNanos : 0;
+    }
+
+    /**
+     * @return the total time of the attempt in nanoseconds.
+     */
+    public long getTotalTimeNanos() {
+        return mCompletedNanos - mStartNanos;
+    }
+
+    /**
+     * @return the number of bytes of the request body written to the connection.
+     */
+    public long getBytesSent() {
+        return mBytesSent;
+    }
+
+    /**
+     * @return the number of bytes of the response body read from the connection, before decompression.
+     */
+    public long getBytesReceived() {
+        return mBytesReceived;
+    }
+
+    /**
+     * @return the number of times the request has been retried after being rate limited.
+     */
+    public int getRateLimitRetries() {
+        return mRateLimitRetries;
+    }
+
+    /**
+     * @return the number of times the session was refreshed because the request was not authorized, including a
+     * refresh caused by this attempt.
+     */
+    public int getAuthRefreshes() {
+        return mAuthRefreshes;
+    }
+
+    /**
+     * @return the time the request has spent waiting for the session to be refreshed in nanoseconds.
+     */
+    public long getAuthRefreshTimeNanos() {
+        return mAuthRefreshTimeNanos;
+    }
+}
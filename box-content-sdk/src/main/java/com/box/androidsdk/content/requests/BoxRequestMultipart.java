@@ -108,6 +108,17 @@ class BoxRequestMultipart extends BoxHttpRequest {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * This method is unsupported in BoxRequestMultipart. Instead, the body should be modified via the {@code putField}
+     * and {@code setFile} methods.
+     * @param body  N/A
+     * @throws UnsupportedOperationException this method is unsupported.
+     */
+    @Override
+    public BoxHttpRequest setBody(byte[] body) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * This method is unsupported in BoxRequestMultipart. Instead, the body should be modified via the {@code putField}
      * and {@code setFile} methods.
@@ -126,7 +137,7 @@ class BoxRequestMultipart extends BoxHttpRequest {
             connection.setDoOutput(true);
             connection.setUseCaches(false);
 
-            this.outputStream = connection.getOutputStream();
+            this.outputStream = getOutputStream();
             for (Map.Entry<String, String> entry : this.fields.entrySet()) {
                 this.writePartHeader(new String[][] {{"name", entry.getKey()}});
                 this.writeOutput(entry.getValue());
@@ -9,6 +9,9 @@ import com.box.androidsdk.content.models.BoxIteratorRealTimeServers;
 import com.box.androidsdk.content.models.BoxSimpleMessage;
 
 
+import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.Date;
 
 /**
@@ -133,6 +136,28 @@ public class BoxRequestsEvent {
             mRequestUrlString = requestUrl;
             mRequestMethod = Methods.GET;
         }
+
+        /**
+         * Sets the last known stream position, so that changes made after it and before the long poll started are
+         * notified right away.
+         *
+         * @param streamPosition the last known stream position.
+         * @return the long poll request.
+         */
+        public LongPollMessageRequest setStreamPosition(final String streamPosition) {
+            mQueryMap.put(BoxRequestEvent.FIELD_STREAM_POSITION, streamPosition);
+            return this;
+        }
+
+        @Override
+        protected URL buildUrl() throws MalformedURLException, UnsupportedEncodingException {
+            // The url of the real time server already has a query.
+            String queryString = createQuery(mQueryMap);
+            if (queryString.length() == 0) {
+                return new URL(mRequestUrlString);
+            }
+            return new URL(mRequestUrlString + (mRequestUrlString.contains("?") ? "&" : "?") + queryString);
+        }
     }
 
 }
@@ -4,6 +4,7 @@ import androidx.annotation.StringDef;
 import android.text.TextUtils;
 import android.util.Base64;
 
+import com.box.androidsdk.content.BoxConfig;
 import com.box.androidsdk.content.BoxException;
 import com.box.androidsdk.content.BoxFutureTask;
 import com.box.androidsdk.content.listeners.ProgressListener;
@@ -24,30 +25,42 @@ import com.box.androidsdk.content.models.BoxSession;
 import com.box.androidsdk.content.models.BoxUploadSession;
 import com.box.androidsdk.content.models.BoxUploadSessionPart;
 import com.box.androidsdk.content.models.BoxVoid;
+import com.box.androidsdk.content.utils.BoxLogUtils;
+import com.box.androidsdk.content.utils.ParallelSha1;
 import com.box.androidsdk.content.utils.ProgressOutputStream;
 import com.box.androidsdk.content.utils.SdkUtils;
 import com.eclipsesource.json.JsonArray;
 import com.eclipsesource.json.JsonObject;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Request class that groups all file operation requests together
@@ -1065,6 +1078,25 @@ public class BoxRequestsFile {
             return requestUrl;
         }
 
+        /**
+         * Schedules this request on the executor shared by the SDK. While a request downloading the same thumbnail of
+         * the same file to the same target file is in flight, its task is returned instead of downloading the
+         * thumbnail again. Listeners should be added to the returned task, which should not be cancelled as it may be
+         * shared.
+         *
+         * @return the task that will complete once the thumbnail has been downloaded.
+         */
+        @Override
+        public BoxFutureTask<BoxDownload> submit() {
+            if (mTarget == null) {
+                // Downloads to output streams can not be shared.
+                return super.submit();
+            }
+            String key = "thumbnail " + (mSession == null ? null : mSession.getUserId()) + " " + mId + " "
+                    + new TreeMap<String, String>(mQueryMap) + " " + getThumbnailExtension() + " " + mTarget.getAbsolutePath();
+            return BoxConfig.getRequestExecutor().submitCoalesced(key, toTask());
+        }
+
         /**
          * Gets the recommended thumbnail extension for the set thumbnail size.
          * Defaults to JPG if no sizing values have been set
@@ -1248,7 +1280,9 @@ public class BoxRequestsFile {
         private String mDestinationFolderId;
         private String mFileName;
         private long mFileSize;
+        private File mFile;
         private InputStream mFileInputStream;
+        private boolean mComputeSha1s = true;
 
         /**
          * Creates an upload file session  with the default parameters
@@ -1265,6 +1299,7 @@ public class BoxRequestsFile {
             mRequestMethod = Methods.POST;
             mFileName = file.getName();
             mFileSize = file.length();
+            mFile = file;
             mFileInputStream = new FileInputStream(file);
             mDestinationFolderId = destinationFolderId;
             mBodyMap.put("folder_id", destinationFolderId);
@@ -1294,22 +1329,56 @@ public class BoxRequestsFile {
             mBodyMap.put("file_name", mFileName);
         }
 
+        /**
+         * Sets whether the sha1 of the file and of each of its parts is computed once the session is created, which
+         * reads the whole file. Defaults to true. Set to false if the digests are computed while the parts are
+         * uploaded, see {@link UploadFileInParts#setPipelined(boolean)}.
+         *
+         * @param computeSha1s true to compute the digests when the session is created.
+         * @return request with the updated setting.
+         */
+        public CreateUploadSession setComputeSha1s(boolean computeSha1s) {
+            mComputeSha1s = computeSha1s;
+            return this;
+        }
+
         @Override
         protected void onSendCompleted(BoxResponse<BoxUploadSession> response) throws BoxException {
-            if (response.isSuccess()) {
+            if (response.isSuccess() && mComputeSha1s) {
                 BoxUploadSession uploadSession = response.getResult();
 
                 try {
-                  computeSha1s(mFileInputStream, uploadSession, mFileSize);
+                  if (mFile != null) {
+                      computeSha1s(mFile, uploadSession);
+                  } else {
+                      computeSha1s(mFileInputStream, uploadSession, mFileSize);
+                  }
                 } catch (NoSuchAlgorithmException e) {
                     throw new BoxException("Can't compute sha1 for file",e);
                 } catch (IOException e) {
                     throw new BoxException("Can't compute sha1 for file",e);
                 }
             }
+            if (mFile != null) {
+                // The stream opened by the constructor is not needed when hashing from the file.
+                SdkUtils.closeQuietly(mFileInputStream);
+            }
             super.onSendCompleted(response);
         }
 
+        /**
+         * Pre-computes the sha1s for sending in future calls and saves them to the BoxUploadSession. The parts are
+         * hashed in parallel, see {@link ParallelSha1}.
+         */
+        static void computeSha1s(File file, BoxUploadSession uploadSession) throws NoSuchAlgorithmException, IOException {
+            ParallelSha1.Digests digests = ParallelSha1.computeDigests(file, uploadSession.getPartSize());
+            List<String> partSha1s = new ArrayList<>(digests.getPartCount());
+            for (int i = 0; i < digests.getPartCount(); i++) {
+                partSha1s.add(Base64.encodeToString(digests.getPartSha1(i), Base64.DEFAULT));
+            }
+            uploadSession.setPartsSha1(partSha1s);
+            uploadSession.setSha1(Base64.encodeToString(digests.getFileSha1(), Base64.DEFAULT));
+        }
 
         //Pre-compute sha1s for sending in future calls and save them to BoxUploadSession
         static void computeSha1s(InputStream fileInputStream, BoxUploadSession uploadSession,
@@ -1330,8 +1399,8 @@ public class BoxRequestsFile {
                     int bytesRead = fileInputStream.read(partBuffer, 0, readTo);
                     if (bytesRead != -1) {
                         bytesOfChunkToRead -= bytesRead;
-                        mdPart.update(partBuffer, 0, readTo);
-                        mdFile.update(partBuffer, 0, readTo);
+                        mdPart.update(partBuffer, 0, bytesRead);
+                        mdFile.update(partBuffer, 0, bytesRead);
                     } else if (bytesRead == -1){
                         // should be unnecessary, but added as a precaution if somehow bytesOfChunkToRead did not decrement
                         break;
@@ -1390,13 +1459,21 @@ public class BoxRequestsFile {
         private static final String CONTENT_RANGE_HEADER = "content-range";
         static final String DIGEST_HEADER_PREFIX_SHA = "sha=";
 
+        /**
+         * Size of the reads from the file when sending a part.
+         */
+        static final int PART_READ_BUFFER_SIZE = 64 * 1024;
+
         private final int mPartNumber;
         private File mFile;
+        private transient FileChannel mFileChannel;
         private InputStream mInputStream;
         private boolean mIsAlreadyPositioned = false;
         private int mCurrentChunkSize;
         private long mFileSize;
         private final BoxUploadSession mUploadSession;
+        private transient byte[] mPartData;
+        private String mPartSha1;
 
         /**
          * Creates an Object to upload one specific multiput part of a file
@@ -1454,51 +1531,158 @@ public class BoxRequestsFile {
             long lastByte = offset + mCurrentChunkSize - 1;
             mHeaderMap.put(CONTENT_RANGE_HEADER,
                     "bytes " + offset + "-" + lastByte + "/" + mFileSize);
-            mHeaderMap.put(DIGEST_HEADER, DIGEST_HEADER_PREFIX_SHA + mUploadSession.getFieldPartsSha1().get(mPartNumber));
+            String partSha1 = mPartSha1 != null ? mPartSha1 : mUploadSession.getFieldPartsSha1().get(mPartNumber);
+            mHeaderMap.put(DIGEST_HEADER, DIGEST_HEADER_PREFIX_SHA + partSha1);
+        }
+
+        /**
+         * Reads the part from the given channel instead of opening the file. The channel is shared with the other parts
+         * of the file and is not closed by this request.
+         *
+         * @param channel   channel open for reading on the file given in the constructor.
+         * @return request which will read the part from the channel.
+         */
+        UploadSessionPart setFileChannel(FileChannel channel) {
+            mFileChannel = channel;
+            return this;
+        }
+
+        /**
+         * Sends the part from memory instead of reading it from the file or stream.
+         *
+         * @param data      buffer starting with the content of the part.
+         * @param partSha1  base64 encoded sha1 of the part.
+         * @return request which will send the given content.
+         */
+        UploadSessionPart setPartData(byte[] data, String partSha1) {
+            mPartData = data;
+            mPartSha1 = partSha1;
+            return this;
         }
 
         @Override
         protected void setBody(BoxHttpRequest request) throws IOException  {
+            if (mPartData != null) {
+                setBodyFromPartData(request);
+                return;
+            }
+            if (mFile != null) {
+                setBodyFromFile(request);
+            } else {
+                setBodyFromStream(request);
+            }
+        }
+
+        /**
+         * Sends the part with positional reads, which neither depend on nor move the position of the channel so any
+         * number of parts can be read from the same channel at the same time.
+         */
+        private void setBodyFromFile(BoxHttpRequest request) throws IOException {
+            RandomAccessFile randomAccessFile = null;
+            FileChannel channel = mFileChannel;
+            if (channel == null) {
+                randomAccessFile = new RandomAccessFile(mFile, "r");
+                channel = randomAccessFile.getChannel();
+            }
+            OutputStream output = null;
+            try {
+                output = openPartOutputStream(request);
+                ByteBuffer buffer = ByteBuffer.allocate(PART_READ_BUFFER_SIZE);
+                long position = ((long) mPartNumber) * mUploadSession.getPartSize();
+                long end = position + mCurrentChunkSize;
+                while (position < end) {
+                    checkInterrupted();
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                    int bytesRead = channel.read(buffer, position);
+                    if (bytesRead == -1) {
+                        throw new EOFException("Unexpected end of " + mFile.getPath());
+                    }
+                    output.write(buffer.array(), 0, bytesRead);
+                    position += bytesRead;
+                }
+            } finally {
+                SdkUtils.closeQuietly(output);
+                SdkUtils.closeQuietly(randomAccessFile);
+            }
+        }
+
+        private void setBodyFromStream(BoxHttpRequest request) throws IOException {
             InputStream inputStream = getInputStream();
-            //skip previous parts
-            if (!mIsAlreadyPositioned) {
-                long skipTo = ((long)mPartNumber) * mUploadSession.getPartSize();
-                inputStream.skip(skipTo);
+            OutputStream output = null;
+            try {
+                //skip previous parts
+                if (!mIsAlreadyPositioned) {
+                    skipFully(inputStream, ((long) mPartNumber) * mUploadSession.getPartSize());
+                }
+                output = openPartOutputStream(request);
+                byte[] byteBuf = new byte[SdkUtils.BUFFER_SIZE];
+                long totalBytesRead = 0;
+                while (totalBytesRead < mCurrentChunkSize) {
+                    checkInterrupted();
+                    int bytesRead = inputStream.read(byteBuf, 0, (int) Math.min(byteBuf.length, mCurrentChunkSize - totalBytesRead));
+                    if (bytesRead == -1) {
+                        throw new EOFException("Stream ended before the end of part " + mPartNumber);
+                    }
+                    output.write(byteBuf, 0, bytesRead);
+                    totalBytesRead += bytesRead;
+                }
+            } finally {
+                SdkUtils.closeQuietly(output);
+                // A positioned stream is left open at the start of the next part for the caller to reuse.
+                if (!mIsAlreadyPositioned) {
+                    inputStream.close();
+                }
             }
+        }
 
-            //Write bytes to URLConnection of the request
-            URLConnection urlConnection = request.getUrlConnection();
+        private OutputStream openPartOutputStream(BoxHttpRequest request) throws IOException {
+            HttpURLConnection urlConnection = request.getUrlConnection();
             urlConnection.setDoOutput(true);
-            OutputStream output = urlConnection.getOutputStream();
-            if(mListener != null) {
+            urlConnection.setFixedLengthStreamingMode(mCurrentChunkSize);
+            OutputStream output = request.getOutputStream();
+            if (mListener != null) {
                 output = new ProgressOutputStream(output, mListener, getPartSize());
             }
-            byte[] byteBuf = new byte[SdkUtils.BUFFER_SIZE];
-            long totalBytesRead = 0;
-            int bytesRead = 0;
+            return output;
+        }
 
-            try {
-                do {
-                    if (Thread.currentThread().isInterrupted()){
-                        throw new InterruptedException();
+        private static void skipFully(InputStream inputStream, long count) throws IOException {
+            byte[] skipBuffer = null;
+            while (count > 0) {
+                long skipped = inputStream.skip(count);
+                if (skipped <= 0) {
+                    // skip may make no progress without being at the end of the stream, fall back to reading.
+                    if (skipBuffer == null) {
+                        skipBuffer = new byte[SdkUtils.BUFFER_SIZE];
                     }
-                    if (totalBytesRead + byteBuf.length > mCurrentChunkSize){
-                        bytesRead = inputStream.read(byteBuf, 0, (int)(totalBytesRead + byteBuf.length - mCurrentChunkSize));
-                    } else {
-                        bytesRead = inputStream.read(byteBuf, 0, byteBuf.length);
-                    }
-                    if (bytesRead != -1) {
-                        output.write(byteBuf, 0, bytesRead);
-                        totalBytesRead += bytesRead;
+                    int read = inputStream.read(skipBuffer, 0, (int) Math.min(skipBuffer.length, count));
+                    if (read == -1) {
+                        throw new EOFException("Stream ended before the start of the part");
                     }
-                } while (bytesRead != -1 && totalBytesRead < mCurrentChunkSize);
-            } catch (InterruptedException ie) {
-                throw new IOException(ie);
-            } finally {
-                output.close();
-                if (mFile != null || !mIsAlreadyPositioned){
-                    inputStream.close();
+                    skipped = read;
                 }
+                count -= skipped;
+            }
+        }
+
+        private static void checkInterrupted() throws IOException {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IOException(new InterruptedException());
+            }
+        }
+
+        private void setBodyFromPartData(BoxHttpRequest request) throws IOException {
+            OutputStream output = null;
+            try {
+                output = openPartOutputStream(request);
+                // Written in slices so progress is reported while the part is sent.
+                for (int offset = 0; offset < mCurrentChunkSize; offset += SdkUtils.BUFFER_SIZE) {
+                    checkInterrupted();
+                    output.write(mPartData, offset, Math.min(SdkUtils.BUFFER_SIZE, mCurrentChunkSize - offset));
+                }
+            } finally {
+                SdkUtils.closeQuietly(output);
             }
         }
 
@@ -1514,13 +1698,16 @@ public class BoxRequestsFile {
         }
 
         /**
-         * Set to true only if the file or input stream used in the constructor starts at
-         * the beginning of this part. Default is false, in which case the parameter is assumed
-         * to represent the entire file.
+         * Set to true only if the input stream used in the constructor is positioned at the beginning of this part.
+         * Exactly the bytes of this part are then read from the stream, which is left open at the beginning of the next
+         * part so the same stream can be used for the following parts. Default is false, in which case the stream is
+         * assumed to start at the beginning of the file, the previous parts are skipped and the stream is closed once
+         * the part is sent. Parts uploaded from a file are always read from their position in the file.
          * @param alreadyPositioned true to reuse the input stream.
          * @return request which will not try to skip to a new place in the position.
          */
         public UploadSessionPart setAlreadyPositioned(boolean alreadyPositioned) {
+            mIsAlreadyPositioned = alreadyPositioned;
             return this;
         }
 
@@ -1710,7 +1897,9 @@ public class BoxRequestsFile {
 
         private String      mFileName;
         private long        mFileSize;
+        private File        mFile;
         private InputStream mInputStream;
+        private boolean     mComputeSha1s = true;
 
         /**
          * Creates an upload session to upload a new version of the file.
@@ -1727,6 +1916,7 @@ public class BoxRequestsFile {
             mRequestMethod = Methods.POST;
             mFileName = file.getName();
             mFileSize = file.length();
+            mFile = file;
             mInputStream = new FileInputStream(file);
             mBodyMap.put("file_size", mFileSize);
             mBodyMap.put("file_name", mFileName);
@@ -1753,19 +1943,40 @@ public class BoxRequestsFile {
             mBodyMap.put("file_name", mFileName);
         }
 
+        /**
+         * Sets whether the sha1 of the file and of each of its parts is computed once the session is created, which
+         * reads the whole file. Defaults to true. Set to false if the digests are computed while the parts are
+         * uploaded, see {@link UploadFileInParts#setPipelined(boolean)}.
+         *
+         * @param computeSha1s true to compute the digests when the session is created.
+         * @return request with the updated setting.
+         */
+        public CreateNewVersionUploadSession setComputeSha1s(boolean computeSha1s) {
+            mComputeSha1s = computeSha1s;
+            return this;
+        }
+
         @Override
         protected void onSendCompleted(BoxResponse<BoxUploadSession> response) throws BoxException {
-            if (response.isSuccess()) {
+            if (response.isSuccess() && mComputeSha1s) {
                 BoxUploadSession uploadSession = response.getResult();
 
                 try {
-                    CreateUploadSession.computeSha1s(mInputStream, uploadSession, mFileSize);
+                    if (mFile != null) {
+                        CreateUploadSession.computeSha1s(mFile, uploadSession);
+                    } else {
+                        CreateUploadSession.computeSha1s(mInputStream, uploadSession, mFileSize);
+                    }
                 } catch (NoSuchAlgorithmException e) {
                     throw new BoxException("Can't compute sha1 for file", e);
                 } catch (IOException e) {
                     throw new BoxException("Can't compute sha1 for file", e);
                 }
             }
+            if (mFile != null) {
+                // The stream opened by the constructor is not needed when hashing from the file.
+                SdkUtils.closeQuietly(mInputStream);
+            }
             super.onSendCompleted(response);
         }
 
@@ -1798,4 +2009,526 @@ public class BoxRequestsFile {
 
     }
 
+
+    /**
+     * Request for uploading a file through a chunked upload session. The session is created, its parts are uploaded
+     * concurrently on {@link BoxConfig#getRequestExecutor()} and the session is committed once every part has been
+     * accepted. Parts that fail are retried on their own, parts that were already uploaded are not sent again.
+     */
+    public static class UploadFileInParts extends BoxRequest<BoxFile, UploadFileInParts> {
+        private static final long serialVersionUID = 8245675031279973311L;
+
+        /**
+         * Default number of parts uploaded at once.
+         */
+        public static final int DEFAULT_PARALLEL_PARTS = 4;
+
+        /**
+         * Default number of times a part is sent before the upload fails.
+         */
+        public static final int DEFAULT_MAX_PART_ATTEMPTS = 3;
+
+        private static final int LIST_PARTS_LIMIT = 1000;
+
+        private final File mFile;
+        private final BoxRequest<BoxUploadSession, ?> mCreateSessionRequest;
+        private int mParallelParts = DEFAULT_PARALLEL_PARTS;
+        private int mMaxPartAttempts = DEFAULT_MAX_PART_ATTEMPTS;
+        private Map<String, String> mAttributes;
+        private String mIfMatch;
+        private File mJournalDirectory;
+        private boolean mPipelined = false;
+        private BoxUploadSession mUploadSession;
+
+        /**
+         * Creates a request that uploads a file through the session created by the given request.
+         *
+         * @param file                  file to upload
+         * @param createSessionRequest  request creating the upload session for the file, either a
+         *                              {@link CreateUploadSession} or a {@link CreateNewVersionUploadSession}
+         * @param session               the authenticated session that will be used to make the request with
+         */
+        public UploadFileInParts(File file, BoxRequest<BoxUploadSession, ?> createSessionRequest, BoxSession session) {
+            super(BoxFile.class, null, session);
+            mFile = file;
+            mCreateSessionRequest = createSessionRequest;
+        }
+
+        /**
+         * Sets the number of parts uploaded at once. Parts are still subject to the limits of
+         * {@link BoxConfig#getRequestExecutor()}.
+         *
+         * @param parallelParts number of parts to upload at once, at least 1.
+         * @return request with the updated number of parallel parts.
+         */
+        public UploadFileInParts setParallelParts(int parallelParts) {
+            if (parallelParts < 1) {
+                throw new IllegalArgumentException("At least one part must be uploaded at a time");
+            }
+            mParallelParts = parallelParts;
+            return this;
+        }
+
+        /**
+         * Returns the number of parts uploaded at once.
+         *
+         * @return number of parts uploaded at once.
+         */
+        public int getParallelParts() {
+            return mParallelParts;
+        }
+
+        /**
+         * Sets the number of times a part is sent before the upload gives up. Only parts that failed are sent again.
+         *
+         * @param maxPartAttempts number of attempts per part, at least 1.
+         * @return request with the updated number of attempts.
+         */
+        public UploadFileInParts setMaxPartAttempts(int maxPartAttempts) {
+            if (maxPartAttempts < 1) {
+                throw new IllegalArgumentException("Each part must be attempted at least once");
+            }
+            mMaxPartAttempts = maxPartAttempts;
+            return this;
+        }
+
+        /**
+         * Returns the number of times a part is sent before the upload gives up.
+         *
+         * @return number of attempts per part.
+         */
+        public int getMaxPartAttempts() {
+            return mMaxPartAttempts;
+        }
+
+        /**
+         * Sets the attributes of the file sent when the session is committed.
+         *
+         * @param attributes    key value pairs of attributes from the file instance.
+         * @return request with the updated attributes.
+         */
+        public UploadFileInParts setAttributes(Map<String, String> attributes) {
+            mAttributes = attributes;
+            return this;
+        }
+
+        /**
+         * Sets the If-Match header sent when the session is committed.
+         *
+         * @param ifMatch   etag of the version of the file that is expected to be current.
+         * @return request with the updated If-Match header.
+         */
+        public UploadFileInParts setIfMatch(String ifMatch) {
+            mIfMatch = ifMatch;
+            return this;
+        }
+
+        /**
+         * Makes the upload resumable across restarts of the app. The upload session and the parts uploaded so far are
+         * recorded in a journal in the given directory. Sending an equivalent request later, for instance after the
+         * app was killed, continues in the same upload session and only uploads the parts the server is missing, as
+         * long as the file has not changed and the session has not expired.
+         *
+         * @param journalDirectory  directory the journal is kept in, null to disable resuming.
+         * @return request with the updated journal directory.
+         */
+        public UploadFileInParts setJournalDirectory(File journalDirectory) {
+            mJournalDirectory = journalDirectory;
+            return this;
+        }
+
+        /**
+         * Returns the directory the journal of the upload is kept in.
+         *
+         * @return the journal directory, null if the upload is not resumable.
+         */
+        public File getJournalDirectory() {
+            return mJournalDirectory;
+        }
+
+        /**
+         * Sets whether the file is hashed while it is uploaded. By default the sha1 of every part is computed when
+         * the session is created, which reads the whole file before the first part is sent, and each part is read
+         * again when it is uploaded. When pipelined the file is read only once: each part is read into a buffer,
+         * hashed and uploaded from that buffer while the next parts are read, and the session is committed as soon
+         * as the last part has been hashed and uploaded. This keeps up to {@link #getParallelParts()} parts in memory.
+         *
+         * @param pipelined true to hash the parts while they are uploaded.
+         * @return request with the updated setting.
+         */
+        public UploadFileInParts setPipelined(boolean pipelined) {
+            mPipelined = pipelined;
+            return this;
+        }
+
+        /**
+         * Returns whether the file is hashed while it is uploaded.
+         *
+         * @return true if the parts are hashed while they are uploaded.
+         */
+        public boolean isPipelined() {
+            return mPipelined;
+        }
+
+        /**
+         * Sets the progress listener for the upload. Progress is reported over the whole file.
+         *
+         * @param listener  progress listener for the request.
+         * @return  request with the updated progress listener.
+         */
+        public UploadFileInParts setProgressListener(ProgressListener listener) {
+            mListener = listener;
+            return this;
+        }
+
+        /**
+         * Returns the file to upload.
+         *
+         * @return file to upload.
+         */
+        public File getFile() {
+            return mFile;
+        }
+
+        /**
+         * Returns the upload session used by the last attempt to send this request, which can be aborted with
+         * {@link AbortUploadSession} if the upload failed.
+         *
+         * @return the upload session, or null if none has been created.
+         */
+        public BoxUploadSession getUploadSession() {
+            return mUploadSession;
+        }
+
+        @Override
+        public BoxFile onSend() throws BoxException {
+            BoxUploadSessionJournal journal = null;
+            BoxUploadSession uploadSession = null;
+            if (mJournalDirectory != null) {
+                String destination = mCreateSessionRequest.mRequestUrlString + "\n" + mCreateSessionRequest.mBodyMap.get("folder_id");
+                journal = BoxUploadSessionJournal.load(BoxUploadSessionJournal.getJournalFile(mJournalDirectory, mFile, destination), mFile);
+                uploadSession = resumeUploadSession(journal);
+            }
+            if (uploadSession == null) {
+                if (mCreateSessionRequest instanceof CreateUploadSession) {
+                    ((CreateUploadSession) mCreateSessionRequest).setComputeSha1s(!mPipelined);
+                } else if (mCreateSessionRequest instanceof CreateNewVersionUploadSession) {
+                    ((CreateNewVersionUploadSession) mCreateSessionRequest).setComputeSha1s(!mPipelined);
+                }
+                uploadSession = mCreateSessionRequest.send();
+                if (journal != null) {
+                    try {
+                        journal.start(uploadSession);
+                    } catch (IOException e) {
+                        BoxLogUtils.e("UploadFileInParts", "Unable to write upload journal", e);
+                    }
+                }
+            }
+            mUploadSession = uploadSession;
+
+            BoxUploadSessionPart[] uploadedParts = journal != null ? journal.getParts() : new BoxUploadSessionPart[uploadSession.getTotalParts()];
+            List<BoxUploadSessionPart> parts = new PartUploader(uploadSession, uploadedParts, journal).upload();
+            CommitUploadSession commitRequest = new CommitUploadSession(parts, mAttributes, mIfMatch, null, uploadSession, mSession);
+            commitRequest.setTimeOut(mTimeout);
+            BoxFile file = commitRequest.send();
+            if (journal != null) {
+                journal.discard();
+            }
+            return file;
+        }
+
+        /**
+         * Brings the journal of a previous attempt in line with the parts the server has received.
+         *
+         * @return the upload session to continue, null if a new session is needed.
+         */
+        private BoxUploadSession resumeUploadSession(BoxUploadSessionJournal journal) throws BoxException {
+            BoxUploadSession uploadSession = journal.getUploadSession();
+            if (uploadSession == null) {
+                return null;
+            }
+            List<BoxUploadSessionPart> uploadedParts = new ArrayList<BoxUploadSessionPart>();
+            try {
+                int offset = 0;
+                while (true) {
+                    ListUploadSessionParts listRequest = new ListUploadSessionParts(uploadSession, mSession);
+                    listRequest.setLimit(LIST_PARTS_LIMIT);
+                    listRequest.setOffset(offset);
+                    listRequest.setTimeOut(mTimeout);
+                    BoxIteratorUploadSessionParts page = listRequest.send();
+                    for (BoxUploadSessionPart part : page) {
+                        uploadedParts.add(part);
+                    }
+                    offset += page.size();
+                    Long totalCount = page.fullSize();
+                    if (page.size() == 0 || totalCount == null || offset >= totalCount) {
+                        break;
+                    }
+                }
+            } catch (BoxException e) {
+                if (e.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+                    // The session no longer exists on the server.
+                    journal.discard();
+                    return null;
+                }
+                throw e;
+            }
+            try {
+                journal.reconcile(uploadedParts);
+            } catch (IOException e) {
+                BoxLogUtils.e("UploadFileInParts", "Unable to write upload journal", e);
+            }
+            return uploadSession;
+        }
+
+        /**
+         * Uploads the parts of a session, keeping at most {@link #getParallelParts()} of them in flight.
+         */
+        private class PartUploader {
+
+            private final BoxUploadSession mPartsSession;
+            private final BoxUploadSessionJournal mJournal;
+            private final long mFileSize;
+            private final BoxUploadSessionPart[] mUploadedParts;
+            private final AtomicLongArray mPartProgress;
+            private final AtomicLong mBytesUploaded = new AtomicLong();
+            private final ArrayDeque<InFlightPart> mInFlight = new ArrayDeque<InFlightPart>();
+            private final ArrayDeque<byte[]> mBuffers = new ArrayDeque<byte[]>();
+            private FileChannel mFileChannel;
+            private BoxException mLastFailure;
+
+            /**
+             * @param uploadSession the session to upload to.
+             * @param uploadedParts parts already accepted by the server indexed by part number, null for parts to upload.
+             * @param journal       journal recording the parts as they are uploaded, may be null.
+             */
+            PartUploader(BoxUploadSession uploadSession, BoxUploadSessionPart[] uploadedParts, BoxUploadSessionJournal journal) {
+                mPartsSession = uploadSession;
+                mJournal = journal;
+                mFileSize = mFile.length();
+                mUploadedParts = uploadedParts;
+                mPartProgress = new AtomicLongArray(mUploadedParts.length);
+            }
+
+            List<BoxUploadSessionPart> upload() throws BoxException {
+                List<Integer> pending = new ArrayList<Integer>(mUploadedParts.length);
+                for (int i = 0; i < mUploadedParts.length; i++) {
+                    if (mUploadedParts[i] == null) {
+                        pending.add(i);
+                    } else {
+                        onPartProgress(i, mUploadedParts[i].getSize());
+                    }
+                }
+                RandomAccessFile randomAccessFile = null;
+                try {
+                    int attempt = 0;
+                    if (mPartsSession.getFieldPartsSha1() == null || mPartsSession.getSha1() == null) {
+                        pending = uploadPartsWhileHashing();
+                        attempt++;
+                    }
+                    if (!pending.isEmpty()) {
+                        // All parts read from the file share one channel.
+                        randomAccessFile = new RandomAccessFile(mFile, "r");
+                        mFileChannel = randomAccessFile.getChannel();
+                    }
+                    for (; attempt < mMaxPartAttempts && !pending.isEmpty(); attempt++) {
+                        pending = uploadParts(pending);
+                    }
+                } catch (FileNotFoundException e) {
+                    throw new BoxException(e.getMessage(), e);
+                } finally {
+                    cancelAll();
+                    SdkUtils.closeQuietly(randomAccessFile);
+                }
+                if (!pending.isEmpty()) {
+                    throw mLastFailure;
+                }
+                return Arrays.asList(mUploadedParts);
+            }
+
+            /**
+             * Uploads the given parts and returns the ones that failed.
+             */
+            private List<Integer> uploadParts(List<Integer> partNumbers) throws BoxException {
+                List<Integer> failed = new ArrayList<Integer>();
+                try {
+                    for (int partNumber : partNumbers) {
+                        waitForFreeSlot(failed);
+                        submit(createPartRequest(partNumber), partNumber, null);
+                    }
+                    waitForAll(failed);
+                } catch (InterruptedException e) {
+                    cancelAll();
+                    throw new BoxException(e.getMessage(), e);
+                }
+                return failed;
+            }
+
+            /**
+             * Reads the file once from start to end. Each part is read into a buffer, hashed and uploaded from that
+             * buffer while the following parts are read, and the sha1 of the whole file is computed along the way.
+             * Parts the server already has are only hashed. Returns the parts that failed.
+             */
+            private List<Integer> uploadPartsWhileHashing() throws BoxException {
+                List<Integer> failed = new ArrayList<Integer>();
+                List<String> partSha1s = new ArrayList<String>(mUploadedParts.length);
+                InputStream input = null;
+                try {
+                    MessageDigest fileDigest = MessageDigest.getInstance("SHA-1");
+                    MessageDigest partDigest = MessageDigest.getInstance("SHA-1");
+                    input = new FileInputStream(mFile);
+                    for (int partNumber = 0; partNumber < mUploadedParts.length; partNumber++) {
+                        waitForFreeSlot(failed);
+                        byte[] buffer = mBuffers.isEmpty() ? new byte[mPartsSession.getPartSize()] : mBuffers.poll();
+                        int length = BoxUploadSession.getChunkSize(mPartsSession, partNumber, mFileSize);
+                        readFully(input, buffer, length);
+                        partDigest.update(buffer, 0, length);
+                        fileDigest.update(buffer, 0, length);
+                        String partSha1 = Base64.encodeToString(partDigest.digest(), Base64.DEFAULT);
+                        partSha1s.add(partSha1);
+                        if (mUploadedParts[partNumber] != null) {
+                            mBuffers.add(buffer);
+                            continue;
+                        }
+                        submit(createPartRequest(partNumber).setPartData(buffer, partSha1), partNumber, buffer);
+                    }
+                    // Parts that failed are sent again from the file using these digests.
+                    mPartsSession.setPartsSha1(partSha1s);
+                    mPartsSession.setSha1(Base64.encodeToString(fileDigest.digest(), Base64.DEFAULT));
+                    waitForAll(failed);
+                } catch (InterruptedException e) {
+                    cancelAll();
+                    throw new BoxException(e.getMessage(), e);
+                } catch (NoSuchAlgorithmException e) {
+                    cancelAll();
+                    throw new BoxException("Can't compute sha1 for file", e);
+                } catch (IOException e) {
+                    cancelAll();
+                    throw new BoxException("Can't compute sha1 for file", e);
+                } finally {
+                    SdkUtils.closeQuietly(input);
+                    mBuffers.clear();
+                }
+                return failed;
+            }
+
+            private void readFully(InputStream input, byte[] buffer, int length) throws IOException {
+                int offset = 0;
+                while (offset < length) {
+                    int read = input.read(buffer, offset, length - offset);
+                    if (read == -1) {
+                        throw new EOFException("Unexpected end of " + mFile.getPath());
+                    }
+                    offset += read;
+                }
+            }
+
+            private void submit(UploadSessionPart request, int partNumber, byte[] buffer) {
+                mInFlight.add(new InFlightPart(partNumber, BoxConfig.getRequestExecutor().submit(request.toTask()), buffer));
+            }
+
+            private void waitForFreeSlot(List<Integer> failed) throws InterruptedException {
+                if (mInFlight.size() >= mParallelParts) {
+                    waitForPart(mInFlight.poll(), failed);
+                }
+            }
+
+            private void waitForAll(List<Integer> failed) throws InterruptedException {
+                while (!mInFlight.isEmpty()) {
+                    waitForPart(mInFlight.poll(), failed);
+                }
+            }
+
+            private void cancelAll() {
+                for (InFlightPart part : mInFlight) {
+                    part.mTask.cancel(true);
+                }
+                mInFlight.clear();
+            }
+
+            private void waitForPart(InFlightPart part, List<Integer> failed) throws InterruptedException {
+                // Runs the part on this thread if the executor has not started it yet, otherwise this is a no-op.
+                part.mTask.run();
+                Exception failure;
+                try {
+                    BoxResponse<BoxUploadSessionPart> response = part.mTask.get();
+                    if (response.isSuccess()) {
+                        mUploadedParts[part.mPartNumber] = response.getResult();
+                        recordPart(part.mPartNumber, response.getResult());
+                        return;
+                    }
+                    failure = response.getException();
+                } catch (ExecutionException e) {
+                    failure = e;
+                } finally {
+                    if (part.mBuffer != null) {
+                        mBuffers.add(part.mBuffer);
+                    }
+                }
+                mLastFailure = failure instanceof BoxException ? (BoxException) failure
+                        : new BoxException("Unable to upload part " + part.mPartNumber, failure);
+                // The part will be sent again from the start.
+                onPartProgress(part.mPartNumber, 0);
+                failed.add(part.mPartNumber);
+            }
+
+            private void recordPart(int partNumber, BoxUploadSessionPart part) {
+                if (mJournal == null) {
+                    return;
+                }
+                try {
+                    mJournal.onPartUploaded(partNumber, part);
+                } catch (IOException e) {
+                    // The upload can still complete, at worst the part is sent again if the upload is resumed.
+                    BoxLogUtils.e("UploadFileInParts", "Unable to write upload journal", e);
+                }
+            }
+
+            private UploadSessionPart createPartRequest(final int partNumber) throws BoxException {
+                UploadSessionPart request;
+                try {
+                    request = new UploadSessionPart(mFile, mPartsSession, partNumber, mSession);
+                } catch (IOException e) {
+                    throw new BoxException(e.getMessage(), e);
+                }
+                request.setTimeOut(mTimeout);
+                request.setFileChannel(mFileChannel);
+                if (mListener != null) {
+                    request.setProgressListener(new ProgressListener() {
+                        @Override
+                        public void onProgressChanged(long numBytes, long totalBytes) {
+                            onPartProgress(partNumber, numBytes);
+                        }
+                    });
+                }
+                return request;
+            }
+
+            private void onPartProgress(int partNumber, long bytes) {
+                long previous = mPartProgress.getAndSet(partNumber, bytes);
+                long uploaded = mBytesUploaded.addAndGet(bytes - previous);
+                ProgressListener listener = mListener;
+                if (listener != null && bytes != previous) {
+                    listener.onProgressChanged(uploaded, mFileSize);
+                }
+            }
+        }
+
+        /**
+         * A part being uploaded, together with the buffer holding its content if it is sent from memory.
+         */
+        private static class InFlightPart {
+
+            final int mPartNumber;
+            final BoxFutureTask<BoxUploadSessionPart> mTask;
+            final byte[] mBuffer;
+
+            InFlightPart(int partNumber, BoxFutureTask<BoxUploadSessionPart> task, byte[] buffer) {
+                mPartNumber = partNumber;
+                mTask = task;
+                mBuffer = buffer;
+            }
+        }
+    }
+
 }
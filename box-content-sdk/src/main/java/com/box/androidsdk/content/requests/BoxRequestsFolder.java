@@ -1,5 +1,6 @@
 package com.box.androidsdk.content.requests;
 
+import com.box.androidsdk.content.BoxConfig;
 import com.box.androidsdk.content.BoxException;
 import com.box.androidsdk.content.BoxFutureTask;
 import com.box.androidsdk.content.models.BoxFolder;
@@ -16,10 +17,10 @@ import com.box.androidsdk.content.utils.SdkUtils;
 import com.eclipsesource.json.JsonArray;
 import com.eclipsesource.json.JsonObject;
 
+import java.net.HttpURLConnection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 public class BoxRequestsFolder {
 
@@ -512,6 +513,7 @@ public class BoxRequestsFolder {
         private static final String LIMIT = "limit";
         private static final String OFFSET = "offset";
         private static final String USE_MARKER = "usemarker";
+        private static final String MARKER = "marker";
 
         // 1000 is the current max that the API supports
         private static final String DEFAULT_LIMIT = "1000";
@@ -579,6 +581,35 @@ public class BoxRequestsFolder {
             return this;
         }
 
+        /**
+         * Switches this request to marker-based pagination starting at the given marker. The offset is
+         * dropped since only one pagination method can be used at a time.
+         *
+         * @param marker the next marker returned with the previous page, or null to get the first page.
+         * @return the get folder items request
+         */
+        public GetFolderItems setMarker(String marker){
+            mQueryMap.remove(OFFSET);
+            mQueryMap.put(USE_MARKER, Boolean.toString(true));
+            if (marker == null) {
+                mQueryMap.remove(MARKER);
+            } else {
+                mQueryMap.put(MARKER, marker);
+            }
+            return this;
+        }
+
+        /**
+         * Creates a cursor that lazily walks every item of the folder one page at a time using marker-based
+         * pagination, prefetching the next page while the current one is consumed. The fields, limit and
+         * sort set on this request are used for every page.
+         *
+         * @return a cursor over all the items of the folder.
+         */
+        public BoxFolderItemsCursor toCursor(){
+            return new BoxFolderItemsCursor(this);
+        }
+
 
         /**
          * Define second attribute for which items are sorted. First is always by type first with
@@ -717,11 +748,23 @@ public class BoxRequestsFolder {
                     // Do nothing as we don't want this request to be cached
                 }
             }.setFields(fields).setLimit(LIMIT);
+            BoxFolder cachedFolder = getCachedResultToRevalidate();
             if (!SdkUtils.isBlank(getIfNoneMatchEtag())){
                 folderInfoReq.setIfNoneMatchEtag(getIfNoneMatchEtag());
+            } else if (cachedFolder != null) {
+                folderInfoReq.setIfNoneMatchEtag(cachedFolder.getEtag());
+            }
+            BoxFolder folder;
+            try {
+                folder = folderInfoReq.send();
+            } catch (BoxException e) {
+                if (cachedFolder != null && e.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    // The cached folder is still current and is stored again by onSendCompleted.
+                    return cachedFolder;
+                }
+                throw e;
             }
-            BoxFolder folder = folderInfoReq.send();
-            BoxRequestBatch batchRequest = new BoxRequestBatch().setExecutor(SdkUtils.createDefaultThreadPoolExecutor(10, 10, 3600, TimeUnit.SECONDS));
+            BoxRequestBatch batchRequest = new BoxRequestBatch().setRequestExecutor(BoxConfig.getRequestExecutor());
             BoxIteratorItems BoxIteratorItems = folder.getItemCollection();
             int offset = BoxIteratorItems.offset().intValue();
             int limit = BoxIteratorItems.limit().intValue();
@@ -740,7 +783,6 @@ public class BoxRequestsFolder {
                         .setLimit(limit);
                 batchRequest.addRequest(folderItemsReq);
             }
-            // TODO: Baymax - Batch Requests should be run in parallel
             BoxResponseBatch batchResponse = batchRequest.send();
             JsonObject folderJson = folder.toJsonObject();
             JsonArray collection = folderJson.get(BoxFolder.FIELD_ITEM_COLLECTION).asObject()
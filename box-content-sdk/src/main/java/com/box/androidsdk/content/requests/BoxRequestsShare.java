@@ -79,7 +79,7 @@ public class BoxRequestsShare {
                     String contentType = response.getContentType();
                     BoxEntity entity = new BoxEntity();
                     if (contentType.contains(ContentTypes.JSON.toString())) {
-                        String json = response.getStringBody();
+                        JsonObject json = response.getJsonObjectBody();
                         entity.createFromJson(json);
                         if (entity.getType().equals(BoxFolder.TYPE)) {
                             entity = new BoxFolder();
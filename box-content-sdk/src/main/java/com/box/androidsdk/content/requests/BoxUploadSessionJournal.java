@@ -0,0 +1,222 @@
+package com.box.androidsdk.content.requests;
+
+import com.box.androidsdk.content.models.BoxUploadSession;
+import com.box.androidsdk.content.models.BoxUploadSessionPart;
+import com.box.androidsdk.content.utils.BoxLogUtils;
+import com.box.androidsdk.content.utils.SdkUtils;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Progress of a chunked upload, persisted in a small journal file so that an upload interrupted by a crash or a restart
+ * of the app can continue in the same upload session. The journal holds the upload session, which includes the part
+ * size and, once they are known, the sha1 of every part, together with the parts the server has accepted so far.
+ *
+ * Used by {@link BoxRequestsFile.UploadFileInParts} when {@link BoxRequestsFile.UploadFileInParts#setJournalDirectory(File)}
+ * is set.
+ */
+class BoxUploadSessionJournal {
+
+    /**
+     * Suffix of journal file names.
+     */
+    static final String JOURNAL_FILE_SUFFIX = ".boxupload";
+
+    private static final String FIELD_SESSION = "session";
+    private static final String FIELD_FILE_SIZE = "file_size";
+    private static final String FIELD_FILE_MODIFIED = "file_modified";
+    private static final String FIELD_PARTS = "parts";
+
+    private final File mJournalFile;
+    private final File mSource;
+    private BoxUploadSession mUploadSession;
+    private BoxUploadSessionPart[] mParts;
+    private boolean mDiscarded = false;
+
+    private BoxUploadSessionJournal(File journalFile, File source) {
+        mJournalFile = journalFile;
+        mSource = source;
+    }
+
+    /**
+     * Returns the journal for uploading the source file to the given destination.
+     *
+     * @param directory   directory holding upload journals.
+     * @param source      the file being uploaded.
+     * @param destination identifies where the file is uploaded to, for instance the folder or file id.
+     * @return the journal file for the upload.
+     */
+    static File getJournalFile(File directory, File source, String destination) {
+        String key = source.getAbsolutePath() + "\n" + destination;
+        try {
+            return new File(directory, SdkUtils.sha1(new ByteArrayInputStream(key.getBytes("UTF-8"))) + JOURNAL_FILE_SUFFIX);
+        } catch (Exception e) {
+            return new File(directory, Integer.toHexString(key.hashCode()) + JOURNAL_FILE_SUFFIX);
+        }
+    }
+
+    /**
+     * Loads the journal of a previous upload of the source file. The journal is discarded if the source has changed
+     * since or if its upload session has expired.
+     *
+     * @param journalFile the journal file.
+     * @param source      the file being uploaded.
+     * @return the journal, without an upload session if there is nothing to resume.
+     */
+    static BoxUploadSessionJournal load(File journalFile, File source) {
+        BoxUploadSessionJournal journal = new BoxUploadSessionJournal(journalFile, source);
+        if (!journalFile.exists()) {
+            return journal;
+        }
+        Reader reader = null;
+        try {
+            reader = new InputStreamReader(new FileInputStream(journalFile), "UTF-8");
+            JsonObject json = JsonObject.readFrom(reader);
+            BoxUploadSession uploadSession = new BoxUploadSession(json.get(FIELD_SESSION).asObject());
+            Date expiresAt = uploadSession.getExpiresAt();
+            boolean sameSource = json.get(FIELD_FILE_SIZE).asLong() == source.length()
+                    && json.get(FIELD_FILE_MODIFIED).asLong() == source.lastModified();
+            boolean expired = expiresAt != null && expiresAt.before(new Date());
+            if (sameSource && !expired) {
+                BoxUploadSessionPart[] parts = new BoxUploadSessionPart[uploadSession.getTotalParts()];
+                for (JsonValue value : json.get(FIELD_PARTS).asArray()) {
+                    journal.addPart(parts, uploadSession, new BoxUploadSessionPart(value.asObject()));
+                }
+                journal.mUploadSession = uploadSession;
+                journal.mParts = parts;
+            }
+        } catch (Exception e) {
+            BoxLogUtils.e("BoxUploadSessionJournal", "Unable to read upload journal", e);
+        } finally {
+            SdkUtils.closeQuietly(reader);
+        }
+        if (journal.mUploadSession == null) {
+            journal.deleteJournalFile();
+        }
+        return journal;
+    }
+
+    /**
+     * @return the upload session recorded in the journal, null if there is none.
+     */
+    BoxUploadSession getUploadSession() {
+        return mUploadSession;
+    }
+
+    /**
+     * @return the parts accepted by the server indexed by part number, null for parts still to upload.
+     */
+    synchronized BoxUploadSessionPart[] getParts() {
+        return mParts.clone();
+    }
+
+    /**
+     * Records a new upload session, forgetting about any previous one.
+     *
+     * @param uploadSession the upload session, including the sha1 of every part.
+     * @throws IOException thrown if the journal could not be written.
+     */
+    synchronized void start(BoxUploadSession uploadSession) throws IOException {
+        mDiscarded = false;
+        mUploadSession = uploadSession;
+        mParts = new BoxUploadSessionPart[uploadSession.getTotalParts()];
+        save();
+    }
+
+    /**
+     * Replaces the recorded parts with the parts the server reports as uploaded. Parts that were recorded but are
+     * unknown to the server will be uploaded again.
+     *
+     * @param uploadedParts parts listed by the server for the upload session.
+     * @throws IOException thrown if the journal could not be written.
+     */
+    synchronized void reconcile(List<BoxUploadSessionPart> uploadedParts) throws IOException {
+        BoxUploadSessionPart[] parts = new BoxUploadSessionPart[mParts.length];
+        for (BoxUploadSessionPart part : uploadedParts) {
+            addPart(parts, mUploadSession, part);
+        }
+        mParts = parts;
+        save();
+    }
+
+    /**
+     * Records a part accepted by the server.
+     *
+     * @param partNumber the number of the part.
+     * @param part       the part returned by the server.
+     * @throws IOException thrown if the journal could not be written.
+     */
+    synchronized void onPartUploaded(int partNumber, BoxUploadSessionPart part) throws IOException {
+        mParts[partNumber] = part;
+        save();
+    }
+
+    /**
+     * Removes the journal, either because the upload completed or because its session can no longer be used.
+     * Progress is no longer recorded afterwards.
+     */
+    synchronized void discard() {
+        mDiscarded = true;
+        deleteJournalFile();
+    }
+
+    private void deleteJournalFile() {
+        if (mJournalFile.exists() && !mJournalFile.delete()) {
+            BoxLogUtils.e("BoxUploadSessionJournal", "Unable to delete " + mJournalFile.getPath());
+        }
+    }
+
+    private void addPart(BoxUploadSessionPart[] parts, BoxUploadSession uploadSession, BoxUploadSessionPart part) {
+        long partSize = uploadSession.getPartSize();
+        if (partSize <= 0 || part.getOffset() % partSize != 0) {
+            return;
+        }
+        long partNumber = part.getOffset() / partSize;
+        if (partNumber < parts.length
+                && part.getSize() == BoxUploadSession.getChunkSize(uploadSession, (int) partNumber, mSource.length())) {
+            parts[(int) partNumber] = part;
+        }
+    }
+
+    private void save() throws IOException {
+        if (mDiscarded) {
+            return;
+        }
+        JsonArray parts = new JsonArray();
+        for (BoxUploadSessionPart part : mParts) {
+            if (part != null) {
+                parts.add(part.toJsonObject());
+            }
+        }
+        JsonObject json = new JsonObject();
+        json.add(FIELD_SESSION, mUploadSession.toJsonObject());
+        json.add(FIELD_FILE_SIZE, mSource.length());
+        json.add(FIELD_FILE_MODIFIED, mSource.lastModified());
+        json.add(FIELD_PARTS, parts);
+
+        // Write to a temporary file first so a crash never leaves a partially written journal behind.
+        File tempFile = new File(mJournalFile.getPath() + ".tmp");
+        Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), "UTF-8");
+        try {
+            json.writeTo(writer);
+        } finally {
+            writer.close();
+        }
+        if (!tempFile.renameTo(mJournalFile)) {
+            throw new IOException("Unable to write " + mJournalFile.getPath());
+        }
+    }
+}
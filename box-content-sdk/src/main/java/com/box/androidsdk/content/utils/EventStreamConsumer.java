@@ -0,0 +1,384 @@
+package com.box.androidsdk.content.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.box.androidsdk.content.BoxApiEvent;
+import com.box.androidsdk.content.BoxException;
+import com.box.androidsdk.content.models.BoxEvent;
+import com.box.androidsdk.content.models.BoxIteratorBoxEntity;
+import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.requests.BoxRequestsEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumes the event stream of a user or an enterprise page by page, delivering each page of new events to a listener.
+ * Unlike aggregating pages with {@link BoxRequestsEvent.GetUserEvents#setPreviousListEvents}, only the current page is
+ * kept in memory: duplicates are removed over a bounded window of recent event ids and the position reached in the
+ * stream is saved in a {@link CheckpointStore} after each page, so that consumption resumes where it left off.
+ */
+public class EventStreamConsumer {
+
+    /**
+     * Default number of events requested at a time.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
+    /**
+     * Default number of recent event ids remembered to remove duplicates.
+     */
+    public static final int DEFAULT_DEDUPE_WINDOW = 5000;
+
+    private static final String STREAM_POSITION_NOW = "now";
+    private static final String STREAM_TYPE_ADMIN_LOGS = "admin_logs";
+    private static final String TAG = EventStreamConsumer.class.getName();
+
+    private static final ScheduledThreadPoolExecutor POLL_SCHEDULER = createPollScheduler();
+
+    private final BoxSession mSession;
+    private final boolean mEnterprise;
+    private final OnEventsListener mListener;
+    private String mStreamType = BoxRequestsEvent.GetUserEvents.STREAM_TYPE_ALL;
+    private int mPageSize = DEFAULT_PAGE_SIZE;
+    private CheckpointStore mCheckpointStore;
+    private Long mStreamPosition;
+    private boolean mStreamPositionLoaded;
+    private DedupeWindow mRecentEventIds = new DedupeWindow(DEFAULT_DEDUPE_WINDOW);
+    // Guarded by its own lock rather than this so that stopping never waits for a poll in progress.
+    private final Object mScheduleLock = new Object();
+    private ScheduledFuture<?> mScheduledPoll;
+
+    private EventStreamConsumer(BoxSession session, boolean enterprise, OnEventsListener listener) {
+        mSession = session;
+        mEnterprise = enterprise;
+        mListener = listener;
+    }
+
+    /**
+     * Creates a consumer of the events of the user of the session.
+     *
+     * @param session  the session of the user whose events should be consumed.
+     * @param listener the listener events are delivered to.
+     * @return a consumer of the user events.
+     */
+    public static EventStreamConsumer forUserEvents(BoxSession session, OnEventsListener listener) {
+        return new EventStreamConsumer(session, false, listener);
+    }
+
+    /**
+     * Creates a consumer of the events of the enterprise of the session user, who must be an administrator.
+     *
+     * @param session  the session of an administrator of the enterprise.
+     * @param listener the listener events are delivered to.
+     * @return a consumer of the enterprise events.
+     */
+    public static EventStreamConsumer forEnterpriseEvents(BoxSession session, OnEventsListener listener) {
+        return new EventStreamConsumer(session, true, listener);
+    }
+
+    /**
+     * Limits the type of user events consumed, see {@link BoxRequestsEvent.GetUserEvents#setStreamType(String)}.
+     * Ignored for enterprise events.
+     *
+     * @param streamType the type of events to consume, all by default.
+     * @return this consumer.
+     */
+    public synchronized EventStreamConsumer setStreamType(String streamType) {
+        mStreamType = streamType;
+        mStreamPositionLoaded = false;
+        return this;
+    }
+
+    /**
+     * @param pageSize the number of events requested at a time.
+     * @return this consumer.
+     */
+    public synchronized EventStreamConsumer setPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be positive");
+        }
+        mPageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * @param dedupeWindow the number of recent event ids remembered to remove duplicates.
+     * @return this consumer.
+     */
+    public synchronized EventStreamConsumer setDedupeWindow(int dedupeWindow) {
+        if (dedupeWindow <= 0) {
+            throw new IllegalArgumentException("The dedupe window must be positive");
+        }
+        mRecentEventIds = new DedupeWindow(dedupeWindow);
+        return this;
+    }
+
+    /**
+     * Sets where the position reached in the stream is saved. Without a store the consumer starts from the current
+     * position of the stream in every process.
+     *
+     * @param checkpointStore the store of positions reached in the stream.
+     * @return this consumer.
+     */
+    public synchronized EventStreamConsumer setCheckpointStore(CheckpointStore checkpointStore) {
+        mCheckpointStore = checkpointStore;
+        mStreamPositionLoaded = false;
+        return this;
+    }
+
+    /**
+     * @return the position in the stream up to which events have been delivered, or null if none is known yet.
+     */
+    public synchronized Long getStreamPosition() {
+        loadStreamPosition();
+        return mStreamPosition;
+    }
+
+    /**
+     * Sets the position to consume the stream from, overriding the saved one.
+     *
+     * @param streamPosition the position to consume the stream from.
+     */
+    public synchronized void setStreamPosition(Long streamPosition) {
+        loadStreamPosition();
+        mStreamPosition = streamPosition;
+        saveStreamPosition();
+    }
+
+    /**
+     * Requests the pages of events following the current position until the end of the stream is reached, delivering
+     * each of them to the listener. The position is saved after the listener returns, so events are delivered again if
+     * the process stops while they are handled. When no position is known the consumer starts from the current
+     * position of the stream without delivering past events. This makes network calls and should not be done on the
+     * main thread.
+     *
+     * @return the number of events delivered.
+     * @throws BoxException thrown if a page could not be requested, the pages before it are delivered.
+     */
+    public synchronized int poll() throws BoxException {
+        loadStreamPosition();
+        if (mStreamPosition == null) {
+            mStreamPosition = ((IStreamPosition) requestPage(STREAM_POSITION_NOW)).getNextStreamPosition();
+            saveStreamPosition();
+            return 0;
+        }
+        int delivered = 0;
+        BoxIteratorBoxEntity<? extends BoxEvent> page;
+        do {
+            page = requestPage(mStreamPosition.toString());
+            List<BoxEvent> events = new ArrayList<BoxEvent>(page.size());
+            for (BoxEvent event : page) {
+                if (event.getEventId() == null || mRecentEventIds.add(event.getEventId())) {
+                    events.add(event);
+                }
+            }
+            if (events.size() > 0) {
+                mListener.onEvents(events, this);
+                delivered += events.size();
+            }
+            Long nextStreamPosition = ((IStreamPosition) page).getNextStreamPosition();
+            if (nextStreamPosition == null || nextStreamPosition.equals(mStreamPosition)) {
+                break;
+            }
+            mStreamPosition = nextStreamPosition;
+            saveStreamPosition();
+        } while (page.size() >= mPageSize);
+        return delivered;
+    }
+
+    /**
+     * Polls the stream in the background every given interval until {@link #stop()} is called. Failures are reported
+     * to {@link OnEventsListener#onException(Exception, EventStreamConsumer)} and polling continues.
+     *
+     * @param intervalMillis the delay between the end of a poll and the start of the next one.
+     */
+    public void start(long intervalMillis) {
+        synchronized (mScheduleLock) {
+            stop();
+            mScheduledPoll = POLL_SCHEDULER.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        poll();
+                    } catch (Exception e) {
+                        BoxLogUtils.e(TAG, "Unable to poll events", e);
+                        mListener.onException(e, EventStreamConsumer.this);
+                    }
+                }
+            }, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops polling started with {@link #start(long)}. This returns right away and can be called from the main thread,
+     * a poll in progress is completed in the background.
+     */
+    public void stop() {
+        synchronized (mScheduleLock) {
+            if (mScheduledPoll != null) {
+                mScheduledPoll.cancel(false);
+                mScheduledPoll = null;
+                POLL_SCHEDULER.purge();
+            }
+        }
+    }
+
+    private BoxIteratorBoxEntity<? extends BoxEvent> requestPage(String streamPosition) throws BoxException {
+        BoxApiEvent eventApi = new BoxApiEvent(mSession);
+        if (mEnterprise) {
+            return eventApi.getEnterpriseEventsRequest()
+                    .setStreamPosition(streamPosition)
+                    .setLimit(mPageSize)
+                    .send();
+        }
+        return eventApi.getUserEventsRequest()
+                .setStreamType(mStreamType)
+                .setStreamPosition(streamPosition)
+                .setLimit(mPageSize)
+                .send();
+    }
+
+    private String getCheckpointKey() {
+        return mSession.getUserId() + "_" + (mEnterprise ? STREAM_TYPE_ADMIN_LOGS : mStreamType);
+    }
+
+    private void loadStreamPosition() {
+        if (mStreamPositionLoaded) {
+            return;
+        }
+        mStreamPositionLoaded = true;
+        if (mCheckpointStore != null) {
+            mStreamPosition = mCheckpointStore.getStreamPosition(getCheckpointKey());
+        }
+    }
+
+    private void saveStreamPosition() {
+        if (mCheckpointStore != null) {
+            mCheckpointStore.setStreamPosition(getCheckpointKey(), mStreamPosition);
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createPollScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "BoxEventStreamConsumer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // Only keep a thread around while polls are scheduled.
+        scheduler.setKeepAliveTime(60, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+        return scheduler;
+    }
+
+    /**
+     * The most recent event ids delivered, forgetting the oldest ones past its capacity.
+     */
+    private static class DedupeWindow extends LinkedHashMap<String, Boolean> {
+
+        private final int mCapacity;
+
+        DedupeWindow(int capacity) {
+            super(16, 0.75f, false);
+            mCapacity = capacity;
+        }
+
+        /**
+         * @return true if the id was not in the window.
+         */
+        boolean add(String eventId) {
+            return put(eventId, Boolean.TRUE) == null;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > mCapacity;
+        }
+    }
+
+    /**
+     * Listener events are delivered to.
+     */
+    public interface OnEventsListener {
+
+        /**
+         * Called with each page of new events, in the order of the stream, on the thread polling the stream.
+         *
+         * @param events   the new events of the page.
+         * @param consumer the consumer delivering them.
+         */
+        void onEvents(List<BoxEvent> events, EventStreamConsumer consumer);
+
+        /**
+         * Called when polling started with {@link #start(long)} fails.
+         *
+         * @param e        the exception that occurred.
+         * @param consumer the consumer that failed.
+         */
+        void onException(Exception e, EventStreamConsumer consumer);
+    }
+
+    /**
+     * Stores the positions reached in event streams.
+     */
+    public interface CheckpointStore {
+
+        /**
+         * @param key identifies the user and the type of stream.
+         * @return the position saved for the stream, or null if there is none.
+         */
+        Long getStreamPosition(String key);
+
+        /**
+         * @param key            identifies the user and the type of stream.
+         * @param streamPosition the position reached in the stream, or null to forget it.
+         */
+        void setStreamPosition(String key, Long streamPosition);
+    }
+
+    /**
+     * A {@link CheckpointStore} saving positions in the shared preferences of the application.
+     */
+    public static class SharedPreferencesCheckpointStore implements CheckpointStore {
+
+        private static final String PREFERENCES_NAME = SharedPreferencesCheckpointStore.class.getCanonicalName();
+
+        private final Context mContext;
+
+        /**
+         * @param context a context used to get the shared preferences.
+         */
+        public SharedPreferencesCheckpointStore(Context context) {
+            mContext = context.getApplicationContext();
+        }
+
+        @Override
+        public Long getStreamPosition(String key) {
+            SharedPreferences preferences = getPreferences();
+            return preferences.contains(key) ? preferences.getLong(key, 0) : null;
+        }
+
+        @Override
+        public void setStreamPosition(String key, Long streamPosition) {
+            if (streamPosition == null) {
+                getPreferences().edit().remove(key).apply();
+            } else {
+                getPreferences().edit().putLong(key, streamPosition).apply();
+            }
+        }
+
+        protected SharedPreferences getPreferences() {
+            return mContext.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.box.androidsdk.content.utils;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes the sha1 of a file together with the sha1 of each of its fixed size parts, as needed by chunked upload
+ * sessions. The digests of the parts are independent of each other and are computed on all available cores with
+ * positional reads on a shared {@link FileChannel}. The digest of the whole file can only be computed in order and is
+ * computed on the calling thread alongside them.
+ */
+public class ParallelSha1 {
+
+    /**
+     * Size of the buffer each thread reads the file with.
+     */
+    static final int READ_BUFFER_SIZE = 256 * 1024;
+
+    private static final int DEFAULT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    private static ThreadPoolExecutor mExecutor;
+
+    private static synchronized ThreadPoolExecutor getExecutor() {
+        if (mExecutor == null) {
+            mExecutor = SdkUtils.createDefaultThreadPoolExecutor(DEFAULT_THREADS, DEFAULT_THREADS, 30, TimeUnit.SECONDS);
+            mExecutor.allowCoreThreadTimeOut(true);
+        }
+        return mExecutor;
+    }
+
+    /**
+     * Computes the digests of a file and of its parts using one thread per available core.
+     *
+     * @param file     the file to hash.
+     * @param partSize the size of every part but the last.
+     * @return the digests of the file and its parts.
+     * @throws IOException              thrown if the file could not be read.
+     * @throws NoSuchAlgorithmException thrown if Sha-1 algorithm implementation is not supported by OS.
+     */
+    public static Digests computeDigests(File file, long partSize) throws IOException, NoSuchAlgorithmException {
+        return computeDigests(file, partSize, DEFAULT_THREADS);
+    }
+
+    /**
+     * Computes the digests of a file and of its parts.
+     *
+     * @param file     the file to hash.
+     * @param partSize the size of every part but the last.
+     * @param threads  the number of threads to use including the calling thread. With a single thread the file is read
+     *                 once and both kinds of digests are updated together.
+     * @return the digests of the file and its parts.
+     * @throws IOException              thrown if the file could not be read.
+     * @throws NoSuchAlgorithmException thrown if Sha-1 algorithm implementation is not supported by OS.
+     */
+    public static Digests computeDigests(File file, long partSize, int threads) throws IOException, NoSuchAlgorithmException {
+        if (partSize <= 0) {
+            throw new IllegalArgumentException("Part size must be positive");
+        }
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            long size = channel.size();
+            int partCount = (int) ((size + partSize - 1) / partSize);
+            if (threads <= 1 || partCount == 0) {
+                return computeSequentially(channel, size, partSize, partCount);
+            }
+            return computeInParallel(channel, size, partSize, partCount, threads);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Computes the sha1 of a file on the calling thread, reading it through a {@link FileChannel} in blocks of
+     * {@link #READ_BUFFER_SIZE} bytes.
+     *
+     * @param file the file to hash.
+     * @return the sha1 of the file.
+     * @throws IOException              thrown if the file could not be read.
+     * @throws NoSuchAlgorithmException thrown if Sha-1 algorithm implementation is not supported by OS.
+     */
+    public static byte[] computeFileSha1(File file) throws IOException, NoSuchAlgorithmException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            return digestFile(randomAccessFile.getChannel(), randomAccessFile.length());
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static byte[] digestFile(FileChannel channel, long size) throws IOException, NoSuchAlgorithmException {
+        MessageDigest fileDigest = MessageDigest.getInstance("SHA-1");
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        long position = 0;
+        while (position < size) {
+            int read = read(channel, buffer, position, size);
+            fileDigest.update(buffer.array(), 0, read);
+            position += read;
+        }
+        return fileDigest.digest();
+    }
+
+    private static Digests computeSequentially(FileChannel channel, long size, long partSize, int partCount)
+            throws IOException, NoSuchAlgorithmException {
+        MessageDigest fileDigest = MessageDigest.getInstance("SHA-1");
+        MessageDigest partDigest = MessageDigest.getInstance("SHA-1");
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        byte[][] partSha1s = new byte[partCount][];
+        for (int part = 0; part < partCount; part++) {
+            long position = part * partSize;
+            long end = Math.min(position + partSize, size);
+            while (position < end) {
+                int read = read(channel, buffer, position, end);
+                partDigest.update(buffer.array(), 0, read);
+                fileDigest.update(buffer.array(), 0, read);
+                position += read;
+            }
+            partSha1s[part] = partDigest.digest();
+        }
+        return new Digests(fileDigest.digest(), partSha1s);
+    }
+
+    private static Digests computeInParallel(FileChannel channel, long size, long partSize, int partCount, int threads)
+            throws IOException, NoSuchAlgorithmException {
+        byte[][] partSha1s = new byte[partCount][];
+        PartHasher hasher = new PartHasher(channel, size, partSize, partSha1s);
+        ArrayList<FutureTask<Void>> workers = new ArrayList<FutureTask<Void>>();
+        boolean completed = false;
+        try {
+            for (int i = 1; i < threads && i <= partCount; i++) {
+                FutureTask<Void> worker = new FutureTask<Void>(hasher);
+                getExecutor().execute(worker);
+                workers.add(worker);
+            }
+
+            byte[] fileSha1 = digestFile(channel, size);
+
+            // Help with any parts left, then wait for the parts other threads are still hashing.
+            hasher.call();
+            for (FutureTask<Void> worker : workers) {
+                // Runs the worker on this thread if the executor has not started it yet, which returns immediately.
+                worker.run();
+                worker.get();
+            }
+            completed = true;
+            return new Digests(fileSha1, partSha1s);
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof NoSuchAlgorithmException) {
+                throw (NoSuchAlgorithmException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            if (!completed) {
+                hasher.stop();
+                for (FutureTask<Void> worker : workers) {
+                    worker.cancel(false);
+                }
+            }
+        }
+    }
+
+    private static int read(FileChannel channel, ByteBuffer buffer, long position, long end) throws IOException {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), end - position));
+        int read = channel.read(buffer, position);
+        if (read < 0) {
+            throw new EOFException("File is shorter than expected");
+        }
+        return read;
+    }
+
+    /**
+     * Hashes parts until none are left. Shared by all threads, each part is taken by exactly one of them.
+     */
+    private static class PartHasher implements Callable<Void> {
+
+        private final FileChannel mChannel;
+        private final long mSize;
+        private final long mPartSize;
+        private final byte[][] mPartSha1s;
+        private final AtomicInteger mNextPart = new AtomicInteger();
+
+        PartHasher(FileChannel channel, long size, long partSize, byte[][] partSha1s) {
+            mChannel = channel;
+            mSize = size;
+            mPartSize = partSize;
+            mPartSha1s = partSha1s;
+        }
+
+        void stop() {
+            mNextPart.set(mPartSha1s.length);
+        }
+
+        @Override
+        public Void call() throws IOException, NoSuchAlgorithmException {
+            MessageDigest digest = null;
+            ByteBuffer buffer = null;
+            int part;
+            while ((part = mNextPart.getAndIncrement()) < mPartSha1s.length) {
+                if (digest == null) {
+                    digest = MessageDigest.getInstance("SHA-1");
+                    buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+                }
+                long position = part * mPartSize;
+                long end = Math.min(position + mPartSize, mSize);
+                while (position < end) {
+                    int read = read(mChannel, buffer, position, end);
+                    digest.update(buffer.array(), 0, read);
+                    position += read;
+                }
+                mPartSha1s[part] = digest.digest();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The sha1 of a file and of each of its parts.
+     */
+    public static class Digests {
+
+        private final byte[] mFileSha1;
+        private final byte[][] mPartSha1s;
+
+        Digests(byte[] fileSha1, byte[][] partSha1s) {
+            mFileSha1 = fileSha1;
+            mPartSha1s = partSha1s;
+        }
+
+        /**
+         * @return the sha1 of the whole file.
+         */
+        public byte[] getFileSha1() {
+            return mFileSha1;
+        }
+
+        /**
+         * @return the number of parts of the file.
+         */
+        public int getPartCount() {
+            return mPartSha1s.length;
+        }
+
+        /**
+         * @param part the number of the part, starting at 0.
+         * @return the sha1 of the given part.
+         */
+        public byte[] getPartSha1(int part) {
+            return mPartSha1s[part];
+        }
+    }
+}
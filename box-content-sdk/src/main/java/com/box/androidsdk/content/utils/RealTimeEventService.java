@@ -0,0 +1,208 @@
+package com.box.androidsdk.content.utils;
+
+import com.box.androidsdk.content.BoxApiEvent;
+import com.box.androidsdk.content.BoxException;
+import com.box.androidsdk.content.models.BoxEvent;
+import com.box.androidsdk.content.models.BoxIteratorRealTimeServers;
+import com.box.androidsdk.content.models.BoxRealTimeServer;
+import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.models.BoxSimpleMessage;
+import com.box.androidsdk.content.requests.BoxRequestsEvent;
+
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes the events of a user to listeners as soon as they happen. Unlike {@link RealTimeServerConnection}, which
+ * returns after the first change, the service keeps a long poll open on the real time server: each change notification
+ * is followed right away by fetching the new events through an {@link EventStreamConsumer}, and the long poll is opened
+ * again on the same server until its maximum number of retries is reached or it asks to reconnect.
+ */
+public class RealTimeEventService {
+
+    /**
+     * Maximum delay between attempts after failures, in milliseconds.
+     */
+    public static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final long MIN_RETRY_DELAY_MILLIS = 1000;
+    private static final String TAG = RealTimeEventService.class.getName();
+
+    private final BoxSession mSession;
+    private final EventStreamConsumer mConsumer;
+    private final CopyOnWriteArrayList<OnEventsListener> mListeners = new CopyOnWriteArrayList<OnEventsListener>();
+    private final ThreadPoolExecutor mExecutor = SdkUtils.createDefaultThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS);
+
+    private volatile boolean mRunning;
+    private BoxRealTimeServer mRealTimeServer;
+    private int mRetries;
+
+    /**
+     * @param session the session of the user whose events should be pushed.
+     */
+    public RealTimeEventService(BoxSession session) {
+        mSession = session;
+        // The thread is only needed while the service is started, it must not keep the process alive afterwards.
+        mExecutor.allowCoreThreadTimeOut(true);
+        mConsumer = EventStreamConsumer.forUserEvents(session, new EventStreamConsumer.OnEventsListener() {
+            @Override
+            public void onEvents(List<BoxEvent> events, EventStreamConsumer consumer) {
+                for (OnEventsListener listener : mListeners) {
+                    listener.onEvents(events, RealTimeEventService.this);
+                }
+            }
+
+            @Override
+            public void onException(Exception e, EventStreamConsumer consumer) {
+                notifyException(e);
+            }
+        });
+    }
+
+    /**
+     * @return the consumer fetching the events, which can be given a checkpoint store to resume from the last event
+     * delivered in a previous process.
+     */
+    public EventStreamConsumer getEventStreamConsumer() {
+        return mConsumer;
+    }
+
+    /**
+     * @param listener a listener to push events to, on the thread of the service.
+     */
+    public void addListener(OnEventsListener listener) {
+        mListeners.addIfAbsent(listener);
+    }
+
+    /**
+     * @param listener a listener added with {@link #addListener(OnEventsListener)}.
+     */
+    public void removeListener(OnEventsListener listener) {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * @return whether the service is started.
+     */
+    public boolean isRunning() {
+        return mRunning;
+    }
+
+    /**
+     * Starts listening to changes in the background. Events that happened since the saved position of the
+     * {@link #getEventStreamConsumer() consumer} are pushed first.
+     */
+    public synchronized void start() {
+        if (mRunning) {
+            return;
+        }
+        mRunning = true;
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                listen();
+            }
+        });
+    }
+
+    /**
+     * Stops listening to changes. The long poll in progress is not interrupted but nothing is pushed once it ends.
+     */
+    public synchronized void stop() {
+        mRunning = false;
+    }
+
+    private void listen() {
+        long retryDelay = MIN_RETRY_DELAY_MILLIS;
+        while (mRunning) {
+            try {
+                // Also catches up on events that happened while no long poll was open.
+                mConsumer.poll();
+                if (!mRunning) {
+                    return;
+                }
+                BoxSimpleMessage message = longPoll();
+                retryDelay = MIN_RETRY_DELAY_MILLIS;
+                if (message != null && BoxSimpleMessage.MESSAGE_RECONNECT.equals(message.getMessage())) {
+                    mRealTimeServer = null;
+                }
+            } catch (BoxException e) {
+                if (!mRunning) {
+                    return;
+                }
+                if (e.getCause() instanceof SocketTimeoutException) {
+                    // No change within the retry timeout, the long poll is opened again.
+                    mRetries++;
+                    continue;
+                }
+                BoxLogUtils.e(TAG, "Unable to listen to changes", e);
+                notifyException(e);
+                mRealTimeServer = null;
+                try {
+                    Thread.sleep(retryDelay);
+                } catch (InterruptedException e1) {
+                    mRunning = false;
+                    return;
+                }
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Waits for a change on the real time server, requesting a server first if none is in use or the current one timed
+     * out more than its maximum number of retries.
+     *
+     * @return the message of the server, or null if it did not answer.
+     */
+    private BoxSimpleMessage longPoll() throws BoxException {
+        if (mRealTimeServer == null || (mRealTimeServer.getMaxRetries() != null && mRetries >= mRealTimeServer.getMaxRetries())) {
+            BoxIteratorRealTimeServers servers = new BoxApiEvent(mSession).getRealTimeServersRequest().send();
+            if (servers.size() == 0) {
+                throw new BoxException("No real time server available");
+            }
+            mRealTimeServer = servers.get(0);
+            mRetries = 0;
+        }
+        BoxRequestsEvent.LongPollMessageRequest request = new BoxRequestsEvent.LongPollMessageRequest(mRealTimeServer.getUrl(), mSession);
+        if (mRealTimeServer.getFieldRetryTimeout() != null) {
+            request.setTimeOut(mRealTimeServer.getFieldRetryTimeout().intValue() * 1000);
+        }
+        Long streamPosition = mConsumer.getStreamPosition();
+        if (streamPosition != null) {
+            request.setStreamPosition(streamPosition.toString());
+        }
+        return request.send();
+    }
+
+    private void notifyException(Exception e) {
+        for (OnEventsListener listener : mListeners) {
+            listener.onException(e, this);
+        }
+    }
+
+    /**
+     * Listener events are pushed to.
+     */
+    public interface OnEventsListener {
+
+        /**
+         * Called with new events, in the order of the stream.
+         *
+         * @param events  the new events.
+         * @param service the service pushing them.
+         */
+        void onEvents(List<BoxEvent> events, RealTimeEventService service);
+
+        /**
+         * Called when listening to changes fails. The service keeps retrying until it is stopped.
+         *
+         * @param e       the exception that occurred.
+         * @param service the service that failed.
+         */
+        void onException(Exception e, RealTimeEventService service);
+    }
+}
@@ -88,12 +88,15 @@ public class RealTimeServerConnection implements BoxFutureTask.OnCompletedListen
     public BoxSimpleMessage connect() {
         mRetries = 0;
 
-        try {
-            BoxIteratorRealTimeServers servers =  (BoxIteratorRealTimeServers)mRequest.send();
-            mBoxRealTimeServer = servers.get(0);
-        } catch (BoxException e){
-           mChangeListener.onException(e, this);
-           return null;
+        // The server is reused by later connections until its maximum number of retries is exceeded.
+        if (mBoxRealTimeServer == null) {
+            try {
+                BoxIteratorRealTimeServers servers = (BoxIteratorRealTimeServers) mRequest.send();
+                mBoxRealTimeServer = servers.get(0);
+            } catch (BoxException e) {
+                mChangeListener.onException(e, this);
+                return null;
+            }
         }
         BoxRequestsEvent.LongPollMessageRequest messageRequest = new BoxRequestsEvent.LongPollMessageRequest(mBoxRealTimeServer.getUrl(),mSession);
         messageRequest.setTimeOut(mBoxRealTimeServer.getFieldRetryTimeout().intValue() * 1000 );
@@ -126,6 +129,7 @@ public class RealTimeServerConnection implements BoxFutureTask.OnCompletedListen
             }
 
         } while(shouldRetry);
+        mBoxRealTimeServer = null;
         mChangeListener.onException(new BoxException.MaxAttemptsExceeded("Max retries exceeded, ", mRetries), this);
         return null;
     }
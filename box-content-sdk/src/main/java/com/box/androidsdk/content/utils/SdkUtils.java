@@ -237,6 +237,18 @@ public class SdkUtils {
         return new String(encodeHex(md.digest()));
     }
 
+    /**
+     * Utility method to calculate sha1 of a file. Reads the file in larger blocks than {@link #sha1(InputStream)}.
+     *
+     * @param file file to calculate sha1 for.
+     * @return the calculated sha1 for given file.
+     * @throws IOException              thrown if there was issue reading the file.
+     * @throws NoSuchAlgorithmException thrown if Sha-1 algorithm implementation is not supported by OS.
+     */
+    public static String sha1(final File file) throws IOException, NoSuchAlgorithmException {
+        return new String(encodeHex(ParallelSha1.computeFileSha1(file)));
+    }
+
     private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
 
     private static char[] encodeHex(byte[] data) {
@@ -2,13 +2,13 @@ package com.box.androidsdk.content.views;
 
 import android.content.Context;
 import android.content.res.TypedArray;
-import android.graphics.drawable.Drawable;
+import android.graphics.Bitmap;
 import android.os.Bundle;
 import android.os.Looper;
 import android.os.Parcelable;
 import android.text.TextUtils;
 import android.util.AttributeSet;
-import android.util.Log;
+import android.util.LruCache;
 import android.util.TypedValue;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -25,7 +25,8 @@ import com.box.sdk.android.R;
 
 import java.io.File;
 import java.io.Serializable;
-import java.lang.ref.WeakReference;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This view is used to view avatars.
@@ -44,9 +45,18 @@ public class BoxAvatarView extends LinearLayout {
     private static final String EXTRA_PARENT = "extraParent";
     private static final String DEFAULT_NAME = "";
 
+    // Size avatars are decoded at when the view has not been laid out yet.
+    private static final int DEFAULT_AVATAR_SIZE_DP = 96;
 
+    // Decoded avatars keyed by the path of their file, bounded to a fraction of the heap.
+    private static final LruCache<String, Bitmap> AVATAR_CACHE = new LruCache<String, Bitmap>((int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 32)) {
+        @Override
+        protected int sizeOf(String key, Bitmap value) {
+            return value.getRowBytes() * value.getHeight();
+        }
+    };
 
-    private WeakReference<BoxFutureTask<BoxDownload>> mAvatarDownloadTaskRef;
+    private static final ThreadPoolExecutor DECODE_EXECUTOR = createDecodeExecutor();
 
     public BoxAvatarView(Context context) {
         this(context, null);
@@ -81,13 +91,8 @@ public class BoxAvatarView extends LinearLayout {
             return;
         }
         mUser = collaborator;
-        if (mAvatarDownloadTaskRef != null && mAvatarDownloadTaskRef.get() != null){
-            try {
-                mAvatarDownloadTaskRef.get().cancel(true);
-            } catch (Exception e){
-                // we do not care if the previous task cancelled successfully or not.
-            }
-        }
+        // The download of the previous user's avatar is not cancelled as other views may be waiting for it, it only
+        // updates this view if it is bound to that user again.
         updateAvatar();
     }
 
@@ -107,36 +112,97 @@ public class BoxAvatarView extends LinearLayout {
             return;
         }
         final File avatarFile = mAvatarController.getAvatarFile(mUser.getId());
+        Bitmap avatar = AVATAR_CACHE.get(avatarFile.getAbsolutePath());
+        if (avatar != null) {
+            showAvatar(avatar);
+            return;
+        }
+        showInitials();
+        loadAvatar(mUser, avatarFile);
+    }
 
-        if (avatarFile.exists()){
+    /**
+     * Decode the avatar file of the given user on a background thread, then show it if this view still displays the
+     * user, or download it if the file does not exist.
+     */
+    private void loadAvatar(final BoxCollaborator user, final File avatarFile) {
+        final int size = getAvatarSize();
+        DECODE_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final boolean exists = avatarFile.exists();
+                final Bitmap avatar = exists ? SdkUtils.decodeSampledBitmapFromFile(avatarFile, size, size) : null;
+                if (avatar != null) {
+                    AVATAR_CACHE.put(avatarFile.getAbsolutePath(), avatar);
+                }
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (mUser != user) {
+                            // this view has been bound to another user since.
+                            return;
+                        }
+                        if (avatar != null) {
+                            showAvatar(avatar);
+                        } else if (!exists) {
+                            mAvatarController.executeAvatarDownloadRequest(mUser.getId(), BoxAvatarView.this);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void showAvatar(Bitmap avatar) {
+        mAvatar.setImageBitmap(avatar);
+        mAvatar.setVisibility(View.VISIBLE);
+        mInitials.setVisibility(View.GONE);
+    }
 
-            // load avatar file into view.
-            mAvatar.setImageDrawable(Drawable.createFromPath(avatarFile.getAbsolutePath()));
-            mAvatar.setVisibility(View.VISIBLE);
-            mInitials.setVisibility(View.GONE);
+    private void showInitials() {
+        String name = DEFAULT_NAME;
+        if (mUser instanceof BoxCollaborator){
+            name = mUser.getName();
+        } else if (SdkUtils.isBlank(name) && mUser instanceof BoxUser){
+            name = ((BoxUser) mUser).getLogin();
+        }
+        int numberOfCollab = 0;
+        try {
+            numberOfCollab = Integer.parseInt(name);
+        } catch (NumberFormatException ex) {
+            // do nothing
+        }
+        if (numberOfCollab == 0) {
+            SdkUtils.setInitialsThumb(getContext(), mInitials, name);
         } else {
+            SdkUtils.setCollabNumberThumb(getContext(), mInitials, numberOfCollab);
+        }
+        mAvatar.setVisibility(View.GONE);
+        mInitials.setVisibility(View.VISIBLE);
+    }
 
-            String name = DEFAULT_NAME;
-            if (mUser instanceof BoxCollaborator){
-                name = mUser.getName();
-            } else if (SdkUtils.isBlank(name) && mUser instanceof BoxUser){
-                name = ((BoxUser) mUser).getLogin();
-            }
-            int numberOfCollab = 0;
-            try {
-                numberOfCollab = Integer.parseInt(name);
-            } catch (NumberFormatException ex) {
-                // do nothing
-            }
-            if (numberOfCollab == 0) {
-                SdkUtils.setInitialsThumb(getContext(), mInitials, name);
-            } else {
-                SdkUtils.setCollabNumberThumb(getContext(), mInitials, numberOfCollab);
-            }
-            mAvatar.setVisibility(View.GONE);
-            mInitials.setVisibility(View.VISIBLE);
-            mAvatarDownloadTaskRef = new WeakReference<BoxFutureTask<BoxDownload>>(mAvatarController.executeAvatarDownloadRequest(mUser.getId(), this));
+    private int getAvatarSize() {
+        int size = Math.max(getWidth(), getHeight());
+        if (size > 0) {
+            return size;
         }
+        return (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, DEFAULT_AVATAR_SIZE_DP, getResources().getDisplayMetrics());
+    }
+
+    /**
+     * Remove the decoded avatar stored in the given file from memory, for instance once a newer avatar has been
+     * downloaded to it.
+     *
+     * @param avatarFile the file the avatar was decoded from.
+     */
+    public static void evictCachedAvatar(File avatarFile) {
+        AVATAR_CACHE.remove(avatarFile.getAbsolutePath());
+    }
+
+    private static ThreadPoolExecutor createDecodeExecutor() {
+        ThreadPoolExecutor executor = SdkUtils.createDefaultThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     @Override
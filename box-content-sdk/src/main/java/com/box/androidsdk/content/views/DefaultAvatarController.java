@@ -19,8 +19,10 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.lang.ref.WeakReference;
 import java.net.HttpURLConnection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -35,6 +37,10 @@ public class DefaultAvatarController implements BoxAvatarView.AvatarController,
 
     protected HashSet<String> mUnavailableAvatars = new HashSet<String>();
     protected HashSet<String> mCleanedDirectories = new HashSet<String>();
+    // Directories cleaned since the process started, old avatars only need to be removed once.
+    private static final Set<String> CLEANED_DIRECTORIES = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    // Avatar downloads in flight keyed by the file they download to, so that views showing the same user share them.
+    private static final ConcurrentHashMap<String, BoxFutureTask<BoxDownload>> AVATAR_DOWNLOADS = new ConcurrentHashMap<String, BoxFutureTask<BoxDownload>>();
     protected transient ThreadPoolExecutor mExecutor;
     private static final String DEFAULT_AVATAR_DIR_NAME = "avatar";
     private static final String DEFAULT_AVATAR_FILE_PREFIX = "avatar_";
@@ -87,9 +93,10 @@ public class DefaultAvatarController implements BoxAvatarView.AvatarController,
      */
     protected void cleanOutOldAvatars(File directory, int maxLifeInDays){
         if (directory != null){
-            if (mCleanedDirectories.contains(directory.getAbsolutePath())){
+            if (!CLEANED_DIRECTORIES.add(directory.getAbsolutePath())){
                 return;
             }
+            mCleanedDirectories.add(directory.getAbsolutePath());
             long oldestTimeAllowed = System.currentTimeMillis() - maxLifeInDays * TimeUnit.DAYS.toMillis(maxLifeInDays);
             File[] files = directory.listFiles();
             if (files != null){
@@ -103,25 +110,50 @@ public class DefaultAvatarController implements BoxAvatarView.AvatarController,
     }
 
 
+    /**
+     * Download the avatar of the given user, unless it is already being downloaded in which case the avatar view is
+     * updated once that download completes. The returned task may be shared between avatar views and should not be
+     * cancelled.
+     *
+     * @param userId User id that avatar File should correspond to.
+     * @param avatarView the avatar view to update after download.
+     * @return a future task to monitor the download of the avatar.
+     */
     @Override
     public BoxFutureTask<BoxDownload> executeAvatarDownloadRequest(final String userId, BoxAvatarView avatarView) {
         final WeakReference<BoxAvatarView> avatarViewWeakReference = new WeakReference<BoxAvatarView>(avatarView);
+        BoxFutureTask.OnCompletedListener<BoxDownload> avatarViewUpdater = new BoxFutureTask.OnCompletedListener<BoxDownload>() {
+            @Override
+            public void onCompleted(BoxResponse<BoxDownload> response) {
+                BoxAvatarView avatarView = avatarViewWeakReference.get();
+                if (response.isSuccess() && avatarView != null) {
+                    avatarView.updateAvatar();
+                }
+            }
+        };
 
         try {
             final File avatarFile = getAvatarFile(userId);
-            if (mUnavailableAvatars.contains(avatarFile.getAbsolutePath())){
+            final String avatarPath = avatarFile.getAbsolutePath();
+            if (mUnavailableAvatars.contains(avatarPath)){
                 // no point trying if we tried before and it was unavailable.
                 return null;
             }
+            BoxFutureTask<BoxDownload> inFlightTask = AVATAR_DOWNLOADS.get(avatarPath);
+            if (inFlightTask != null) {
+                return inFlightTask.addOnCompletedListener(avatarViewUpdater);
+            }
             final BoxFutureTask<BoxDownload> avatarDownloadTask = getApiUser().getDownloadAvatarRequest(getAvatarDir(userId), userId).toTask();
+            inFlightTask = AVATAR_DOWNLOADS.putIfAbsent(avatarPath, avatarDownloadTask);
+            if (inFlightTask != null) {
+                return inFlightTask.addOnCompletedListener(avatarViewUpdater);
+            }
             avatarDownloadTask.addOnCompletedListener(new BoxFutureTask.OnCompletedListener<BoxDownload>() {
                 @Override
                 public void onCompleted(BoxResponse<BoxDownload> response) {
+                    AVATAR_DOWNLOADS.remove(avatarPath, avatarDownloadTask);
                     if (response.isSuccess()) {
-                        BoxAvatarView avatarView = avatarViewWeakReference.get();
-                        if (avatarView != null) {
-                            avatarView.updateAvatar();
-                        }
+                        BoxAvatarView.evictCachedAvatar(avatarFile);
                     } else {
                         if (response.getException() instanceof BoxException) {
                             if (((BoxException) response.getException()).getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND){
@@ -134,6 +166,7 @@ public class DefaultAvatarController implements BoxAvatarView.AvatarController,
                     }
                 }
             });
+            avatarDownloadTask.addOnCompletedListener(avatarViewUpdater);
             executeTask(avatarDownloadTask);
             return avatarDownloadTask;
         } catch (IOException e){
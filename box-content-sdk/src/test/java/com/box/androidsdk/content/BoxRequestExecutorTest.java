@@ -0,0 +1,180 @@
+package com.box.androidsdk.content;
+
+import com.box.androidsdk.content.models.BoxObject;
+import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.requests.BoxRequest;
+import com.box.androidsdk.content.requests.BoxRequestBatch;
+import com.box.androidsdk.content.requests.BoxResponse;
+import com.box.androidsdk.content.requests.BoxResponseBatch;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for {@link BoxRequestExecutor}.
+ */
+public class BoxRequestExecutorTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    public void testConcurrencyCapPerSession() throws Exception {
+        BoxRequestExecutor executor = new BoxRequestExecutor(4, 2);
+        BoxRequest firstUserRequest = mockRequest("1");
+        BoxRequest secondUserRequest = mockRequest("2");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch firstUserStarted = new CountDownLatch(2);
+        CountDownLatch secondUserStarted = new CountDownLatch(1);
+        CountDownLatch queuedStarted = new CountDownLatch(1);
+
+        BoxFutureTask<BoxObject> first = executor.submit(createTask(firstUserRequest, firstUserStarted, release));
+        BoxFutureTask<BoxObject> second = executor.submit(createTask(firstUserRequest, firstUserStarted, release));
+        BoxFutureTask<BoxObject> queued = executor.submit(createTask(firstUserRequest, queuedStarted, release));
+        BoxFutureTask<BoxObject> otherUser = executor.submit(createTask(secondUserRequest, secondUserStarted, release));
+
+        // The other user is not held back by the first user's cap.
+        Assert.assertTrue(firstUserStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertTrue(secondUserStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(2, executor.getRunningCount(firstUserRequest.getSession()));
+        Assert.assertEquals(1, executor.getPendingCount(firstUserRequest.getSession()));
+        Assert.assertEquals(1, executor.getRunningCount(secondUserRequest.getSession()));
+        Assert.assertEquals(0, executor.getPendingCount(secondUserRequest.getSession()));
+        Assert.assertEquals(1, executor.getQueueDepth());
+        Assert.assertEquals(1, queuedStarted.getCount());
+
+        release.countDown();
+        first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        otherUser.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        queued.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Assert.assertEquals(0, queuedStarted.getCount());
+        Assert.assertEquals(0, executor.getQueueDepth());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testQueueDepthCountsTasksWaitingForThread() throws Exception {
+        BoxRequestExecutor executor = new BoxRequestExecutor(1, 5);
+        BoxRequest request = mockRequest("1");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        BoxFutureTask<BoxObject> running = executor.submit(createTask(request, started, release));
+        Assert.assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        BoxFutureTask<BoxObject> waiting = executor.submit(createTask(request, new CountDownLatch(1), release));
+        Assert.assertEquals(1, executor.getQueueDepth());
+        Assert.assertEquals(0, executor.getPendingCount(request.getSession()));
+
+        release.countDown();
+        running.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        waiting.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Assert.assertEquals(0, executor.getQueueDepth());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        BoxRequestExecutor executor = new BoxRequestExecutor(1, 1);
+        BoxRequest request = mockRequest("1");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch runningStarted = new CountDownLatch(1);
+        CountDownLatch queuedStarted = new CountDownLatch(1);
+        CountDownLatch lateStarted = new CountDownLatch(1);
+
+        BoxFutureTask<BoxObject> running = executor.submit(createTask(request, runningStarted, release));
+        Assert.assertTrue(runningStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        BoxFutureTask<BoxObject> queued = executor.submit(createTask(request, queuedStarted, release));
+        executor.shutdown();
+        BoxFutureTask<BoxObject> late = executor.submit(createTask(request, lateStarted, release));
+
+        // Callers waiting on tasks that will never run are released.
+        assertCancelled(queued);
+        assertCancelled(late);
+
+        // The task already handed to a thread completes, the others never run.
+        release.countDown();
+        running.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Assert.assertFalse(queuedStarted.await(200, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, lateStarted.getCount());
+        Assert.assertEquals(0, executor.getQueueDepth());
+    }
+
+    @Test
+    public void testBatchRunsQueuedRequestsWhileWaiting() throws Exception {
+        // The only thread is busy, so the batch can only complete by running its requests itself.
+        BoxRequestExecutor executor = new BoxRequestExecutor(1, 1);
+        BoxRequest request = mockRequest("1");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        BoxFutureTask<BoxObject> blocking = executor.submit(createTask(request, started, release));
+        Assert.assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        final AtomicReference<Thread> firstThread = new AtomicReference<Thread>();
+        final AtomicReference<Thread> secondThread = new AtomicReference<Thread>();
+        BoxRequest firstRequest = mockRequest("1");
+        BoxRequest secondRequest = mockRequest("1");
+        Mockito.when(firstRequest.toTask()).thenReturn(createRecordingTask(firstRequest, firstThread));
+        Mockito.when(secondRequest.toTask()).thenReturn(createRecordingTask(secondRequest, secondThread));
+        BoxRequestBatch batch = new BoxRequestBatch()
+                .setRequestExecutor(executor)
+                .addRequest(firstRequest)
+                .addRequest(secondRequest);
+
+        BoxResponseBatch responses = batch.onSend();
+        Assert.assertEquals(2, responses.getResponses().size());
+        Assert.assertSame(Thread.currentThread(), firstThread.get());
+        Assert.assertSame(Thread.currentThread(), secondThread.get());
+
+        release.countDown();
+        blocking.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+
+    private static void assertCancelled(BoxFutureTask<BoxObject> task) throws Exception {
+        try {
+            task.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Assert.fail("Task should have been cancelled");
+        } catch (CancellationException e) {
+            // expected
+        }
+    }
+
+    private static BoxRequest mockRequest(String userId) {
+        BoxSession session = Mockito.mock(BoxSession.class);
+        Mockito.when(session.getUserId()).thenReturn(userId);
+        BoxRequest request = Mockito.mock(BoxRequest.class);
+        Mockito.when(request.getSession()).thenReturn(session);
+        return request;
+    }
+
+    private static BoxFutureTask<BoxObject> createTask(final BoxRequest request, final CountDownLatch started, final CountDownLatch release) {
+        return new BoxFutureTask<BoxObject>(new Callable<BoxResponse<BoxObject>>() {
+            @Override
+            public BoxResponse<BoxObject> call() throws Exception {
+                started.countDown();
+                release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                return new BoxResponse<BoxObject>(null, null, request);
+            }
+        }, request) {
+        };
+    }
+
+    private static BoxFutureTask<BoxObject> createRecordingTask(final BoxRequest request, final AtomicReference<Thread> thread) {
+        return new BoxFutureTask<BoxObject>(new Callable<BoxResponse<BoxObject>>() {
+            @Override
+            public BoxResponse<BoxObject> call() throws Exception {
+                thread.set(Thread.currentThread());
+                return new BoxResponse<BoxObject>(null, null, request);
+            }
+        }, request) {
+        };
+    }
+}
@@ -0,0 +1,259 @@
+package com.box.androidsdk.content;
+
+import android.content.Context;
+
+import com.box.androidsdk.content.models.BoxFile;
+import com.box.androidsdk.content.models.BoxIteratorEvents;
+import com.box.androidsdk.content.models.BoxIteratorItems;
+import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.requests.BoxRequestsFile;
+import com.box.androidsdk.content.requests.BoxRequestsFolder;
+import com.box.androidsdk.content.requests.BoxResponse;
+import com.box.androidsdk.content.testUtil.InMemoryHttpTransport;
+import com.box.androidsdk.content.testUtil.PowerMock;
+import com.box.androidsdk.content.testUtil.SessionUtil;
+import com.eclipsesource.json.JsonObject;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link DefaultBoxCache}.
+ */
+public class DefaultBoxCacheTest extends PowerMock {
+
+    private static final String FILE_ID = "5000948880";
+    private static final String SAMPLE_FILE_JSON = "{\"type\":\"file\",\"id\":\"5000948880\",\"etag\":\"3\",\"name\":\"tigers.jpeg\",\"size\":629644}";
+
+    @Mock
+    Context mMockContext;
+
+    private File mDirectory;
+    private BoxSession mSession;
+
+    @Before
+    public void createDirectory() throws IOException {
+        mDirectory = File.createTempFile("box_cache", "");
+        mDirectory.delete();
+        mSession = SessionUtil.newMockBoxSession(mMockContext);
+    }
+
+    @After
+    public void reset() {
+        BoxConfig.setCache(null);
+        BoxConfig.setHttpTransport(null);
+        BoxConfig.setCacheRevalidationEnabled(false);
+        BoxConfig.setStaleWhileRevalidateEnabled(false);
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        mDirectory.delete();
+    }
+
+    @Test
+    public void testRevalidatedResult() throws Exception {
+        InMemoryHttpTransport transport = new InMemoryHttpTransport(new InMemoryHttpTransport.Server() {
+            @Override
+            public void respond(InMemoryHttpTransport.Exchange exchange) {
+                if (exchange.getRequestHeader("If-None-Match") == null) {
+                    exchange.setResponse(HttpURLConnection.HTTP_OK, SAMPLE_FILE_JSON);
+                } else {
+                    Assert.assertEquals("3", exchange.getRequestHeader("If-None-Match"));
+                    exchange.setResponse(HttpURLConnection.HTTP_NOT_MODIFIED, "");
+                }
+            }
+        });
+        BoxConfig.setHttpTransport(transport);
+        BoxConfig.setCache(new DefaultBoxCache(mDirectory));
+        BoxConfig.setCacheRevalidationEnabled(true);
+        BoxApiFile fileApi = new BoxApiFile(mSession);
+
+        BoxFile sent = fileApi.getInfoRequest(FILE_ID).send();
+        BoxFile revalidated = fileApi.getInfoRequest(FILE_ID).send();
+        Assert.assertSame(sent, revalidated);
+        Assert.assertEquals(2, transport.getExchanges().size());
+        Assert.assertEquals("3", transport.getExchanges().get(1).getRequestHeader("If-None-Match"));
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+        final String updatedJson = SAMPLE_FILE_JSON.replace("\"etag\":\"3\"", "\"etag\":\"4\"").replace("tigers.jpeg", "lions.jpeg");
+        InMemoryHttpTransport transport = new InMemoryHttpTransport(new InMemoryHttpTransport.Server() {
+            @Override
+            public void respond(InMemoryHttpTransport.Exchange exchange) {
+                if (exchange.getRequestHeader("If-None-Match") == null) {
+                    exchange.setResponse(HttpURLConnection.HTTP_OK, SAMPLE_FILE_JSON);
+                } else {
+                    Assert.assertEquals("3", exchange.getRequestHeader("If-None-Match"));
+                    exchange.setResponse(HttpURLConnection.HTTP_OK, updatedJson);
+                }
+            }
+        });
+        BoxConfig.setHttpTransport(transport);
+        BoxConfig.setCache(new DefaultBoxCache(mDirectory));
+        BoxConfig.setCacheRevalidationEnabled(true);
+        BoxConfig.setStaleWhileRevalidateEnabled(true);
+        BoxApiFile fileApi = new BoxApiFile(mSession);
+
+        BoxFile sent = fileApi.getInfoRequest(FILE_ID).send();
+        Assert.assertEquals("tigers.jpeg", sent.getName());
+
+        // The cached item is returned right away and refreshed in the background.
+        BoxFile stale = fileApi.getInfoRequest(FILE_ID).send();
+        Assert.assertSame(sent, stale);
+        long deadline = System.currentTimeMillis() + 10000;
+        BoxFile cached = fileApi.getInfoRequest(FILE_ID).sendForCachedResult();
+        while (!"lions.jpeg".equals(cached.getName()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            cached = fileApi.getInfoRequest(FILE_ID).sendForCachedResult();
+        }
+        Assert.assertEquals("lions.jpeg", cached.getName());
+        Assert.assertEquals(2, transport.getExchanges().size());
+    }
+
+    @Test
+    public void testCachedResultOfSentRequest() throws Exception {
+        InMemoryHttpTransport transport = InMemoryHttpTransport.respondingWith(HttpURLConnection.HTTP_OK, SAMPLE_FILE_JSON);
+        BoxConfig.setHttpTransport(transport);
+        BoxConfig.setCache(new DefaultBoxCache(mDirectory));
+        BoxApiFile fileApi = new BoxApiFile(mSession);
+
+        Assert.assertNull(fileApi.getInfoRequest(FILE_ID).sendForCachedResult());
+        BoxFile sent = fileApi.getInfoRequest(FILE_ID).send();
+        BoxFile cached = fileApi.getInfoRequest(FILE_ID).sendForCachedResult();
+        Assert.assertEquals(sent, cached);
+        Assert.assertEquals(1, transport.getExchanges().size());
+
+        // Results are stored per query.
+        Assert.assertNull(fileApi.getInfoRequest(FILE_ID).setFields(BoxFile.FIELD_NAME).sendForCachedResult());
+
+        // A new cache reads the results stored on disk.
+        BoxConfig.setCache(new DefaultBoxCache(mDirectory));
+        BoxFile stored = fileApi.getInfoRequest(FILE_ID).sendForCachedResult();
+        Assert.assertEquals(FILE_ID, stored.getId());
+        Assert.assertEquals("tigers.jpeg", stored.getName());
+        Assert.assertEquals(Long.valueOf(629644), stored.getSize());
+    }
+
+    @Test
+    public void testExpiredResult() throws Exception {
+        DefaultBoxCache cache = new DefaultBoxCache(mDirectory, 60000, DefaultBoxCache.DEFAULT_MEMORY_BUDGET_BYTES, DefaultBoxCache.DEFAULT_DISK_BUDGET_BYTES);
+        BoxRequestsFile.GetFileInfo request = new BoxApiFile(mSession).getInfoRequest(FILE_ID);
+        cache.put(new BoxResponse<BoxFile>(new BoxFile(JsonObject.readFrom(SAMPLE_FILE_JSON)), null, request));
+        Assert.assertNotNull(cache.get(request));
+
+        File[] files = mDirectory.listFiles();
+        Assert.assertEquals(1, files.length);
+        files[0].setLastModified(System.currentTimeMillis() - 120000);
+        DefaultBoxCache reloaded = new DefaultBoxCache(mDirectory, 60000, DefaultBoxCache.DEFAULT_MEMORY_BUDGET_BYTES, DefaultBoxCache.DEFAULT_DISK_BUDGET_BYTES);
+        Assert.assertNull(reloaded.get(request));
+        Assert.assertEquals(0, mDirectory.listFiles().length);
+    }
+
+    @Test
+    public void testEvictionOverBudget() throws Exception {
+        int entrySize = SAMPLE_FILE_JSON.length() + 200;
+        DefaultBoxCache cache = new DefaultBoxCache(mDirectory, DefaultBoxCache.DEFAULT_TIME_TO_LIVE_MILLIS, entrySize, 2 * entrySize);
+        BoxApiFile fileApi = new BoxApiFile(mSession);
+        for (int i = 0; i < 3; i++) {
+            BoxRequestsFile.GetFileInfo request = fileApi.getInfoRequest(FILE_ID + i);
+            cache.put(new BoxResponse<BoxFile>(new BoxFile(JsonObject.readFrom(SAMPLE_FILE_JSON)), null, request));
+        }
+
+        Assert.assertTrue(cache.getMemorySize() <= entrySize);
+        Assert.assertTrue(cache.getDiskSize() <= 2 * entrySize);
+        Assert.assertNull(cache.get(fileApi.getInfoRequest(FILE_ID + 0)));
+        Assert.assertNotNull(cache.get(fileApi.getInfoRequest(FILE_ID + 1)));
+        Assert.assertNotNull(cache.get(fileApi.getInfoRequest(FILE_ID + 2)));
+
+        cache.clear();
+        Assert.assertNull(cache.get(fileApi.getInfoRequest(FILE_ID + 2)));
+        Assert.assertEquals(0, cache.getDiskSize());
+    }
+
+    @Test
+    public void testEventInvalidation() throws Exception {
+        String otherFileJson = "{\"type\":\"file\",\"id\":\"42\",\"etag\":\"1\",\"name\":\"lions.jpeg\"}";
+        String folderItemsJson = "{\"total_count\":1,\"offset\":0,\"limit\":100,\"entries\":[" + SAMPLE_FILE_JSON + "]}";
+        String trashEventsJson = "{\"chunk_size\":1,\"next_stream_position\":1152922976252290886,\"entries\":[{\"type\":\"event\",\"event_id\":\"f82c3ba03e41f7e8a7608363cc6c0390183c3f83\","
+                + "\"event_type\":\"ITEM_TRASH\",\"source\":{\"type\":\"file\",\"id\":\"5000948880\",\"parent\":{\"type\":\"folder\",\"id\":\"11446498\"}}}]}";
+        DefaultBoxCache cache = new DefaultBoxCache(mDirectory);
+        BoxRequestsFolder.GetFolderItems folderItemsRequest = new BoxApiFolder(mSession).getItemsRequest("0");
+        BoxRequestsFolder.GetFolderItems parentItemsRequest = new BoxApiFolder(mSession).getItemsRequest("11446498");
+        BoxRequestsFile.GetFileInfo otherFileRequest = new BoxApiFile(mSession).getInfoRequest("42");
+        cache.put(new BoxResponse<BoxIteratorItems>(new BoxIteratorItems(JsonObject.readFrom(folderItemsJson)), null, folderItemsRequest));
+        cache.put(new BoxResponse<BoxIteratorItems>(new BoxIteratorItems(JsonObject.readFrom("{\"total_count\":0,\"entries\":[]}")), null, parentItemsRequest));
+        cache.put(new BoxResponse<BoxFile>(new BoxFile(JsonObject.readFrom(otherFileJson)), null, otherFileRequest));
+
+        // Entries stored by a previous process are invalidated as well.
+        DefaultBoxCache reloaded = new DefaultBoxCache(mDirectory);
+        BoxEventCacheInvalidator invalidator = new BoxEventCacheInvalidator(mSession, reloaded);
+        invalidator.setStreamPosition(1152922976252290800L);
+        BoxIteratorEvents events = new BoxIteratorEvents();
+        events.createFromJson(JsonObject.readFrom(trashEventsJson));
+        invalidator.onEvents(events);
+
+        Assert.assertEquals(Long.valueOf(1152922976252290886L), invalidator.getStreamPosition());
+        Assert.assertNull(reloaded.get(folderItemsRequest));
+        Assert.assertNull(reloaded.get(parentItemsRequest));
+        Assert.assertNotNull(reloaded.get(otherFileRequest));
+        Assert.assertEquals(1, mDirectory.listFiles().length);
+    }
+
+    @Test
+    public void testEventSyncPages() throws Exception {
+        final String renameEventJson = "{\"type\":\"event\",\"event_id\":\"rename\",\"event_type\":\"ITEM_RENAME\","
+                + "\"source\":{\"type\":\"file\",\"id\":\"42\"}}";
+        final String trashEventJson = "{\"type\":\"event\",\"event_id\":\"trash\",\"event_type\":\"ITEM_TRASH\","
+                + "\"source\":{\"type\":\"file\",\"id\":\"5000948880\",\"parent\":{\"type\":\"folder\",\"id\":\"11446498\"}}}";
+        // A full page means more events may follow.
+        StringBuilder firstPage = new StringBuilder("{\"chunk_size\":").append(BoxEventCacheInvalidator.EVENTS_LIMIT)
+                .append(",\"next_stream_position\":200,\"entries\":[").append(renameEventJson);
+        for (int i = 1; i < BoxEventCacheInvalidator.EVENTS_LIMIT; i++) {
+            firstPage.append(",{\"type\":\"event\",\"event_id\":\"").append(i).append("\",\"event_type\":\"ITEM_PREVIEW\",")
+                    .append("\"source\":{\"type\":\"file\",\"id\":\"7\"}}");
+        }
+        final String firstPageJson = firstPage.append("]}").toString();
+        final String secondPageJson = "{\"chunk_size\":1,\"next_stream_position\":201,\"entries\":[" + trashEventJson + "]}";
+        final List<String> requestedPositions = new ArrayList<String>();
+        BoxConfig.setHttpTransport(new InMemoryHttpTransport(new InMemoryHttpTransport.Server() {
+            @Override
+            public void respond(InMemoryHttpTransport.Exchange exchange) {
+                String position = exchange.getUrl().getQuery().replaceAll(".*stream_position=([^&]*).*", "$1");
+                requestedPositions.add(position);
+                exchange.setResponse(HttpURLConnection.HTTP_OK, position.equals("100") ? firstPageJson : secondPageJson);
+            }
+        }));
+
+        String folderItemsJson = "{\"total_count\":1,\"offset\":0,\"limit\":100,\"entries\":[" + SAMPLE_FILE_JSON + "]}";
+        DefaultBoxCache cache = new DefaultBoxCache(mDirectory);
+        BoxRequestsFolder.GetFolderItems folderItemsRequest = new BoxApiFolder(mSession).getItemsRequest("0");
+        BoxRequestsFile.GetFileInfo renamedFileRequest = new BoxApiFile(mSession).getInfoRequest("42");
+        BoxRequestsFile.GetFileInfo previewedFileRequest = new BoxApiFile(mSession).getInfoRequest("7");
+        cache.put(new BoxResponse<BoxIteratorItems>(new BoxIteratorItems(JsonObject.readFrom(folderItemsJson)), null, folderItemsRequest));
+        cache.put(new BoxResponse<BoxFile>(new BoxFile(JsonObject.readFrom("{\"type\":\"file\",\"id\":\"42\"}")), null, renamedFileRequest));
+        cache.put(new BoxResponse<BoxFile>(new BoxFile(JsonObject.readFrom("{\"type\":\"file\",\"id\":\"7\"}")), null, previewedFileRequest));
+
+        BoxEventCacheInvalidator invalidator = new BoxEventCacheInvalidator(mSession, cache);
+        invalidator.setStreamPosition(100L);
+        Assert.assertEquals(Long.valueOf(201), invalidator.sync());
+
+        Assert.assertEquals("[100, 200]", requestedPositions.toString());
+        Assert.assertNull(cache.get(renamedFileRequest));
+        Assert.assertNull(cache.get(folderItemsRequest));
+        Assert.assertNotNull(cache.get(previewedFileRequest));
+    }
+}
@@ -0,0 +1,105 @@
+package com.box.androidsdk.content.auth;
+
+import android.content.Context;
+
+import com.box.androidsdk.content.testUtil.InMemorySharedPreferences;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the scheduling of background refreshes and the storage of auth info by {@link BoxAuthentication}.
+ */
+public class BoxAuthenticationTest {
+
+    private static final long REFRESH_TIME = 1000000L;
+
+    @Test
+    public void testBackgroundRefreshDelay() {
+        BoxAuthentication.BoxAuthenticationInfo info = createInfo(3600L);
+        long now = REFRESH_TIME + TimeUnit.MINUTES.toMillis(10);
+        Assert.assertEquals(TimeUnit.MINUTES.toMillis(35), BoxAuthentication.getBackgroundRefreshDelay(info, 0.75f, now));
+        // A token past the fraction of its lifetime is refreshed right away.
+        Assert.assertEquals(0, BoxAuthentication.getBackgroundRefreshDelay(info, 0.1f, now));
+    }
+
+    @Test
+    public void testBackgroundRefreshNotScheduled() {
+        Assert.assertEquals(-1, BoxAuthentication.getBackgroundRefreshDelay(createInfo(3600L), 0, REFRESH_TIME));
+        Assert.assertEquals(-1, BoxAuthentication.getBackgroundRefreshDelay(createInfo(null), 0.75f, REFRESH_TIME));
+        BoxAuthentication.BoxAuthenticationInfo neverRefreshed = new BoxAuthentication.BoxAuthenticationInfo();
+        neverRefreshed.setExpiresIn(3600L);
+        Assert.assertEquals(-1, BoxAuthentication.getBackgroundRefreshDelay(neverRefreshed, 0.75f, REFRESH_TIME));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBackgroundRefreshFraction() {
+        BoxAuthentication.getInstance().setBackgroundRefreshFraction(1);
+    }
+
+    @Test
+    public void testWriteBehindStorage() {
+        InMemorySharedPreferences prefs = new InMemorySharedPreferences();
+        Context context = mockContext(prefs);
+        BoxAuthentication.WriteBehindAuthStorage storage = new BoxAuthentication.WriteBehindAuthStorage();
+        Map<String, BoxAuthentication.BoxAuthenticationInfo> authInfoMap = storage.loadAuthInfoMap(context);
+
+        for (int i = 0; i < 10; i++) {
+            BoxAuthentication.BoxAuthenticationInfo info = createInfo(3600L);
+            info.setAccessToken("accessToken" + i);
+            authInfoMap.put("1" + i, info);
+            storage.storeAuthInfo("1" + i, info, authInfoMap, context);
+        }
+        storage.storeLastAuthenticatedUserId("19", context);
+        authInfoMap.remove("10");
+        storage.storeAuthInfo("10", null, authInfoMap, context);
+        // Pending changes are visible before being written.
+        Assert.assertEquals("19", storage.getLastAuthentictedUserId(context));
+        storage.flush();
+
+        Map<String, BoxAuthentication.BoxAuthenticationInfo> loaded = new BoxAuthentication.WriteBehindAuthStorage().loadAuthInfoMap(context);
+        Assert.assertEquals(9, loaded.size());
+        Assert.assertFalse(loaded.containsKey("10"));
+        Assert.assertEquals("accessToken5", loaded.get("15").accessToken());
+        Assert.assertEquals("19", new BoxAuthentication.WriteBehindAuthStorage().getLastAuthentictedUserId(context));
+    }
+
+    @Test
+    public void testWriteBehindStorageMigratesStoredMap() {
+        InMemorySharedPreferences prefs = new InMemorySharedPreferences();
+        Context context = mockContext(prefs);
+        ConcurrentHashMap<String, BoxAuthentication.BoxAuthenticationInfo> authInfoMap = new ConcurrentHashMap<>();
+        authInfoMap.put("10", createInfo(3600L));
+        new BoxAuthentication.AuthStorage().storeAuthInfoMap(authInfoMap, context);
+
+        BoxAuthentication.WriteBehindAuthStorage storage = new BoxAuthentication.WriteBehindAuthStorage();
+        Assert.assertEquals("accessToken", storage.loadAuthInfoMap(context).get("10").accessToken());
+        storage.flush();
+
+        Assert.assertTrue(new BoxAuthentication.AuthStorage().loadAuthInfoMap(context).isEmpty());
+        Assert.assertEquals("accessToken", new BoxAuthentication.WriteBehindAuthStorage().loadAuthInfoMap(context).get("10").accessToken());
+    }
+
+    private static Context mockContext(InMemorySharedPreferences prefs) {
+        Context context = Mockito.mock(Context.class);
+        Mockito.when(context.getSharedPreferences(Matchers.anyString(), Matchers.anyInt())).thenReturn(prefs);
+        return context;
+    }
+
+    private static BoxAuthentication.BoxAuthenticationInfo createInfo(Long expiresIn) {
+        BoxAuthentication.BoxAuthenticationInfo info = new BoxAuthentication.BoxAuthenticationInfo();
+        info.setAccessToken("accessToken");
+        info.setRefreshTime(REFRESH_TIME);
+        if (expiresIn != null) {
+            info.setExpiresIn(expiresIn);
+        }
+        return info;
+    }
+}
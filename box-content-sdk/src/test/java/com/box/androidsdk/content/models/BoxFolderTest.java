@@ -1,10 +1,61 @@
 package com.box.androidsdk.content.models;
 
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Locale;
+
 public class BoxFolderTest {
 
+    private static final String FOLDER_JSON = "{\"type\":\"folder\",\"id\":\"11446498\",\"sequence_id\":\"1\",\"etag\":\"1\",\"name\":\"Pictures\",\"path_collection\":{\"entries\":[{\"type\":\"folder\",\"id\":\"0\",\"name\":\"All Files\"}],\"total_count\":1},\"item_collection\":{\"entries\":[],\"total_count\":1000,\"offset\":0,\"limit\":1000}}";
+    private static final String ITEM_JSON = "{\"type\":\"file\",\"id\":\"%d\",\"sequence_id\":\"3\",\"etag\":\"3\",\"sha1\":\"134b65991ed521fcfe4724b7d814ab8ded5185dc\",\"name\":\"tigers%d.jpeg\",\"size\":629644,\"created_at\":\"2012-12-12T10:53:43-08:00\",\"modified_at\":\"2012-12-12T11:15:04-08:00\",\"path_collection\":{\"entries\":[{\"type\":\"folder\",\"id\":\"0\",\"name\":\"All Files\"},{\"type\":\"folder\",\"id\":\"11446498\",\"name\":\"Pictures\"}],\"total_count\":2},\"created_by\":{\"type\":\"user\",\"id\":\"17738362\",\"name\":\"sean rose\",\"login\":\"sean@box.com\"},\"permissions\":{\"can_download\":true,\"can_preview\":true},\"tags\":[\"a\",\"b\"]}";
+    private static final int FOLDER_ITEMS = 1000;
+
+    @Test
+    public void testToJsonObjectIsDeepCopy() {
+        BoxFile file = new BoxFile(JsonObject.readFrom(String.format(Locale.ENGLISH, ITEM_JSON, 1, 1)));
+        JsonObject copy = file.toJsonObject();
+        Assert.assertEquals(file.toJson(), copy.toString());
+
+        copy.set(BoxItem.FIELD_NAME, "changed");
+        copy.get(BoxItem.FIELD_PATH_COLLECTION).asObject().get(BoxIterator.FIELD_ENTRIES).asArray().add(new JsonObject());
+        Assert.assertEquals("tigers1.jpeg", file.getName());
+        Assert.assertEquals(2, file.getPathCollection().size());
+
+        JsonArray tags = file.getPropertyValue(BoxItem.FIELD_TAGS).asArray();
+        tags.add("c");
+        Assert.assertEquals(2, file.getTags().size());
+    }
+
+    @Test
+    public void testBuildFolderWithItems() {
+        BoxFolder folder = new BoxFolder(JsonObject.readFrom(FOLDER_JSON));
+        ArrayList<BoxItem> items = new ArrayList<BoxItem>(FOLDER_ITEMS);
+        for (int i = 0; i < FOLDER_ITEMS; i++) {
+            items.add(new BoxFile(JsonObject.readFrom(String.format(Locale.ENGLISH, ITEM_JSON, i, i))));
+        }
+        Assert.assertEquals(buildFolder(folder, items, true).toJson(), buildFolder(folder, items, false).toJson());
+        Assert.assertEquals(FOLDER_ITEMS, buildFolder(folder, items, false).getItemCollection().size());
+    }
+
+    /**
+     * Builds a folder containing the given items the same way GetFolderWithAllItems does.
+     */
+    private static BoxFolder buildFolder(BoxFolder folder, ArrayList<BoxItem> items, boolean reparse) {
+        JsonObject folderJson = reparse ? JsonObject.readFrom(folder.toJson()) : folder.toJsonObject();
+        JsonArray collection = folderJson.get(BoxFolder.FIELD_ITEM_COLLECTION).asObject()
+                .get(BoxIterator.FIELD_ENTRIES).asArray();
+        for (BoxItem item : items) {
+            // The reparse path is the previous implementation of BoxJsonObject.toJsonObject().
+            collection.add(reparse ? JsonObject.readFrom(item.toJson()) : item.toJsonObject());
+        }
+        return new BoxFolder(folderJson);
+    }
+
     @Test
     public void testParseJson() {
         String folderJson = "{\"type\":\"folder\",\"id\":\"11446498\",\"sequence_id\":\"1\",\"etag\":\"1\",\"name\":\"Pictures\",\"created_at\":\"2012-12-12T10:53:43-08:00\",\"modified_at\":\"2012-12-12T11:15:04-08:00\",\"description\":\"Some pictures I took\",\"size\":629644,\"path_collection\":{\"entries\":[{\"type\":\"folder\",\"id\":\"0\",\"name\":\"All Files\"}],\"total_count\":1},\"created_by\":{\"type\":\"user\",\"id\":\"17738362\",\"name\":\"sean rose\",\"login\":\"sean@box.com\"},\"modified_by\":{\"type\":\"user\",\"id\":\"17738362\",\"name\":\"sean rose\",\"login\":\"sean@box.com\"},\"owned_by\":{\"type\":\"user\",\"id\":\"17738362\",\"name\":\"sean rose\",\"login\":\"sean@box.com\"},\"shared_link\":{\"url\":\"https://www.box.com/s/vspke7y05sb214wjokpk\",\"is_password_enabled\":false,\"download_count\":0,\"preview_count\":0,\"access\":\"open\",\"permissions\":{\"can_download\":true,\"can_preview\":true}},\"folder_upload_email\":{\"access\":\"open\",\"email\":\"upload.Picture.k13sdz1@u.box.com\"},\"parent\":{\"type\":\"folder\",\"id\":\"0\",\"name\":\"All Files\"},\"item_status\":\"active\",\"item_collection\":{\"entries\":[{\"type\":\"file\",\"id\":\"5000948880\",\"sequence_id\":\"3\",\"etag\":\"3\",\"sha1\":\"134b65991ed521fcfe4724b7d814ab8ded5185dc\",\"name\":\"tigers.jpeg\"}],\"total_count\":1,\"offset\":0,\"limit\":100}}";
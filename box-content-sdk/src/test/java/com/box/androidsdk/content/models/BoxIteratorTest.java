@@ -0,0 +1,64 @@
+package com.box.androidsdk.content.models;
+
+import com.eclipsesource.json.JsonObject;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BoxIteratorTest {
+
+    private static final String ITEMS_JSON = "{\"total_count\":3,\"entries\":[{\"type\":\"folder\",\"id\":\"1\",\"name\":\"a\"},{\"type\":\"file\",\"id\":\"2\",\"name\":\"b\"},{\"type\":\"file\",\"id\":\"3\",\"name\":\"c\"}],\"offset\":0,\"limit\":100}";
+
+    @Test
+    public void testEntriesAreBuiltOnlyWhenRead() {
+        CountingIterator iterator = new CountingIterator();
+        iterator.createFromJson(ITEMS_JSON);
+
+        Assert.assertEquals(3, iterator.size());
+        Assert.assertEquals(0, iterator.mCreated);
+
+        BoxItem second = iterator.get(1);
+        Assert.assertEquals("2", second.getId());
+        Assert.assertEquals(1, iterator.mCreated);
+        Assert.assertSame(second, iterator.get(1));
+        Assert.assertEquals(1, iterator.mCreated);
+
+        int count = 0;
+        for (BoxItem item : iterator) {
+            Assert.assertNotNull(item);
+            count++;
+        }
+        Assert.assertEquals(3, count);
+        Assert.assertEquals(3, iterator.mCreated);
+        Assert.assertSame(second, iterator.getEntries().get(1));
+    }
+
+    @Test
+    public void testCacheResetWhenEntriesChange() {
+        CountingIterator iterator = new CountingIterator();
+        iterator.createFromJson(ITEMS_JSON);
+        Assert.assertEquals("1", iterator.get(0).getId());
+
+        iterator.addInJsonArray(BoxIterator.FIELD_ENTRIES, JsonObject.readFrom("{\"type\":\"file\",\"id\":\"4\",\"name\":\"d\"}"));
+        Assert.assertEquals(4, iterator.size());
+        Assert.assertEquals("4", iterator.get(3).getId());
+    }
+
+    private static class CountingIterator extends BoxIterator<BoxItem> {
+
+        int mCreated = 0;
+
+        private final BoxJsonObjectCreator<BoxItem> mCreator = new BoxJsonObjectCreator<BoxItem>() {
+            @Override
+            public BoxItem createFromJsonObject(JsonObject jsonObject) {
+                mCreated++;
+                return (BoxItem) BoxEntity.createEntityFromJson(jsonObject);
+            }
+        };
+
+        @Override
+        protected BoxJsonObjectCreator<BoxItem> getObjectCreator() {
+            return mCreator;
+        }
+    }
+}
@@ -3,10 +3,13 @@ package com.box.androidsdk.content.requests;
 import android.content.Context;
 
 import com.box.androidsdk.content.BoxApiFile;
+import com.box.androidsdk.content.BoxConfig;
 import com.box.androidsdk.content.BoxException;
+import com.box.androidsdk.content.BoxFutureTask;
 import com.box.androidsdk.content.listeners.DownloadStartListener;
 import com.box.androidsdk.content.listeners.ProgressListener;
 import com.box.androidsdk.content.models.BoxDownload;
+import com.box.androidsdk.content.testUtil.InMemoryHttpTransport;
 import com.box.androidsdk.content.testUtil.PowerMock;
 import com.box.androidsdk.content.testUtil.SessionUtil;
 import com.box.androidsdk.content.utils.SdkUtils;
@@ -15,16 +18,31 @@ import junit.framework.Assert;
 
 import org.junit.Test;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Tests for download requests
@@ -170,6 +188,53 @@ public class BoxDownloadRequestTest extends PowerMock {
         Assert.assertEquals(DOWNLOAD_CONTENT.getBytes().length, mBytesRead);
     }
 
+    @Test
+    public void testCoalescedThumbnailDownloads() throws Exception {
+        final CountDownLatch released = new CountDownLatch(1);
+        InMemoryHttpTransport transport = new InMemoryHttpTransport(new InMemoryHttpTransport.Server() {
+            @Override
+            public void respond(InMemoryHttpTransport.Exchange exchange) {
+                try {
+                    released.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.setResponse(HttpURLConnection.HTTP_OK, DOWNLOAD_CONTENT);
+            }
+        });
+        BoxConfig.setHttpTransport(transport);
+        try {
+            BoxApiFile fileApi = new BoxApiFile(SessionUtil.newMockBoxSession(mMockContext));
+            File target = File.createTempFile("thumbnail", ".png");
+            target.deleteOnExit();
+
+            BoxFutureTask<BoxDownload> first = fileApi.getDownloadThumbnailRequest(target, FILE_ID).setMinSize(64).submit();
+            BoxFutureTask<BoxDownload> second = fileApi.getDownloadThumbnailRequest(target, FILE_ID).setMinSize(64).submit();
+            BoxFutureTask<BoxDownload> otherSize = fileApi.getDownloadThumbnailRequest(target, FILE_ID).setMinSize(128).submit();
+            Assert.assertSame(first, second);
+            Assert.assertNotSame(first, otherSize);
+            final CountDownLatch completed = new CountDownLatch(1);
+            first.addOnCompletedListener(new BoxFutureTask.OnCompletedListener<BoxDownload>() {
+                @Override
+                public void onCompleted(BoxResponse<BoxDownload> response) {
+                    completed.countDown();
+                }
+            });
+            released.countDown();
+            Assert.assertTrue(first.get().isSuccess());
+            Assert.assertTrue(otherSize.get().isSuccess());
+            Assert.assertEquals(2, transport.getExchanges().size());
+
+            // Completed downloads are not shared, get() may return before the listeners of the task are notified.
+            Assert.assertTrue(completed.await(10, TimeUnit.SECONDS));
+            BoxFutureTask<BoxDownload> third = fileApi.getDownloadThumbnailRequest(target, FILE_ID).setMinSize(64).submit();
+            Assert.assertNotSame(first, third);
+            Assert.assertTrue(third.get().isSuccess());
+        } finally {
+            BoxConfig.setHttpTransport(null);
+        }
+    }
+
     @Test
     public void testCorruptedDownloadFileSha1Checks() throws Exception {
         BoxApiFile fileApi = new BoxApiFile(SessionUtil.newMockBoxSession(mMockContext));
@@ -218,4 +283,343 @@ public class BoxDownloadRequestTest extends PowerMock {
         }
 
     }
+
+    @Test
+    public void testParallelDownloadFileRequest() throws Exception {
+        BoxApiFile fileApi = new BoxApiFile(SessionUtil.newMockBoxSession(mMockContext));
+        final byte[] content = new byte[(int) (3.5 * BoxParallelDownload.MIN_RANGE_SIZE)];
+        new Random(7).nextBytes(content);
+        final List<String> ranges = new CopyOnWriteArrayList<String>();
+
+        //Mock a server that honours range requests
+        URL u = PowerMockito.mock(URL.class);
+        PowerMockito.whenNew(URL.class).withAnyArguments().thenReturn(u);
+        PowerMockito.when(u.openConnection()).thenAnswer(new Answer<HttpURLConnection>() {
+            @Override
+            public HttpURLConnection answer(InvocationOnMock invocation) throws Throwable {
+                return new RangeConnection(content, ranges);
+            }
+        });
+
+        File target = File.createTempFile("parallel", ".bin");
+        target.deleteOnExit();
+        final AtomicLong progress = new AtomicLong();
+        BoxRequestsFile.DownloadFile downloadFileRequest = fileApi.getDownloadRequest(target, FILE_ID)
+                .setParallelConnections(4)
+                .setSha1(SdkUtils.sha1(new ByteArrayInputStream(content)))
+                .setProgressListener(new ProgressListener() {
+                    @Override
+                    public void onProgressChanged(long numBytes, long totalBytes) {
+                        progress.set(Math.max(progress.get(), numBytes));
+                    }
+                });
+        Assert.assertEquals(4, downloadFileRequest.getParallelConnections());
+
+        BoxDownload download = downloadFileRequest.send();
+        Assert.assertEquals(content.length, download.getContentLength().longValue());
+        Assert.assertEquals(target, download.getOutputFile());
+        Assert.assertEquals(content.length, progress.get());
+
+        // One range to discover the size, the remaining 2.5 MB split over three connections.
+        Collections.sort(ranges);
+        Assert.assertEquals(Arrays.asList("bytes=0-1048575", "bytes=1048576-1922389", "bytes=1922390-2796203",
+                "bytes=2796204-3670015"), ranges);
+
+        Assert.assertTrue(Arrays.equals(content, readFile(target)));
+    }
+
+    @Test
+    public void testParallelDownloadEmptyFile() throws Exception {
+        BoxApiFile fileApi = new BoxApiFile(SessionUtil.newMockBoxSession(mMockContext));
+        final List<String> ranges = new CopyOnWriteArrayList<String>();
+
+        //Mock a server that honours range requests for an empty file
+        URL u = PowerMockito.mock(URL.class);
+        PowerMockito.whenNew(URL.class).withAnyArguments().thenReturn(u);
+        PowerMockito.when(u.openConnection()).thenAnswer(new Answer<HttpURLConnection>() {
+            @Override
+            public HttpURLConnection answer(InvocationOnMock invocation) throws Throwable {
+                return new RangeConnection(new byte[0], ranges);
+            }
+        });
+
+        File target = File.createTempFile("parallel", ".bin");
+        target.deleteOnExit();
+        FileOutputStream previous = new FileOutputStream(target);
+        previous.write(new byte[]{1, 2, 3});
+        previous.close();
+
+        BoxDownload download = fileApi.getDownloadRequest(target, FILE_ID)
+                .setParallelConnections(4)
+                .setSha1(SdkUtils.sha1(new ByteArrayInputStream(new byte[0])))
+                .send();
+        Assert.assertEquals(0, download.getContentLength().longValue());
+        Assert.assertEquals(Arrays.asList("bytes=0-1048575"), ranges);
+        Assert.assertTrue(target.exists());
+        Assert.assertEquals(0, target.length());
+    }
+
+    @Test
+    public void testParallelDownloadFailsWhenFileChanges() throws Exception {
+        BoxApiFile fileApi = new BoxApiFile(SessionUtil.newMockBoxSession(mMockContext));
+        final byte[] content = new byte[(int) (2.5 * BoxParallelDownload.MIN_RANGE_SIZE)];
+        new Random(5).nextBytes(content);
+        final List<String> ranges = new CopyOnWriteArrayList<String>();
+        final List<String> ifRanges = new CopyOnWriteArrayList<String>();
+
+        //Mock a server whose file gets a new version once the first range has been returned
+        URL u = PowerMockito.mock(URL.class);
+        PowerMockito.whenNew(URL.class).withAnyArguments().thenReturn(u);
+        PowerMockito.when(u.openConnection()).thenAnswer(new Answer<HttpURLConnection>() {
+            int mConnections = 0;
+
+            @Override
+            public HttpURLConnection answer(InvocationOnMock invocation) throws Throwable {
+                RangeConnection connection = new RangeConnection(content, ranges);
+                connection.mIfRanges = ifRanges;
+                if (mConnections++ > 0) {
+                    connection.mEtag = "\"2\"";
+                }
+                return connection;
+            }
+        });
+
+        File target = File.createTempFile("parallel", ".bin");
+        try {
+            fileApi.getDownloadRequest(target, FILE_ID).setParallelConnections(2).send();
+            Assert.fail("Download of a file changing during the download should fail");
+        } catch (BoxException e) {
+            // expected
+        }
+        Assert.assertFalse(ifRanges.isEmpty());
+        for (String ifRange : ifRanges) {
+            Assert.assertEquals(RangeConnection.ETAG, ifRange);
+        }
+        Assert.assertFalse(target.exists());
+    }
+
+    @Test
+    public void testResumableDownloadFileRequest() throws Exception {
+        BoxApiFile fileApi = new BoxApiFile(SessionUtil.newMockBoxSession(mMockContext));
+        final byte[] content = new byte[3 * 1024 * 1024];
+        new Random(11).nextBytes(content);
+        final int failAfter = 1536 * 1024;
+        final List<String> ranges = new CopyOnWriteArrayList<String>();
+        final List<String> ifRanges = new CopyOnWriteArrayList<String>();
+
+        //Mock a server whose first response is cut off part way
+        URL u = PowerMockito.mock(URL.class);
+        PowerMockito.whenNew(URL.class).withAnyArguments().thenReturn(u);
+        PowerMockito.when(u.openConnection()).thenAnswer(new Answer<HttpURLConnection>() {
+            int mConnections = 0;
+
+            @Override
+            public HttpURLConnection answer(InvocationOnMock invocation) throws Throwable {
+                RangeConnection connection = new RangeConnection(content, ranges);
+                connection.mIfRanges = ifRanges;
+                connection.mFailAfter = mConnections++ == 0 ? failAfter : -1;
+                return connection;
+            }
+        });
+
+        File target = File.createTempFile("resumable", ".bin");
+        target.deleteOnExit();
+        File stateFile = BoxDownloadResumeState.getStateFile(target);
+        stateFile.deleteOnExit();
+        String sha1 = SdkUtils.sha1(new ByteArrayInputStream(content));
+
+        try {
+            fileApi.getDownloadRequest(target, FILE_ID).setResumable(true).setSha1(sha1).send();
+            Assert.fail("Interrupted download should fail");
+        } catch (BoxException e) {
+            // expected
+        }
+        Assert.assertTrue(stateFile.exists());
+        Assert.assertEquals(failAfter, target.length());
+
+        BoxRequestsFile.DownloadFile resumed = fileApi.getDownloadRequest(target, FILE_ID).setResumable(true).setSha1(sha1);
+        Assert.assertTrue(resumed.isResumable());
+        BoxDownload download = resumed.send();
+        Assert.assertEquals(content.length - failAfter, download.getContentLength().longValue());
+        Assert.assertEquals(Arrays.asList("bytes=" + failAfter + "-"), ranges);
+        Assert.assertEquals(Arrays.asList(RangeConnection.ETAG), ifRanges);
+        Assert.assertFalse(stateFile.exists());
+        Assert.assertTrue(Arrays.equals(content, readFile(target)));
+    }
+
+    @Test
+    public void testResumableDownloadDiscardsUntrustedProgress() throws Exception {
+        BoxApiFile fileApi = new BoxApiFile(SessionUtil.newMockBoxSession(mMockContext));
+        final byte[] content = new byte[3 * 1024 * 1024];
+        new Random(13).nextBytes(content);
+        final int failAfter = 1536 * 1024;
+        final List<String> ranges = new CopyOnWriteArrayList<String>();
+
+        //Mock a server whose first response is cut off part way and whose second one ignores the requested offset
+        URL u = PowerMockito.mock(URL.class);
+        PowerMockito.whenNew(URL.class).withAnyArguments().thenReturn(u);
+        PowerMockito.when(u.openConnection()).thenAnswer(new Answer<HttpURLConnection>() {
+            int mConnections = 0;
+
+            @Override
+            public HttpURLConnection answer(InvocationOnMock invocation) throws Throwable {
+                RangeConnection connection = new RangeConnection(content, ranges);
+                if (mConnections == 0) {
+                    connection.mFailAfter = failAfter;
+                } else if (mConnections == 1) {
+                    connection.mServedStart = 0;
+                }
+                mConnections++;
+                return connection;
+            }
+        });
+
+        File target = File.createTempFile("resumable", ".bin");
+        target.deleteOnExit();
+        File stateFile = BoxDownloadResumeState.getStateFile(target);
+        stateFile.deleteOnExit();
+        String sha1 = SdkUtils.sha1(new ByteArrayInputStream(content));
+
+        try {
+            fileApi.getDownloadRequest(target, FILE_ID).setResumable(true).setSha1(sha1).send();
+            Assert.fail("Interrupted download should fail");
+        } catch (BoxException e) {
+            // expected
+        }
+        Assert.assertTrue(stateFile.exists());
+
+        // A range starting anywhere but the saved offset is never written to the target.
+        try {
+            fileApi.getDownloadRequest(target, FILE_ID).setResumable(true).setSha1(sha1).send();
+            Assert.fail("Download of an unexpected range should fail");
+        } catch (BoxException e) {
+            // expected
+        }
+        Assert.assertFalse(stateFile.exists());
+        Assert.assertEquals(failAfter, target.length());
+
+        // Without saved progress a download whose sha1 does not match leaves nothing to resume from.
+        try {
+            fileApi.getDownloadRequest(target, FILE_ID).setResumable(true).setSha1("wrongsha1").send();
+            Assert.fail("Download with a wrong sha1 should fail");
+        } catch (BoxException e) {
+            Assert.assertEquals(BoxException.ErrorType.CORRUPTED_FILE_TRANSFER, e.getErrorType());
+        }
+        Assert.assertFalse(stateFile.exists());
+        Assert.assertEquals(Arrays.asList("bytes=" + failAfter + "-"), ranges);
+
+        fileApi.getDownloadRequest(target, FILE_ID).setResumable(true).setSha1(sha1).send();
+        Assert.assertTrue(Arrays.equals(content, readFile(target)));
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        InputStream input = new FileInputStream(file);
+        int read = 0;
+        while (read < bytes.length) {
+            read += input.read(bytes, read, bytes.length - read);
+        }
+        input.close();
+        return bytes;
+    }
+
+    /**
+     * Connection serving a byte range of the given content based on the Range request header.
+     */
+    private static class RangeConnection extends HttpURLConnection {
+
+        static final String ETAG = "\"1\"";
+
+        private final byte[] mContent;
+        private final List<String> mRanges;
+        List<String> mIfRanges;
+        String mEtag = ETAG;
+        int mFailAfter = -1;
+        long mServedStart = -1;
+        private long mStart = 0;
+        private long mEnd;
+
+        RangeConnection(byte[] content, List<String> ranges) {
+            super(null);
+            mContent = content;
+            mRanges = ranges;
+            mEnd = content.length - 1;
+        }
+
+        @Override
+        public void connect() throws IOException {
+            String range = getRequestProperty("Range");
+            if (range != null) {
+                Assert.assertEquals("identity", getRequestProperty("Accept-Encoding"));
+                mRanges.add(range);
+                if (mIfRanges != null && getRequestProperty("If-Range") != null) {
+                    mIfRanges.add(getRequestProperty("If-Range"));
+                }
+                String[] bounds = range.substring("bytes=".length()).split("-");
+                mStart = Long.parseLong(bounds[0]);
+                if (bounds.length > 1) {
+                    mEnd = Math.min(Long.parseLong(bounds[1]), mContent.length - 1);
+                }
+                if (mServedStart >= 0) {
+                    mStart = mServedStart;
+                }
+            }
+        }
+
+        @Override
+        public int getResponseCode() {
+            if (getRequestProperty("Range") == null) {
+                return HTTP_OK;
+            }
+            return mStart >= mContent.length ? 416 : HTTP_PARTIAL;
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/octet-stream";
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            if ("Content-Length".equals(name)) {
+                return Long.toString(mEnd - mStart + 1);
+            }
+            if ("Content-Range".equals(name) && getRequestProperty("Range") != null && mStart >= mContent.length) {
+                return "bytes */" + mContent.length;
+            }
+            if ("Content-Range".equals(name) && getRequestProperty("Range") != null) {
+                return "bytes " + mStart + "-" + mEnd + "/" + mContent.length;
+            }
+            if ("ETag".equals(name)) {
+                return mEtag;
+            }
+            return null;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new FilterInputStream(new ByteArrayInputStream(mContent, (int) mStart, (int) (mEnd - mStart + 1))) {
+                private int mRead = 0;
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (mFailAfter >= 0 && mRead >= mFailAfter) {
+                        throw new IOException("Connection reset");
+                    }
+                    int read = super.read(b, off, len);
+                    mRead += Math.max(read, 0);
+                    return read;
+                }
+            };
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+    }
 }
@@ -3,12 +3,14 @@ package com.box.androidsdk.content.requests;
 import android.content.Context;
 
 import com.box.androidsdk.content.BoxApiFolder;
+import com.box.androidsdk.content.BoxConfig;
 import com.box.androidsdk.content.BoxException;
 import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxIteratorCollaborations;
 import com.box.androidsdk.content.models.BoxIteratorItems;
 import com.box.androidsdk.content.models.BoxSharedLink;
 import com.box.androidsdk.content.models.BoxUploadEmail;
+import com.box.androidsdk.content.testUtil.InMemoryHttpTransport;
 import com.box.androidsdk.content.testUtil.PowerMock;
 import com.box.androidsdk.content.testUtil.SessionUtil;
 import com.box.androidsdk.content.utils.BoxDateFormat;
@@ -22,11 +24,16 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.InvocationTargetException;
+import java.net.HttpURLConnection;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 @PrepareForTest({ BoxHttpResponse.class, BoxHttpRequest.class, BoxRequest.class, BoxRequestsFolder.class})
 public class BoxFolderRequestTest extends PowerMock {
@@ -99,6 +106,70 @@ public class BoxFolderRequestTest extends PowerMock {
 
     }
 
+    @Test
+    public void testFolderItemsCursor() throws Exception {
+        final String itemsMarkerSampleJson = "{ \"entries\": [ { \"type\": \"folder\", \"id\": \"192429928\", \"sequence_id\": \"1\", \"etag\": \"1\", \"name\": \"Stephen Curry Three Pointers\" }, { \"type\": \"file\", \"id\": \"818853862\", \"sequence_id\": \"0\", \"etag\": \"0\", \"name\": \"Warriors.jpg\" } ], \"limit\": 2, \"next_marker\": null }";
+
+        BoxApiFolder folderApi = new BoxApiFolder(SessionUtil.newMockBoxSession(mMockContext));
+        mockSuccessResponseWithJson(itemsMarkerSampleJson);
+        BoxFolderItemsCursor cursor = folderApi.getItemsCursor(FOLDER_ID);
+
+        List<String> ids = new ArrayList<String>();
+        while (cursor.hasNext()) {
+            ids.add(cursor.next().getId());
+        }
+        cursor.close();
+
+        Assert.assertEquals(1, cursor.getPageCount());
+        Assert.assertEquals(2, ids.size());
+        Assert.assertEquals("192429928", ids.get(0));
+        Assert.assertEquals("818853862", ids.get(1));
+    }
+
+    @Test
+    public void testFolderItemsCursorPages() throws Exception {
+        final Map<String, String> pages = new HashMap<String, String>();
+        pages.put("", createItemsPage(new String[]{"1", "2"}, "marker2"));
+        pages.put("marker2", createItemsPage(new String[]{"3", "4"}, "marker3"));
+        pages.put("marker3", createItemsPage(new String[]{"5"}, null));
+        final CountDownLatch secondPageRequested = new CountDownLatch(1);
+        InMemoryHttpTransport transport = new InMemoryHttpTransport(new InMemoryHttpTransport.Server() {
+            @Override
+            public void respond(InMemoryHttpTransport.Exchange exchange) {
+                String marker = getMarker(exchange);
+                if (marker.equals("marker2")) {
+                    secondPageRequested.countDown();
+                }
+                exchange.setResponse(HttpURLConnection.HTTP_OK, pages.get(marker));
+            }
+        });
+        BoxConfig.setHttpTransport(transport);
+        try {
+            BoxApiFolder folderApi = new BoxApiFolder(SessionUtil.newMockBoxSession(mMockContext));
+            BoxFolderItemsCursor cursor = folderApi.getItemsCursor(FOLDER_ID);
+
+            List<String> ids = new ArrayList<String>();
+            Assert.assertTrue(cursor.hasNext());
+            // The second page is requested while the first one has not been consumed yet.
+            Assert.assertTrue(secondPageRequested.await(10, TimeUnit.SECONDS));
+            while (cursor.hasNext()) {
+                ids.add(cursor.next().getId());
+            }
+            cursor.close();
+
+            Assert.assertEquals("[1, 2, 3, 4, 5]", ids.toString());
+            Assert.assertEquals(3, cursor.getPageCount());
+            // No request is sent once a page comes back without a next marker.
+            List<InMemoryHttpTransport.Exchange> exchanges = transport.getExchanges();
+            Assert.assertEquals(3, exchanges.size());
+            Assert.assertEquals("", getMarker(exchanges.get(0)));
+            Assert.assertEquals("marker2", getMarker(exchanges.get(1)));
+            Assert.assertEquals("marker3", getMarker(exchanges.get(2)));
+        } finally {
+            BoxConfig.setHttpTransport(null);
+        }
+    }
+
     @Test
     public void testCreateFolderRequest() throws Exception {
         final String expectedRequestUrl = "https://api.box.com/2.0/folders";
@@ -206,7 +277,27 @@ public class BoxFolderRequestTest extends PowerMock {
 
     }
 
+    private static String getMarker(InMemoryHttpTransport.Exchange exchange) {
+        for (String parameter : exchange.getUrl().getQuery().split("&")) {
+            if (parameter.startsWith("marker=")) {
+                return parameter.substring("marker=".length());
+            }
+        }
+        return "";
+    }
 
-
-
-}
\ No newline at end of file
+    private static String createItemsPage(String[] fileIds, String nextMarker) {
+        StringBuilder sb = new StringBuilder("{ \"entries\": [");
+        for (int i = 0; i < fileIds.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("{ \"type\": \"file\", \"id\": \"").append(fileIds[i]).append("\", \"name\": \"").append(fileIds[i]).append(".jpg\" }");
+        }
+        sb.append(" ], \"limit\": 2");
+        if (nextMarker != null) {
+            sb.append(", \"next_marker\": \"").append(nextMarker).append("\"");
+        }
+        return sb.append(" }").toString();
+    }
+}
@@ -0,0 +1,183 @@
+package com.box.androidsdk.content.requests;
+
+import junit.framework.Assert;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Tests for writing request bodies through BoxHttpRequest. Also holds a small benchmark comparing the legacy byte at a
+ * time copy against the buffered and fixed length body writers, ignored by default and run on demand.
+ */
+public class BoxHttpRequestTest {
+
+    private static final int[] BENCHMARK_SIZES = {1024, 64 * 1024, 1024 * 1024};
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int BENCHMARK_ITERATIONS = 20;
+
+    @Test
+    public void testSetBodyFromBytes() throws Exception {
+        byte[] body = randomBytes(64 * 1024 + 17);
+        CapturingConnection connection = newConnection();
+        new BoxHttpRequest(connection.getURL(), BoxRequest.Methods.PUT, null).setBody(body);
+
+        Assert.assertTrue(connection.getDoOutput());
+        Assert.assertEquals(body.length, connection.mFixedLength);
+        Assert.assertTrue(connection.mOutput.mClosed);
+        Assert.assertTrue(Arrays.equals(body, connection.mOutput.toByteArray()));
+    }
+
+    @Test
+    public void testSetBodyFromStream() throws Exception {
+        byte[] body = randomBytes(64 * 1024 + 17);
+        CapturingConnection connection = newConnection();
+        new BoxHttpRequest(connection.getURL(), BoxRequest.Methods.PUT, null).setBody(new ByteArrayInputStream(body));
+
+        Assert.assertTrue(connection.getDoOutput());
+        Assert.assertEquals(-1, connection.mFixedLength);
+        Assert.assertTrue(connection.mOutput.mClosed);
+        Assert.assertTrue(Arrays.equals(body, connection.mOutput.toByteArray()));
+    }
+
+    @Test
+    @Ignore("Benchmark, run on demand")
+    public void benchmarkSetBody() throws Exception {
+        for (int size : BENCHMARK_SIZES) {
+            byte[] body = randomBytes(size);
+            long legacy = timeLegacyCopy(body);
+            long stream = timeStreamBody(body);
+            long bytes = timeByteArrayBody(body);
+            System.out.println(String.format(Locale.ENGLISH,
+                    "setBody %7d bytes: legacy byte copy %8d us, buffered stream %8d us, fixed length bytes %8d us",
+                    size, legacy / 1000, stream / 1000, bytes / 1000));
+        }
+    }
+
+    private static long timeLegacyCopy(byte[] body) throws IOException {
+        long total = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS + BENCHMARK_ITERATIONS; i++) {
+            CapturingConnection connection = newConnection();
+            long start = System.nanoTime();
+            // The pre-existing implementation of BoxHttpRequest.setBody(InputStream).
+            InputStream input = new ByteArrayInputStream(body);
+            connection.setDoOutput(true);
+            OutputStream output = connection.getOutputStream();
+            int b = input.read();
+            while (b != -1) {
+                output.write(b);
+                b = input.read();
+            }
+            output.close();
+            if (i >= WARMUP_ITERATIONS) {
+                total += System.nanoTime() - start;
+            }
+        }
+        return total / BENCHMARK_ITERATIONS;
+    }
+
+    private static long timeStreamBody(byte[] body) throws IOException {
+        long total = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS + BENCHMARK_ITERATIONS; i++) {
+            CapturingConnection connection = newConnection();
+            BoxHttpRequest request = new BoxHttpRequest(connection.getURL(), BoxRequest.Methods.PUT, null);
+            long start = System.nanoTime();
+            request.setBody(new ByteArrayInputStream(body));
+            if (i >= WARMUP_ITERATIONS) {
+                total += System.nanoTime() - start;
+            }
+        }
+        return total / BENCHMARK_ITERATIONS;
+    }
+
+    private static long timeByteArrayBody(byte[] body) throws IOException {
+        long total = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS + BENCHMARK_ITERATIONS; i++) {
+            CapturingConnection connection = newConnection();
+            BoxHttpRequest request = new BoxHttpRequest(connection.getURL(), BoxRequest.Methods.PUT, null);
+            long start = System.nanoTime();
+            request.setBody(body);
+            if (i >= WARMUP_ITERATIONS) {
+                total += System.nanoTime() - start;
+            }
+        }
+        return total / BENCHMARK_ITERATIONS;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static CapturingConnection newConnection() throws IOException {
+        final CapturingConnection[] holder = new CapturingConnection[1];
+        URL url = new URL("http", "localhost", 80, "/body", new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(URL u) throws IOException {
+                return holder[0];
+            }
+        });
+        holder[0] = new CapturingConnection(url);
+        return holder[0];
+    }
+
+    /**
+     * Connection that records everything written to its output stream instead of sending it.
+     */
+    private static class CapturingConnection extends HttpURLConnection {
+
+        final ClosableByteArrayOutputStream mOutput = new ClosableByteArrayOutputStream();
+        int mFixedLength = -1;
+
+        CapturingConnection(URL url) {
+            super(url);
+        }
+
+        @Override
+        public void setFixedLengthStreamingMode(int contentLength) {
+            mFixedLength = contentLength;
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            return mOutput;
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+
+        @Override
+        public void connect() throws IOException {
+        }
+    }
+
+    private static class ClosableByteArrayOutputStream extends ByteArrayOutputStream {
+
+        boolean mClosed = false;
+
+        @Override
+        public void close() throws IOException {
+            mClosed = true;
+            super.close();
+        }
+    }
+}
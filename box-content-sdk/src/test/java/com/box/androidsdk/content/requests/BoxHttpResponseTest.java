@@ -0,0 +1,134 @@
+package com.box.androidsdk.content.requests;
+
+import com.box.androidsdk.content.models.BoxIteratorEvents;
+import com.eclipsesource.json.JsonObject;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tests for parsing json response bodies through BoxHttpResponse.
+ */
+public class BoxHttpResponseTest {
+
+    private static final String EVENT_JSON = "{\"type\":\"event\",\"event_id\":\"f82c3ba03e41f7e8a7608363cc6c0390183c3f83-%d\",\"created_by\":{\"type\":\"user\",\"id\":\"17738362\",\"name\":\"sean rose\",\"login\":\"sean@box.com\"},\"created_at\":\"2012-12-12T10:53:43-08:00\",\"recorded_at\":\"2012-12-12T10:53:48-08:00\",\"event_type\":\"ITEM_CREATE\",\"session_id\":\"70090280850c8d2a1933c1\",\"source\":{\"type\":\"folder\",\"id\":\"%d\",\"sequence_id\":\"0\",\"etag\":\"0\",\"name\":\"Folder %d\"}}";
+
+    @Test
+    public void testJsonObjectBodyFromStream() throws Exception {
+        String json = createEventsJson(16 * 1024);
+        BoxHttpResponse response = createResponse(json.getBytes("UTF-8"), null);
+
+        JsonObject body = response.getJsonObjectBody();
+        Assert.assertEquals(json, body.toString());
+    }
+
+    @Test
+    public void testJsonObjectBodyFromGzipStream() throws Exception {
+        String json = createEventsJson(16 * 1024);
+        BoxHttpResponse response = createResponse(gzip(json.getBytes("UTF-8")), "gzip");
+
+        BoxIteratorEvents events = new BoxIteratorEvents();
+        events.createFromJson(response.getJsonObjectBody());
+        Assert.assertEquals(json, events.toJson());
+    }
+
+    @Test
+    public void testJsonObjectBodyAfterStringBody() throws Exception {
+        String json = createEventsJson(1024);
+        BoxHttpResponse response = createResponse(json.getBytes("UTF-8"), null);
+
+        Assert.assertEquals(json, response.getStringBody());
+        Assert.assertEquals(json, response.getJsonObjectBody().toString());
+    }
+
+    private static String createEventsJson(int approximateSize) {
+        StringBuilder builder = new StringBuilder(approximateSize + 1024);
+        builder.append("{\"chunk_size\":0,\"next_stream_position\":\"1348790499819\",\"entries\":[");
+        int count = 0;
+        while (builder.length() < approximateSize) {
+            if (count > 0) {
+                builder.append(',');
+            }
+            builder.append(String.format(Locale.ENGLISH, EVENT_JSON, count, count, count));
+            count++;
+        }
+        builder.append("]}");
+        return builder.toString();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(output);
+        gzip.write(bytes);
+        gzip.close();
+        return output.toByteArray();
+    }
+
+    private static BoxHttpResponse createResponse(byte[] body, String contentEncoding) throws IOException {
+        BoxHttpResponse response = new BoxHttpResponse(new StaticConnection(body, contentEncoding));
+        response.open();
+        return response;
+    }
+
+    /**
+     * Connection that returns a fixed json body.
+     */
+    private static class StaticConnection extends HttpURLConnection {
+
+        private final byte[] mBody;
+        private final String mContentEncoding;
+        private InputStream mInputStream;
+
+        StaticConnection(byte[] body, String contentEncoding) throws IOException {
+            super(new URL("http://localhost/events"));
+            mBody = body;
+            mContentEncoding = contentEncoding;
+        }
+
+        @Override
+        public int getResponseCode() throws IOException {
+            return HTTP_OK;
+        }
+
+        @Override
+        public String getContentType() {
+            return BoxRequest.ContentTypes.JSON.toString();
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return mContentEncoding;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            if (mInputStream == null) {
+                mInputStream = new ByteArrayInputStream(mBody);
+            }
+            return mInputStream;
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+
+        @Override
+        public void connect() throws IOException {
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.box.androidsdk.content.requests;
+
+import android.content.Context;
+
+import com.box.androidsdk.content.BoxApiUser;
+import com.box.androidsdk.content.BoxConfig;
+import com.box.androidsdk.content.BoxException;
+import com.box.androidsdk.content.models.BoxUser;
+import com.box.androidsdk.content.testUtil.InMemoryHttpTransport;
+import com.box.androidsdk.content.testUtil.PowerMock;
+import com.box.androidsdk.content.testUtil.SessionUtil;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.net.HttpURLConnection;
+
+/**
+ * Tests for sending requests through a transport configured in {@link BoxConfig}.
+ */
+public class BoxHttpTransportTest extends PowerMock {
+
+    private static final String SAMPLE_USER_JSON = "{\"type\":\"user\",\"id\":\"10543463\",\"name\":\"Arielle Frey\",\"login\":\"ariellefrey@box.com\"}";
+
+    @Mock
+    Context mMockContext;
+
+    @After
+    public void resetTransport() {
+        BoxConfig.setHttpTransport(null);
+    }
+
+    @Test
+    public void testRequestSentThroughTransport() throws Exception {
+        InMemoryHttpTransport transport = InMemoryHttpTransport.respondingWith(HttpURLConnection.HTTP_OK, SAMPLE_USER_JSON);
+        BoxConfig.setHttpTransport(transport);
+        BoxApiUser userApi = new BoxApiUser(SessionUtil.newMockBoxSession(mMockContext));
+
+        BoxUser user = userApi.getCurrentUserInfoRequest().send();
+        Assert.assertEquals("10543463", user.getId());
+        Assert.assertEquals(1, transport.getExchanges().size());
+        InMemoryHttpTransport.Exchange exchange = transport.getExchanges().get(0);
+        Assert.assertEquals("GET", exchange.getMethod());
+        Assert.assertTrue(exchange.getUrl().getPath().endsWith("/users/me"));
+        Assert.assertNotNull(exchange.getRequestHeader("Authorization"));
+        Assert.assertEquals(0, transport.getOpenConnections());
+    }
+
+    @Test
+    public void testConnectionReleasedOnError() throws Exception {
+        InMemoryHttpTransport transport = InMemoryHttpTransport.respondingWith(HttpURLConnection.HTTP_NOT_FOUND,
+                "{\"type\":\"error\",\"status\":404,\"code\":\"not_found\"}");
+        BoxConfig.setHttpTransport(transport);
+        BoxApiUser userApi = new BoxApiUser(SessionUtil.newMockBoxSession(mMockContext));
+
+        try {
+            userApi.getUserInfoRequest("10543463").send();
+            Assert.fail("Request should have failed");
+        } catch (BoxException e) {
+            Assert.assertEquals(HttpURLConnection.HTTP_NOT_FOUND, e.getResponseCode());
+        }
+        Assert.assertEquals(0, transport.getOpenConnections());
+    }
+}
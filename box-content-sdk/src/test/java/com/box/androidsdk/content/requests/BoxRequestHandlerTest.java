@@ -0,0 +1,62 @@
+package com.box.androidsdk.content.requests;
+
+import android.content.Context;
+
+import com.box.androidsdk.content.BoxApiUser;
+import com.box.androidsdk.content.BoxConfig;
+import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.models.BoxUser;
+import com.box.androidsdk.content.testUtil.InMemoryHttpTransport;
+import com.box.androidsdk.content.testUtil.PowerMock;
+import com.box.androidsdk.content.testUtil.SessionUtil;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.net.HttpURLConnection;
+
+/**
+ * Tests for the handling of failed requests by {@link BoxRequest.BoxRequestHandler}.
+ */
+public class BoxRequestHandlerTest extends PowerMock {
+
+    private static final String SAMPLE_USER_JSON = "{\"type\":\"user\",\"id\":\"10543463\",\"name\":\"Arielle Frey\",\"login\":\"ariellefrey@box.com\"}";
+
+    @Mock
+    Context mMockContext;
+
+    @After
+    public void resetTransport() {
+        BoxConfig.setHttpTransport(null);
+    }
+
+    @Test
+    public void testRetryWithTokenRefreshedInFlight() throws Exception {
+        final BoxSession session = SessionUtil.newMockBoxSession(mMockContext);
+        InMemoryHttpTransport transport = new InMemoryHttpTransport(new InMemoryHttpTransport.Server() {
+            @Override
+            public void respond(InMemoryHttpTransport.Exchange exchange) {
+                if ("Bearer refreshedToken".equals(exchange.getRequestHeader("Authorization"))) {
+                    exchange.setResponse(HttpURLConnection.HTTP_OK, SAMPLE_USER_JSON);
+                    return;
+                }
+                // Another request refreshes the session while this one is rejected with the old token.
+                session.getAuthInfo().setAccessToken("refreshedToken");
+                exchange.setResponse(HttpURLConnection.HTTP_UNAUTHORIZED, "{\"type\":\"error\",\"status\":401}")
+                        .setResponseHeader("WWW-Authenticate", "Bearer realm=\"Service\", error=\"invalid_token\"");
+            }
+        });
+        BoxConfig.setHttpTransport(transport);
+
+        BoxRequestsUser.GetUserInfo request = new BoxApiUser(session).getCurrentUserInfoRequest();
+        BoxUser user = request.send();
+        Assert.assertEquals("10543463", user.getId());
+        Assert.assertEquals(2, transport.getExchanges().size());
+        Assert.assertEquals("Bearer accessTokenMock", transport.getExchanges().get(0).getRequestHeader("Authorization"));
+        // The request is sent again with the new token without refreshing the session a second time.
+        Assert.assertEquals(0, request.getRequestHandler().getAuthRefreshes());
+    }
+}
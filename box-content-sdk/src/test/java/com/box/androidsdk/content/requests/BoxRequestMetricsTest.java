@@ -0,0 +1,115 @@
+package com.box.androidsdk.content.requests;
+
+import android.content.Context;
+
+import com.box.androidsdk.content.BoxApiFile;
+import com.box.androidsdk.content.BoxApiUser;
+import com.box.androidsdk.content.BoxConfig;
+import com.box.androidsdk.content.BoxConstants;
+import com.box.androidsdk.content.listeners.RequestMetricsListener;
+import com.box.androidsdk.content.testUtil.InMemoryHttpTransport;
+import com.box.androidsdk.content.testUtil.PowerMock;
+import com.box.androidsdk.content.testUtil.SessionUtil;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.net.HttpURLConnection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the metrics reported to the {@link RequestMetricsListener} set in {@link BoxConfig}.
+ */
+public class BoxRequestMetricsTest extends PowerMock {
+
+    private static final String SAMPLE_USER_JSON = "{\"type\":\"user\",\"id\":\"10543463\",\"name\":\"Arielle Frey\",\"login\":\"ariellefrey@box.com\"}";
+    private static final String SAMPLE_FILE_JSON = "{\"type\":\"file\",\"id\":\"5000948880\",\"name\":\"renamed.txt\"}";
+
+    @Mock
+    Context mMockContext;
+
+    private final List<BoxRequestMetrics> mMetrics = new CopyOnWriteArrayList<BoxRequestMetrics>();
+
+    @Before
+    public void setListener() {
+        BoxConfig.setRequestMetricsListener(new RequestMetricsListener() {
+            @Override
+            public void onRequestCompleted(BoxRequestMetrics metrics) {
+                mMetrics.add(metrics);
+            }
+        });
+    }
+
+    @After
+    public void reset() {
+        BoxConfig.setRequestMetricsListener(null);
+        BoxConfig.setHttpTransport(null);
+    }
+
+    @Test
+    public void testMetricsOfGetRequest() throws Exception {
+        BoxConfig.setHttpTransport(InMemoryHttpTransport.respondingWith(HttpURLConnection.HTTP_OK, SAMPLE_USER_JSON));
+        new BoxApiUser(SessionUtil.newMockBoxSession(mMockContext)).getCurrentUserInfoRequest().send();
+
+        Assert.assertEquals(1, mMetrics.size());
+        BoxRequestMetrics metrics = mMetrics.get(0);
+        Assert.assertEquals(BoxRequestsUser.GetUserInfo.class, metrics.getRequestClass());
+        Assert.assertEquals(BoxRequest.Methods.GET, metrics.getMethod());
+        Assert.assertTrue(metrics.getUrl().endsWith("/users/me"));
+        Assert.assertTrue(metrics.isSuccess());
+        Assert.assertEquals(HttpURLConnection.HTTP_OK, metrics.getResponseCode());
+        Assert.assertEquals(0, metrics.getBytesSent());
+        Assert.assertEquals(SAMPLE_USER_JSON.length(), metrics.getBytesReceived());
+        Assert.assertEquals(0, metrics.getRateLimitRetries());
+        Assert.assertEquals(0, metrics.getAuthRefreshes());
+        Assert.assertEquals(metrics.getTotalTimeNanos(),
+                metrics.getRequestTimeNanos() + metrics.getResponseTimeNanos() + metrics.getProcessingTimeNanos());
+    }
+
+    @Test
+    public void testMetricsOfRequestWithBody() throws Exception {
+        InMemoryHttpTransport transport = InMemoryHttpTransport.respondingWith(HttpURLConnection.HTTP_OK, SAMPLE_FILE_JSON);
+        BoxConfig.setHttpTransport(transport);
+        new BoxApiFile(SessionUtil.newMockBoxSession(mMockContext)).getUpdateRequest("5000948880")
+                .setName("renamed.txt")
+                .send();
+
+        Assert.assertEquals(1, mMetrics.size());
+        BoxRequestMetrics metrics = mMetrics.get(0);
+        Assert.assertEquals(BoxRequestsFile.UpdateFile.class, metrics.getRequestClass());
+        Assert.assertEquals(BoxRequest.Methods.PUT, metrics.getMethod());
+        Assert.assertEquals(transport.getExchanges().get(0).getRequestBody().length, metrics.getBytesSent());
+        Assert.assertTrue(metrics.getBytesSent() > 0);
+        Assert.assertEquals(SAMPLE_FILE_JSON.length(), metrics.getBytesReceived());
+    }
+
+    @Test
+    public void testMetricsOfRateLimitedRequest() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        BoxConfig.setHttpTransport(new InMemoryHttpTransport(new InMemoryHttpTransport.Server() {
+            @Override
+            public void respond(InMemoryHttpTransport.Exchange exchange) {
+                if (attempts.getAndIncrement() == 0) {
+                    exchange.setResponse(BoxConstants.HTTP_STATUS_TOO_MANY_REQUESTS, "{\"type\":\"error\",\"status\":429}")
+                            .setResponseHeader("Retry-After", "1");
+                } else {
+                    exchange.setResponse(HttpURLConnection.HTTP_OK, SAMPLE_USER_JSON);
+                }
+            }
+        }));
+        new BoxApiUser(SessionUtil.newMockBoxSession(mMockContext)).getCurrentUserInfoRequest().send();
+
+        // Each attempt is reported, the retry completes first as it is sent while handling the first response.
+        Assert.assertEquals(2, mMetrics.size());
+        Assert.assertEquals(HttpURLConnection.HTTP_OK, mMetrics.get(0).getResponseCode());
+        Assert.assertEquals(BoxConstants.HTTP_STATUS_TOO_MANY_REQUESTS, mMetrics.get(1).getResponseCode());
+        Assert.assertEquals(1, mMetrics.get(1).getRateLimitRetries());
+        Assert.assertTrue(mMetrics.get(1).getProcessingTimeNanos() >= mMetrics.get(0).getTotalTimeNanos());
+    }
+}
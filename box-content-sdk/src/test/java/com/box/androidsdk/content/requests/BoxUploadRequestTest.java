@@ -1,32 +1,62 @@
 package com.box.androidsdk.content.requests;
 
 import android.content.Context;
+import android.util.Base64;
 
 import com.box.androidsdk.content.BoxApiFile;
+import com.box.androidsdk.content.BoxException;
 import com.box.androidsdk.content.listeners.ProgressListener;
+import com.box.androidsdk.content.models.BoxFile;
+import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.models.BoxUploadSession;
 import com.box.androidsdk.content.testUtil.PowerMock;
 import com.box.androidsdk.content.testUtil.SessionUtil;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
 
 import junit.framework.Assert;
 
 import org.junit.Test;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 
 /**
  * Tests for upload requests
  */
 
-@PrepareForTest({ BoxHttpResponse.class,  BoxRequest.class, BoxRequestMultipart.class})
+@PrepareForTest({ BoxHttpResponse.class,  BoxRequest.class, BoxRequestMultipart.class, Base64.class})
 public class BoxUploadRequestTest extends PowerMock {
     @Mock
     Context mMockContext;
@@ -112,4 +142,349 @@ public class BoxUploadRequestTest extends PowerMock {
         Assert.assertEquals(now, uploadRequest.getModifiedDate());
         Assert.assertEquals(file, uploadRequest.getFile());
     }
+
+    @Test
+    public void testUploadFileInPartsRequest() throws Exception {
+        BoxApiFile fileApi = new BoxApiFile(SessionUtil.newMockBoxSession(mMockContext));
+        final FakeUploadServer server = new FakeUploadServer((int) (3.5 * FakeUploadServer.PART_SIZE));
+        // The third part fails the first time it is sent.
+        server.mFailingOffsets.add(2L * FakeUploadServer.PART_SIZE);
+        mockUploadServer(server);
+
+        File file = File.createTempFile("parts", ".bin");
+        file.deleteOnExit();
+        writeFile(file, server.mContent);
+
+        final AtomicLong progress = new AtomicLong();
+        BoxRequestsFile.UploadFileInParts uploadRequest = fileApi.getUploadInPartsRequest(file, "0")
+                .setParallelParts(2)
+                .setProgressListener(new ProgressListener() {
+                    @Override
+                    public void onProgressChanged(long numBytes, long totalBytes) {
+                        Assert.assertEquals(server.mContent.length, totalBytes);
+                        progress.set(numBytes);
+                    }
+                });
+        Assert.assertEquals(2, uploadRequest.getParallelParts());
+        Assert.assertEquals(file, uploadRequest.getFile());
+
+        BoxFile result = uploadRequest.send();
+        Assert.assertEquals(FakeUploadServer.FILE_ID, result.getId());
+        Assert.assertEquals(FakeUploadServer.SESSION_ID, uploadRequest.getUploadSession().getId());
+        Assert.assertEquals(server.mContent.length, progress.get());
+
+        // Only the failed part is sent twice.
+        List<String> ranges = new ArrayList<String>(server.mRanges);
+        Collections.sort(ranges);
+        Assert.assertEquals(Arrays.asList("bytes 0-1023/3584", "bytes 1024-2047/3584", "bytes 2048-3071/3584",
+                "bytes 2048-3071/3584", "bytes 3072-3583/3584"), ranges);
+        Assert.assertTrue(Arrays.equals(server.mContent, server.mReceived));
+
+        // Parts are committed in order.
+        JsonArray committedParts = JsonObject.readFrom(server.mCommitBody).get("parts").asArray();
+        Assert.assertEquals(4, committedParts.size());
+        for (int i = 0; i < committedParts.size(); i++) {
+            Assert.assertEquals(i * FakeUploadServer.PART_SIZE, committedParts.get(i).asObject().get("offset").asLong());
+        }
+    }
+
+    @Test
+    public void testPipelinedUploadFileInPartsRequest() throws Exception {
+        BoxApiFile fileApi = new BoxApiFile(SessionUtil.newMockBoxSession(mMockContext));
+        final FakeUploadServer server = new FakeUploadServer((int) (5.5 * FakeUploadServer.PART_SIZE));
+        // The second part fails the first time and is then read again from the file.
+        server.mFailingOffsets.add((long) FakeUploadServer.PART_SIZE);
+        mockUploadServer(server);
+
+        File file = File.createTempFile("parts", ".bin");
+        file.deleteOnExit();
+        writeFile(file, server.mContent);
+
+        final AtomicLong progress = new AtomicLong();
+        BoxRequestsFile.UploadFileInParts uploadRequest = fileApi.getUploadInPartsRequest(file, "0")
+                .setPipelined(true)
+                .setParallelParts(2)
+                .setProgressListener(new ProgressListener() {
+                    @Override
+                    public void onProgressChanged(long numBytes, long totalBytes) {
+                        progress.set(numBytes);
+                    }
+                });
+        Assert.assertTrue(uploadRequest.isPipelined());
+
+        BoxFile result = uploadRequest.send();
+        Assert.assertEquals(FakeUploadServer.FILE_ID, result.getId());
+        Assert.assertEquals(server.mContent.length, progress.get());
+        Assert.assertEquals(7, server.mRanges.size());
+        Assert.assertTrue(Arrays.equals(server.mContent, server.mReceived));
+        Assert.assertEquals(6, uploadRequest.getUploadSession().getFieldPartsSha1().size());
+        Assert.assertEquals(sha1(server.mContent, 0, server.mContent.length), uploadRequest.getUploadSession().getSha1());
+    }
+
+    @Test
+    public void testResumeUploadFileInPartsRequest() throws Exception {
+        BoxApiFile fileApi = new BoxApiFile(SessionUtil.newMockBoxSession(mMockContext));
+        final FakeUploadServer server = new FakeUploadServer((int) (3.5 * FakeUploadServer.PART_SIZE));
+        server.mFailingOffsets.add(2L * FakeUploadServer.PART_SIZE);
+        mockUploadServer(server);
+
+        File file = File.createTempFile("parts", ".bin");
+        file.deleteOnExit();
+        writeFile(file, server.mContent);
+        File journalDirectory = new File(file.getPath() + ".journals");
+        Assert.assertTrue(journalDirectory.mkdir());
+        journalDirectory.deleteOnExit();
+
+        // The first attempt stops after the third part fails.
+        BoxRequestsFile.UploadFileInParts uploadRequest = fileApi.getUploadInPartsRequest(file, "0")
+                .setJournalDirectory(journalDirectory)
+                .setMaxPartAttempts(1);
+        try {
+            uploadRequest.send();
+            Assert.fail("Upload should have failed");
+        } catch (BoxException e) {
+            Assert.assertEquals(HttpURLConnection.HTTP_INTERNAL_ERROR, e.getResponseCode());
+        }
+        Assert.assertEquals(1, journalDirectory.listFiles().length);
+        Assert.assertNull(server.mCommitBody);
+
+        // The server lost the first part in the meantime, so it has to be sent again along with the third.
+        server.mUploadedParts.remove(0L);
+        server.mRanges.clear();
+        final AtomicLong progress = new AtomicLong();
+        BoxRequestsFile.UploadFileInParts resumedRequest = fileApi.getUploadInPartsRequest(file, "0")
+                .setJournalDirectory(journalDirectory)
+                .setProgressListener(new ProgressListener() {
+                    @Override
+                    public void onProgressChanged(long numBytes, long totalBytes) {
+                        progress.set(numBytes);
+                    }
+                });
+        BoxFile result = resumedRequest.send();
+        Assert.assertEquals(FakeUploadServer.FILE_ID, result.getId());
+        Assert.assertEquals(1, server.mSessionsCreated.get());
+        Assert.assertEquals(server.mContent.length, progress.get());
+
+        List<String> ranges = new ArrayList<String>(server.mRanges);
+        Collections.sort(ranges);
+        Assert.assertEquals(Arrays.asList("bytes 0-1023/3584", "bytes 2048-3071/3584"), ranges);
+        Assert.assertTrue(Arrays.equals(server.mContent, server.mReceived));
+        Assert.assertEquals(4, JsonObject.readFrom(server.mCommitBody).get("parts").asArray().size());
+        Assert.assertEquals(0, journalDirectory.listFiles().length);
+    }
+
+    @Test
+    public void testUploadSessionPartFromStream() throws Exception {
+        BoxSession session = SessionUtil.newMockBoxSession(mMockContext);
+        final FakeUploadServer server = new FakeUploadServer((int) (3.5 * FakeUploadServer.PART_SIZE));
+        mockUploadServer(server);
+        BoxUploadSession uploadSession = new BoxUploadSession(JsonObject.readFrom(server.getSessionJson()));
+        List<String> partSha1s = new ArrayList<String>();
+        for (int offset = 0; offset < server.mContent.length; offset += FakeUploadServer.PART_SIZE) {
+            partSha1s.add(sha1(server.mContent, offset, Math.min(FakeUploadServer.PART_SIZE, server.mContent.length - offset)));
+        }
+        uploadSession.setPartsSha1(partSha1s);
+
+        // A positioned stream is read part after part and left open.
+        final AtomicBoolean closed = new AtomicBoolean();
+        InputStream input = new ByteArrayInputStream(server.mContent) {
+            @Override
+            public void close() throws IOException {
+                closed.set(true);
+                super.close();
+            }
+        };
+        for (int partNumber = 0; partNumber < 3; partNumber++) {
+            new BoxRequestsFile.UploadSessionPart(input, server.mContent.length, uploadSession, partNumber, session)
+                    .setAlreadyPositioned(true)
+                    .send();
+        }
+        Assert.assertFalse(closed.get());
+
+        // Otherwise the stream starts at the beginning of the file and the previous parts are skipped.
+        new BoxRequestsFile.UploadSessionPart(new ByteArrayInputStream(server.mContent), server.mContent.length,
+                uploadSession, 3, session).send();
+        Assert.assertTrue(Arrays.equals(server.mContent, server.mReceived));
+    }
+
+    private static void mockUploadServer(final FakeUploadServer server) throws Exception {
+        PowerMockito.mockStatic(Base64.class);
+        PowerMockito.when(Base64.encodeToString(any(byte[].class), anyInt())).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) throws Throwable {
+                return java.util.Base64.getEncoder().encodeToString((byte[]) invocation.getArguments()[0]);
+            }
+        });
+        URL u = PowerMockito.mock(URL.class);
+        PowerMockito.whenNew(URL.class).withAnyArguments().thenReturn(u);
+        PowerMockito.when(u.openConnection()).thenAnswer(new Answer<HttpURLConnection>() {
+            @Override
+            public HttpURLConnection answer(InvocationOnMock invocation) throws Throwable {
+                return new UploadSessionConnection(server);
+            }
+        });
+    }
+
+    private static String sha1(byte[] content, int offset, int length) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        digest.update(content, offset, length);
+        return java.util.Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    private static void writeFile(File file, byte[] content) throws IOException {
+        OutputStream output = new FileOutputStream(file);
+        try {
+            output.write(content);
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * State of a fake upload session server shared by all connections.
+     */
+    private static class FakeUploadServer {
+
+        static final int PART_SIZE = 1024;
+        static final String SESSION_ID = "F971964745A5CD0C001BBE4E58196BFD";
+        static final String FILE_ID = "5000948880";
+        static final String ENDPOINT = "https://upload.box.com/api/2.0/files/upload_sessions/" + SESSION_ID;
+
+        final byte[] mContent;
+        final byte[] mReceived;
+        final List<String> mRanges = new CopyOnWriteArrayList<String>();
+        final Set<Long> mFailingOffsets = Collections.synchronizedSet(new HashSet<Long>());
+        final Map<Long, String> mUploadedParts = new ConcurrentSkipListMap<Long, String>();
+        final AtomicInteger mSessionsCreated = new AtomicInteger();
+        volatile String mCommitBody;
+
+        FakeUploadServer(int size) {
+            mContent = new byte[size];
+            new Random(11).nextBytes(mContent);
+            mReceived = new byte[size];
+        }
+
+        String getSessionJson() {
+            int totalParts = (mContent.length + PART_SIZE - 1) / PART_SIZE;
+            return "{\"type\":\"upload_session\",\"id\":\"" + SESSION_ID + "\",\"total_parts\":" + totalParts
+                    + ",\"part_size\":" + PART_SIZE + ",\"num_parts_processed\":0,"
+                    + "\"session_expires_at\":\"2099-01-01T00:00:00-08:00\",\"session_endpoints\":{"
+                    + "\"upload_part\":\"" + ENDPOINT + "\",\"commit\":\"" + ENDPOINT + "/commit\","
+                    + "\"list_parts\":\"" + ENDPOINT + "/parts\",\"abort\":\"" + ENDPOINT + "\"}}";
+        }
+
+        String getPartsJson() {
+            StringBuilder entries = new StringBuilder();
+            for (String part : mUploadedParts.values()) {
+                entries.append(entries.length() == 0 ? "" : ",").append(part);
+            }
+            return "{\"total_count\":" + mUploadedParts.size() + ",\"offset\":0,\"limit\":1000,\"entries\":[" + entries + "]}";
+        }
+    }
+
+    /**
+     * Connection answering session creation, part upload, part listing and commit requests from a
+     * {@link FakeUploadServer}.
+     */
+    private static class UploadSessionConnection extends HttpURLConnection {
+
+        private final FakeUploadServer mServer;
+        private final ByteArrayOutputStream mBody = new ByteArrayOutputStream();
+        private int mResponseCode;
+        private String mResponse;
+
+        UploadSessionConnection(FakeUploadServer server) {
+            super(null);
+            mServer = server;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return mBody;
+        }
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public int getResponseCode() {
+            if (mResponse == null) {
+                respond();
+            }
+            return mResponseCode;
+        }
+
+        private void respond() {
+            try {
+                respondChecked();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void respondChecked() throws NoSuchAlgorithmException {
+            String range = getRequestProperty("content-range");
+            if ("PUT".equals(getRequestMethod()) && range != null) {
+                mServer.mRanges.add(range);
+                String[] bounds = range.substring("bytes ".length(), range.indexOf('/')).split("-");
+                long offset = Long.parseLong(bounds[0]);
+                byte[] part = mBody.toByteArray();
+                Assert.assertEquals(Long.parseLong(bounds[1]) - offset + 1, part.length);
+                Assert.assertEquals("sha=" + sha1(part, 0, part.length), getRequestProperty("digest"));
+                if (mServer.mFailingOffsets.remove(offset)) {
+                    mResponseCode = HTTP_INTERNAL_ERROR;
+                    mResponse = "{\"type\":\"error\",\"status\":500,\"code\":\"internal_server_error\"}";
+                    return;
+                }
+                System.arraycopy(part, 0, mServer.mReceived, (int) offset, part.length);
+                String partJson = "{\"part_id\":\"" + Long.toHexString(offset) + "\",\"offset\":" + offset
+                        + ",\"size\":" + part.length + "}";
+                mServer.mUploadedParts.put(offset, partJson);
+                mResponseCode = HTTP_OK;
+                mResponse = "{\"part\":" + partJson + "}";
+            } else if ("GET".equals(getRequestMethod())) {
+                mResponseCode = HTTP_OK;
+                mResponse = mServer.getPartsJson();
+            } else if (getRequestProperty("digest") != null) {
+                Assert.assertEquals("sha=" + sha1(mServer.mContent, 0, mServer.mContent.length), getRequestProperty("digest"));
+                mServer.mCommitBody = new String(mBody.toByteArray());
+                mResponseCode = HTTP_CREATED;
+                mResponse = "{\"total_count\":1,\"entries\":[{\"type\":\"file\",\"id\":\"" + FakeUploadServer.FILE_ID
+                        + "\",\"name\":\"parts.bin\"}]}";
+            } else {
+                mServer.mSessionsCreated.incrementAndGet();
+                mResponseCode = HTTP_CREATED;
+                mResponse = mServer.getSessionJson();
+            }
+        }
+
+        @Override
+        public String getContentType() {
+            return BoxRequest.ContentTypes.JSON.toString();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            if (getResponseCode() >= HTTP_BAD_REQUEST) {
+                throw new IOException("Server returned " + mResponseCode);
+            }
+            return new ByteArrayInputStream(mResponse.getBytes());
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            getResponseCode();
+            return new ByteArrayInputStream(mResponse.getBytes());
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,214 @@
+package com.box.androidsdk.content.testUtil;
+
+import com.box.androidsdk.content.BoxHttpTransport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transport answering requests from memory instead of the network. Every request is handed to a {@link Server} which
+ * fills in the response, and is kept so tests can check what was sent.
+ */
+public class InMemoryHttpTransport extends BoxHttpTransport {
+
+    /**
+     * Answers the requests sent through the transport.
+     */
+    public interface Server {
+
+        /**
+         * @param exchange the request, to be completed with a response.
+         * @throws IOException thrown to simulate a network error.
+         */
+        void respond(Exchange exchange) throws IOException;
+    }
+
+    private final Server mServer;
+    private final List<Exchange> mExchanges = new CopyOnWriteArrayList<Exchange>();
+    private final AtomicInteger mOpenConnections = new AtomicInteger();
+
+    public InMemoryHttpTransport(Server server) {
+        mServer = server;
+    }
+
+    /**
+     * Returns a transport answering every request with the given status and json body.
+     */
+    public static InMemoryHttpTransport respondingWith(final int responseCode, final String json) {
+        return new InMemoryHttpTransport(new Server() {
+            @Override
+            public void respond(Exchange exchange) {
+                exchange.setResponse(responseCode, json);
+            }
+        });
+    }
+
+    @Override
+    public HttpURLConnection openConnection(URL url) {
+        mOpenConnections.incrementAndGet();
+        return new Connection(url);
+    }
+
+    @Override
+    public void releaseConnection(HttpURLConnection connection) {
+        mOpenConnections.decrementAndGet();
+    }
+
+    /**
+     * @return the requests sent so far, in the order they were sent.
+     */
+    public List<Exchange> getExchanges() {
+        return mExchanges;
+    }
+
+    /**
+     * @return the number of connections opened and not released yet.
+     */
+    public int getOpenConnections() {
+        return mOpenConnections.get();
+    }
+
+    /**
+     * A request sent through the transport together with its response.
+     */
+    public static class Exchange {
+
+        private final String mMethod;
+        private final URL mUrl;
+        private final Map<String, List<String>> mRequestHeaders;
+        private final byte[] mRequestBody;
+        private final Map<String, String> mResponseHeaders = new HashMap<String, String>();
+        private int mResponseCode = HttpURLConnection.HTTP_OK;
+        private byte[] mResponseBody = new byte[0];
+
+        Exchange(String method, URL url, Map<String, List<String>> requestHeaders, byte[] requestBody) {
+            mMethod = method;
+            mUrl = url;
+            mRequestHeaders = requestHeaders;
+            mRequestBody = requestBody;
+        }
+
+        public String getMethod() {
+            return mMethod;
+        }
+
+        public URL getUrl() {
+            return mUrl;
+        }
+
+        public String getRequestHeader(String name) {
+            List<String> values = mRequestHeaders.get(name);
+            return values == null || values.isEmpty() ? null : values.get(0);
+        }
+
+        public byte[] getRequestBody() {
+            return mRequestBody;
+        }
+
+        public Exchange setResponse(int responseCode, String json) {
+            mResponseCode = responseCode;
+            mResponseBody = json.getBytes();
+            return setResponseHeader("Content-Type", "application/json");
+        }
+
+        public Exchange setResponseHeader(String name, String value) {
+            mResponseHeaders.put(name, value);
+            return this;
+        }
+    }
+
+    private class Connection extends HttpURLConnection {
+
+        private final ByteArrayOutputStream mBody = new ByteArrayOutputStream();
+        private Exchange mExchange;
+
+        Connection(URL url) {
+            super(url);
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return mBody;
+        }
+
+        @Override
+        public void connect() {
+        }
+
+        private Exchange exchange() throws IOException {
+            if (mExchange == null) {
+                Exchange exchange = new Exchange(getRequestMethod(), getURL(), getRequestProperties(), mBody.toByteArray());
+                connected = true;
+                mExchanges.add(exchange);
+                mServer.respond(exchange);
+                mExchange = exchange;
+            }
+            return mExchange;
+        }
+
+        @Override
+        public int getResponseCode() throws IOException {
+            return exchange().mResponseCode;
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            try {
+                for (Map.Entry<String, String> header : exchange().mResponseHeaders.entrySet()) {
+                    if (header.getKey().equalsIgnoreCase(name)) {
+                        return header.getValue();
+                    }
+                }
+                return null;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String getContentType() {
+            return getHeaderField("Content-Type");
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return getHeaderField("Content-Encoding");
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            if (getResponseCode() >= HTTP_BAD_REQUEST) {
+                throw new IOException("Server returned " + getResponseCode());
+            }
+            return new ByteArrayInputStream(exchange().mResponseBody);
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            try {
+                return getResponseCode() >= HTTP_BAD_REQUEST ? new ByteArrayInputStream(exchange().mResponseBody) : null;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+    }
+}
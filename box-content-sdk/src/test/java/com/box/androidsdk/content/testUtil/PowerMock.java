@@ -2,6 +2,7 @@ package com.box.androidsdk.content.testUtil;
 
 import android.text.TextUtils;
 
+import com.box.androidsdk.content.BoxHttpTransport;
 import com.box.androidsdk.content.requests.BoxHttpResponse;
 import com.box.androidsdk.content.requests.BoxRequest;
 
@@ -25,7 +26,7 @@ import static org.mockito.Matchers.any;
  */
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest(TextUtils.class)
+@PrepareForTest({TextUtils.class, BoxHttpTransport.class})
 public abstract class PowerMock {
 
     /**
@@ -0,0 +1,153 @@
+package com.box.androidsdk.content.utils;
+
+import android.content.Context;
+
+import com.box.androidsdk.content.BoxConfig;
+import com.box.androidsdk.content.models.BoxEvent;
+import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.testUtil.InMemoryHttpTransport;
+import com.box.androidsdk.content.testUtil.PowerMock;
+import com.box.androidsdk.content.testUtil.SessionUtil;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link EventStreamConsumer}.
+ */
+public class EventStreamConsumerTest extends PowerMock {
+
+    @Mock
+    Context mMockContext;
+
+    @After
+    public void reset() {
+        BoxConfig.setHttpTransport(null);
+    }
+
+    @Test
+    public void testPollPagesWithCheckpoint() throws Exception {
+        final Map<String, String> pages = new HashMap<String, String>();
+        pages.put("now", createPage(100, new String[0]));
+        pages.put("100", createPage(101, new String[]{"a", "b"}));
+        // Events may be returned again by the next page.
+        pages.put("101", createPage(102, new String[]{"b", "c"}));
+        pages.put("102", createPage(102, new String[0]));
+        final List<String> requestedPositions = new ArrayList<String>();
+        BoxConfig.setHttpTransport(new InMemoryHttpTransport(new InMemoryHttpTransport.Server() {
+            @Override
+            public void respond(InMemoryHttpTransport.Exchange exchange) {
+                String position = exchange.getUrl().getQuery().replaceAll(".*stream_position=([^&]*).*", "$1");
+                requestedPositions.add(position);
+                exchange.setResponse(HttpURLConnection.HTTP_OK, pages.get(position));
+            }
+        }));
+        BoxSession session = SessionUtil.newMockBoxSession(mMockContext);
+        final List<String> delivered = new ArrayList<String>();
+        EventStreamConsumer.OnEventsListener listener = new EventStreamConsumer.OnEventsListener() {
+            @Override
+            public void onEvents(List<BoxEvent> events, EventStreamConsumer consumer) {
+                for (BoxEvent event : events) {
+                    delivered.add(event.getEventId());
+                }
+            }
+
+            @Override
+            public void onException(Exception e, EventStreamConsumer consumer) {
+                Assert.fail(e.toString());
+            }
+        };
+        InMemoryCheckpointStore store = new InMemoryCheckpointStore();
+        EventStreamConsumer consumer = EventStreamConsumer.forUserEvents(session, listener).setPageSize(2).setCheckpointStore(store);
+
+        // Starts from the current position without delivering past events.
+        Assert.assertEquals(0, consumer.poll());
+        Assert.assertEquals(Long.valueOf(100), consumer.getStreamPosition());
+
+        Assert.assertEquals(3, consumer.poll());
+        Assert.assertEquals("[a, b, c]", delivered.toString());
+        Assert.assertEquals("[now, 100, 101, 102]", requestedPositions.toString());
+        Assert.assertEquals(Long.valueOf(102), consumer.getStreamPosition());
+
+        // A new consumer resumes from the saved position.
+        EventStreamConsumer resumed = EventStreamConsumer.forUserEvents(session, listener).setCheckpointStore(store);
+        Assert.assertEquals(Long.valueOf(102), resumed.getStreamPosition());
+    }
+
+    @Test
+    public void testStopDoesNotWaitForPoll() throws Exception {
+        final CountDownLatch requested = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        BoxConfig.setHttpTransport(new InMemoryHttpTransport(new InMemoryHttpTransport.Server() {
+            @Override
+            public void respond(InMemoryHttpTransport.Exchange exchange) {
+                requested.countDown();
+                try {
+                    released.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.setResponse(HttpURLConnection.HTTP_OK, createPage(100, new String[0]));
+            }
+        }));
+        EventStreamConsumer consumer = EventStreamConsumer.forUserEvents(SessionUtil.newMockBoxSession(mMockContext), new EventStreamConsumer.OnEventsListener() {
+            @Override
+            public void onEvents(List<BoxEvent> events, EventStreamConsumer consumer) {
+            }
+
+            @Override
+            public void onException(Exception e, EventStreamConsumer consumer) {
+            }
+        });
+        consumer.start(60000);
+        try {
+            Assert.assertTrue(requested.await(10, TimeUnit.SECONDS));
+            // The poll is blocked on the network, stopping must return right away.
+            long start = System.currentTimeMillis();
+            consumer.stop();
+            Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+        } finally {
+            released.countDown();
+        }
+    }
+
+    private static String createPage(long nextStreamPosition, String[] eventIds) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"chunk_size\":").append(eventIds.length)
+                .append(",\"next_stream_position\":").append(nextStreamPosition)
+                .append(",\"entries\":[");
+        for (int i = 0; i < eventIds.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"type\":\"event\",\"event_id\":\"").append(eventIds[i]).append("\",\"event_type\":\"ITEM_RENAME\"}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static class InMemoryCheckpointStore implements EventStreamConsumer.CheckpointStore {
+
+        private final Map<String, Long> mPositions = new HashMap<String, Long>();
+
+        @Override
+        public Long getStreamPosition(String key) {
+            return mPositions.get(key);
+        }
+
+        @Override
+        public void setStreamPosition(String key, Long streamPosition) {
+            mPositions.put(key, streamPosition);
+        }
+    }
+}
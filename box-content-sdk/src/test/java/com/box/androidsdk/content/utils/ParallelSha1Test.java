@@ -0,0 +1,151 @@
+package com.box.androidsdk.content.utils;
+
+import junit.framework.Assert;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Tests for computing the digests of a file and of its parts. Also holds a small benchmark comparing the single pass
+ * used before against hashing the parts in parallel, ignored by default and run on demand.
+ */
+public class ParallelSha1Test {
+
+    private static final int PART_SIZE = 64 * 1024;
+    private static final long BENCHMARK_PART_SIZE = 8 * 1024 * 1024;
+    private static final int[] BENCHMARK_FILE_SIZES = {4 * 1024 * 1024, 16 * 1024 * 1024, 64 * 1024 * 1024};
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int BENCHMARK_ITERATIONS = 5;
+
+    @Test
+    public void testComputeDigests() throws Exception {
+        // The last part is shorter than the others.
+        int size = PART_SIZE * 5 + PART_SIZE / 3;
+        File file = createFile(size);
+        try {
+            byte[] content = readFile(file);
+            for (int threads : new int[]{1, 4}) {
+                ParallelSha1.Digests digests = ParallelSha1.computeDigests(file, PART_SIZE, threads);
+                Assert.assertTrue(Arrays.equals(sha1(content, 0, size), digests.getFileSha1()));
+                Assert.assertEquals(6, digests.getPartCount());
+                for (int part = 0; part < digests.getPartCount(); part++) {
+                    int offset = part * PART_SIZE;
+                    byte[] expected = sha1(content, offset, Math.min(PART_SIZE, size - offset));
+                    Assert.assertTrue(Arrays.equals(expected, digests.getPartSha1(part)));
+                }
+            }
+            Assert.assertTrue(Arrays.equals(sha1(content, 0, size), ParallelSha1.computeFileSha1(file)));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testComputeDigestsOfEmptyFile() throws Exception {
+        File file = createFile(0);
+        try {
+            ParallelSha1.Digests digests = ParallelSha1.computeDigests(file, PART_SIZE, 4);
+            Assert.assertEquals(0, digests.getPartCount());
+            Assert.assertTrue(Arrays.equals(sha1(new byte[0], 0, 0), digests.getFileSha1()));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    @Ignore("Benchmark, run on demand")
+    public void benchmarkParallelSha1() throws Exception {
+        for (int size : BENCHMARK_FILE_SIZES) {
+            File file = createFile(size);
+            try {
+                long singlePass = 0;
+                long parallel = 0;
+                for (int i = 0; i < WARMUP_ITERATIONS + BENCHMARK_ITERATIONS; i++) {
+                    long start = System.nanoTime();
+                    computeInSinglePass(file, BENCHMARK_PART_SIZE);
+                    long middle = System.nanoTime();
+                    ParallelSha1.computeDigests(file, BENCHMARK_PART_SIZE);
+                    if (i >= WARMUP_ITERATIONS) {
+                        singlePass += middle - start;
+                        parallel += System.nanoTime() - middle;
+                    }
+                }
+                System.out.println(String.format(Locale.ENGLISH,
+                        "Sha1 of %d byte file and its parts: single pass %6d ms, parallel %6d ms",
+                        size, singlePass / BENCHMARK_ITERATIONS / 1000000, parallel / BENCHMARK_ITERATIONS / 1000000));
+            } finally {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * The previous implementation of BoxRequestsFile.CreateUploadSession.computeSha1s.
+     */
+    private static void computeInSinglePass(File file, long partSize) throws Exception {
+        MessageDigest fileDigest = MessageDigest.getInstance("SHA-1");
+        MessageDigest partDigest = MessageDigest.getInstance("SHA-1");
+        byte[] buffer = new byte[8192];
+        InputStream input = new FileInputStream(file);
+        try {
+            long remaining = file.length();
+            while (remaining > 0) {
+                long partRemaining = Math.min(partSize, remaining);
+                while (partRemaining > 0) {
+                    int read = input.read(buffer, 0, (int) Math.min(buffer.length, partRemaining));
+                    fileDigest.update(buffer, 0, read);
+                    partDigest.update(buffer, 0, read);
+                    partRemaining -= read;
+                    remaining -= read;
+                }
+                partDigest.digest();
+            }
+            fileDigest.digest();
+        } finally {
+            input.close();
+        }
+    }
+
+    private static File createFile(int size) throws IOException {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        File file = File.createTempFile("parallelsha1", ".bin");
+        FileOutputStream output = new FileOutputStream(file);
+        try {
+            output.write(content);
+        } finally {
+            output.close();
+        }
+        return file;
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        byte[] content = new byte[(int) file.length()];
+        InputStream input = new FileInputStream(file);
+        try {
+            int offset = 0;
+            while (offset < content.length) {
+                offset += input.read(content, offset, content.length - offset);
+            }
+        } finally {
+            input.close();
+        }
+        return content;
+    }
+
+    private static byte[] sha1(byte[] content, int offset, int length) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        digest.update(content, offset, length);
+        return digest.digest();
+    }
+}
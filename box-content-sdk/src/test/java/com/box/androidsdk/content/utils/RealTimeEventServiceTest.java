@@ -0,0 +1,113 @@
+package com.box.androidsdk.content.utils;
+
+import android.content.Context;
+
+import com.box.androidsdk.content.BoxApiEvent;
+import com.box.androidsdk.content.BoxConfig;
+import com.box.androidsdk.content.models.BoxEvent;
+import com.box.androidsdk.content.testUtil.InMemoryHttpTransport;
+import com.box.androidsdk.content.testUtil.PowerMock;
+import com.box.androidsdk.content.testUtil.SessionUtil;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.net.HttpURLConnection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for {@link RealTimeEventService}.
+ */
+public class RealTimeEventServiceTest extends PowerMock {
+
+    private static final String REAL_TIME_SERVERS_JSON = "{\"chunk_size\":1,\"entries\":[{\"type\":\"realtime_server\","
+            + "\"url\":\"https://2.realtime.services.box.net/subscribe?channel=cc807c9c4869ffb1c81a&stream_type=all\","
+            + "\"ttl\":10,\"max_retries\":10,\"retry_timeout\":610}]}";
+    private static final String NOW_JSON = "{\"chunk_size\":0,\"next_stream_position\":100,\"entries\":[]}";
+    private static final String EVENTS_JSON = "{\"chunk_size\":1,\"next_stream_position\":101,\"entries\":[{\"type\":\"event\","
+            + "\"event_id\":\"f82c3ba03e41f7e8a7608363cc6c0390183c3f83\",\"event_type\":\"ITEM_UPLOAD\"}]}";
+    private static final String NO_EVENTS_JSON = "{\"chunk_size\":0,\"next_stream_position\":101,\"entries\":[]}";
+
+    @Mock
+    Context mMockContext;
+
+    private RealTimeEventService mService;
+
+    @After
+    public void reset() {
+        if (mService != null) {
+            mService.stop();
+        }
+        BoxConfig.setHttpTransport(null);
+    }
+
+    @Test
+    public void testPushesEventsAfterChange() throws Exception {
+        final AtomicInteger serverRequests = new AtomicInteger();
+        final List<String> longPollUrls = new CopyOnWriteArrayList<String>();
+        BoxConfig.setHttpTransport(new InMemoryHttpTransport(new InMemoryHttpTransport.Server() {
+            @Override
+            public void respond(InMemoryHttpTransport.Exchange exchange) {
+                String url = exchange.getUrl().toString();
+                if (exchange.getMethod().equals("OPTIONS")) {
+                    serverRequests.incrementAndGet();
+                    exchange.setResponse(HttpURLConnection.HTTP_OK, REAL_TIME_SERVERS_JSON);
+                } else if (url.contains("/subscribe")) {
+                    longPollUrls.add(url);
+                    if (longPollUrls.size() > 1) {
+                        // Later long polls wait for a change that does not come.
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            // Ignore
+                        }
+                    }
+                    exchange.setResponse(HttpURLConnection.HTTP_OK, "{\"message\":\"" + (longPollUrls.size() == 1 ? "new_change" : "reconnect") + "\"}");
+                } else if (url.contains("stream_position=now")) {
+                    exchange.setResponse(HttpURLConnection.HTTP_OK, NOW_JSON);
+                } else if (url.contains("stream_position=100")) {
+                    exchange.setResponse(HttpURLConnection.HTTP_OK, EVENTS_JSON);
+                } else {
+                    exchange.setResponse(HttpURLConnection.HTTP_OK, NO_EVENTS_JSON);
+                }
+            }
+        }));
+
+        final List<BoxEvent> pushed = new CopyOnWriteArrayList<BoxEvent>();
+        final AtomicInteger serverRequestsWhenPushed = new AtomicInteger();
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        mService = new BoxApiEvent(SessionUtil.newMockBoxSession(mMockContext)).getRealTimeEventService();
+        mService.addListener(new RealTimeEventService.OnEventsListener() {
+            @Override
+            public void onEvents(List<BoxEvent> events, RealTimeEventService service) {
+                pushed.addAll(events);
+                serverRequestsWhenPushed.set(serverRequests.get());
+                latch.countDown();
+            }
+
+            @Override
+            public void onException(Exception e, RealTimeEventService service) {
+                // Called on the thread of the service, the failure is checked from the test thread.
+                failure.compareAndSet(null, e);
+                latch.countDown();
+            }
+        });
+        mService.start();
+
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assert.assertNull(failure.get());
+        Assert.assertEquals(1, pushed.size());
+        Assert.assertEquals("ITEM_UPLOAD", pushed.get(0).getEventType());
+        Assert.assertTrue(longPollUrls.get(0).endsWith("?channel=cc807c9c4869ffb1c81a&stream_type=all&stream_position=100"));
+        Assert.assertEquals(1, serverRequestsWhenPushed.get());
+    }
+}